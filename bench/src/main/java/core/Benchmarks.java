@@ -0,0 +1,27 @@
+package core;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH suite with the GC profiler always on, so every result carries
+ * allocation rate (gc.alloc.rate.norm = bytes per operation).
+ * <pre>
+ *   mvn -q package &amp;&amp; java -jar bench/target/benchmarks.jar [JMH options] [regex]
+ *   java -jar bench/target/benchmarks.jar RouteBenchmark -p customers=1000
+ * </pre>
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        Options opts = new OptionsBuilder()
+                .parent(cmd)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opts).run();
+    }
+}
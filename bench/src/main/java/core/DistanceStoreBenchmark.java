@@ -0,0 +1,61 @@
+package core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Random-pair lookups and a full NN-plan walk against each {@link DistanceStore} layout. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:MaxDirectMemorySize=4g"})
+public class DistanceStoreBenchmark {
+
+    private static final int PAIRS = 1 << 12;
+
+    @State(Scope.Benchmark)
+    public static class StoreState {
+
+        @Param({"1000", "10000"})
+        public int customers;
+
+        @Param({"DENSE", "TRIANGULAR", "OFF_HEAP_FLOAT", "OFF_HEAP_FIXED16", "LAZY"})
+        public String kind;
+
+        public VRPInstance inst;
+        public java.util.ArrayList<Route> routes;
+        public int[] from = new int[PAIRS], to = new int[PAIRS];
+
+        @Setup
+        public void setUp() {
+            inst = new VRPInstance();
+            inst.generateInstance(1234, customers);
+            inst.useDistanceStore(DistanceStores.parse(kind));
+            routes = new NearestNeighborSolver().generateRoutes(inst, InstanceState.CAPACITY);
+
+            Random rnd = new Random(7);
+            for (int i = 0; i < PAIRS; i++) {
+                from[i] = rnd.nextInt(inst.size());
+                to[i]   = rnd.nextInt(inst.size());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double randomLookup(StoreState s) {
+        DistanceStore d = s.inst.distances;
+        double sum = 0;
+        for (int i = 0; i < PAIRS; i++) sum += d.get(s.from[i], s.to[i]);
+        return sum;
+    }
+
+    @Benchmark
+    public double planDistance(StoreState s) {
+        double sum = 0;
+        for (Route r : s.routes) sum += r.calculateTotalDistance(s.inst);
+        return sum;
+    }
+}
@@ -0,0 +1,42 @@
+package core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Whole-solution fitness of the SA and GA objectives on the NN plan. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class FitnessBenchmark {
+
+    private SimulatedAnnealingSolver sa;
+    private GeneticAlgorithmSolver ga;
+
+    @Setup
+    public void setUp(InstanceState s) {
+        sa = new SimulatedAnnealingSolver(s.inst, InstanceState.CAPACITY);
+        ga = new GeneticAlgorithmSolver(s.inst, InstanceState.CAPACITY, 50, 200, 0.05);
+    }
+
+    @Benchmark
+    public double saFitness(InstanceState s) {
+        return sa.fitness(s.routes);
+    }
+
+    /** Cache cleared per call so the full evaluation is measured, not the hash lookup. */
+    @Benchmark
+    public double gaFitness(InstanceState s) {
+        ga.clearFitnessCache();
+        return ga.fitness(s.routes);
+    }
+
+    @Benchmark
+    public double gaFitnessCached(InstanceState s) {
+        return ga.fitness(s.routes);
+    }
+
+}
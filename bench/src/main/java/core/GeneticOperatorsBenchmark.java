@@ -0,0 +1,42 @@
+package core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** GA crossover and mutation; parents are the NN plan and a route-rotated variant of it. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class GeneticOperatorsBenchmark {
+
+    private GeneticAlgorithmSolver ga;
+    private List<Route> p1, p2;
+
+    @Setup
+    public void setUp(InstanceState s) {
+        ga = new GeneticAlgorithmSolver(s.inst, InstanceState.CAPACITY, 50, 200, 0.05);
+        p1 = s.copyRoutes();
+        ArrayList<Route> rotated = s.copyRoutes();
+        if (!rotated.isEmpty()) rotated.add(rotated.remove(0));
+        p2 = rotated;
+    }
+
+    @Benchmark
+    public List<Route> crossover() {
+        return ga.crossover(p1, p2);
+    }
+
+    /** Includes the copy of the parent, since mutate works in place. */
+    @Benchmark
+    public List<Route> mutate(InstanceState s) {
+        List<Route> child = s.copyRoutes();
+        ga.mutate(child, 0.25);
+        return child;
+    }
+}
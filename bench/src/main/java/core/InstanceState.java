@@ -0,0 +1,32 @@
+package core;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+
+/** Seeded synthetic instance plus a nearest-neighbour plan, shared by all benchmarks. */
+@State(Scope.Benchmark)
+public class InstanceState {
+
+    public static final int CAPACITY = 50;
+
+    @Param({"30", "100", "300", "1000", "10000"})
+    public int customers;
+
+    public VRPInstance inst;
+    public ArrayList<Route> routes;
+
+    @Setup
+    public void setUp() {
+        inst = new VRPInstance();
+        inst.generateInstance(1234, customers);
+        routes = new NearestNeighborSolver().generateRoutes(inst, CAPACITY);
+    }
+
+    public ArrayList<Route> copyRoutes() {
+        return Incumbent.copy(routes);
+    }
+}
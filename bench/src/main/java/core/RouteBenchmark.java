@@ -0,0 +1,30 @@
+package core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** {@link Route} distance and time-window checks over every route of the NN plan. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RouteBenchmark {
+
+    @Benchmark
+    public double calculateTotalDistance(InstanceState s) {
+        double d = 0;
+        for (Route r : s.routes) d += r.calculateTotalDistance(s.inst.depot);
+        return d;
+    }
+
+    /** Appending the depot-nearest customer to each route: a full schedule walk per call. */
+    @Benchmark
+    public int canAddTW(InstanceState s) {
+        Node probe = s.inst.customers.get(0);
+        int ok = 0;
+        for (Route r : s.routes) if (r.canAddTW(s.inst.depot, probe)) ok++;
+        return ok;
+    }
+}
@@ -0,0 +1,40 @@
+package core;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/** Construction and local-search passes; local searches start from a fresh NN copy each call. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    private ArrayList<Route> work;
+
+    @Setup(Level.Invocation)
+    public void freshPlan(InstanceState s) {
+        work = s.copyRoutes();
+    }
+
+    @Benchmark
+    public ArrayList<Route> nearestNeighbor(InstanceState s) {
+        return new NearestNeighborSolver().generateRoutes(s.inst, InstanceState.CAPACITY);
+    }
+
+    @Benchmark
+    public ArrayList<Route> localSearchIntra(InstanceState s) {
+        new LocalSearchIntra().improveRoutes(work, s.inst.depot);
+        return work;
+    }
+
+    @Benchmark
+    public ArrayList<Route> localSearchInter(InstanceState s) {
+        new LocalSearchInter().improveRoutes(work, s.inst.depot);
+        return work;
+    }
+}
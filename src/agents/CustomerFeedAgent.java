@@ -0,0 +1,63 @@
+package agents;
+
+import core.CustomerFeed;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.behaviours.TickerBehaviour;
+import jade.lang.acl.ACLMessage;
+
+import java.util.List;
+
+/**
+ * Stand-in for the order stream: replays a feed file to the MRA as
+ * "customer-arrival" messages.
+ *  • args[0] = feed file (see {@link CustomerFeed} for the line format)
+ *  • args[1] = wall-clock milliseconds per plan minute (default 100)
+ */
+public class CustomerFeedAgent extends Agent {
+
+    @Override
+    protected void setup() {
+        Object[] args = getArguments();
+        if (args == null || args.length == 0) {
+            System.err.println("[FEED] No feed file given – terminating");
+            doDelete();
+            return;
+        }
+        String path = args[0].toString();
+        long msPerMinute = args.length > 1 ? Long.parseLong(args[1].toString()) : 100;
+
+        final List<CustomerFeed.Arrival> feed;
+        try {
+            feed = CustomerFeed.read(path);
+        } catch (Exception e) {
+            System.err.println("[FEED] Cannot read " + path + ": " + e.getMessage());
+            doDelete();
+            return;
+        }
+        System.out.printf("[FEED] %s replaying %d customers from %s%n", getLocalName(), feed.size(), path);
+
+        final long t0 = System.currentTimeMillis();
+        addBehaviour(new TickerBehaviour(this, Math.max(1, msPerMinute / 4)) {
+            private int next = 0;
+
+            @Override
+            protected void onTick() {
+                double planMinute = (System.currentTimeMillis() - t0) / (double) Math.max(1, msPerMinute);
+                while (next < feed.size() && feed.get(next).release <= planMinute) {
+                    CustomerFeed.Arrival a = feed.get(next++);
+                    ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
+                    msg.addReceiver(new AID("mra", AID.ISLOCALNAME));
+                    msg.setConversationId("customer-arrival");
+                    msg.setContent(CustomerFeed.format(a.customer, a.release));
+                    send(msg);
+                }
+                if (next >= feed.size()) {
+                    System.out.println("[FEED] Feed exhausted");
+                    stop();
+                    myAgent.doDelete();
+                }
+            }
+        });
+    }
+}
@@ -1,20 +1,35 @@
 package agents;
 
+import core.RouteOptimizer;
 import jade.core.Agent;
 import jade.core.AID;
 import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.TickerBehaviour;
 import jade.lang.acl.ACLMessage;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * Delivery Agent (DA).
  *  • Chooses its own capacity unless a value is passed as an argument.
  *  • Announces that capacity to the Master Routing Agent (MRA).
  *  • Accepts or refuses the route it receives based on load.
+ *  • Re-checks load on "vrp-route-update" deltas sent in dynamic mode.
+ *  • Resequences the stops of an accepted route on its own thread ({@link RouteOptimizer}, then
+ *    the exact resequencer, both kept across routes in a {@link RouteImprover}) and answers
+ *    "vrp-route-improved" with the costs and the new order.
  */
 public class DeliveryAgent extends Agent {
 
     private int capacity = 30 + (int) (Math.random() * 51); // default 30–80
 
+    private ExecutorService optimiser;
+    private final RouteImprover improver = new RouteImprover();             // optimiser thread only
+    private final Queue<ACLMessage> outbox = new ConcurrentLinkedQueue<>();   // replies from the optimiser
+
     @Override
     protected void setup() {
 
@@ -33,6 +48,19 @@ public class DeliveryAgent extends Agent {
 
         System.out.printf("[DA] %s ready. Capacity=%d%n", getLocalName(), capacity);
 
+        optimiser = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, getLocalName() + "-optimiser");
+            t.setDaemon(true);
+            return t;
+        });
+        addBehaviour(new TickerBehaviour(this, 50) {
+            @Override
+            protected void onTick() {
+                ACLMessage m;
+                while ((m = outbox.poll()) != null) send(m);
+            }
+        });
+
         /* --- main behaviour: wait for route assignments --- */
         addBehaviour(new CyclicBehaviour() {
             @Override
@@ -40,7 +68,8 @@ public class DeliveryAgent extends Agent {
                 ACLMessage msg = receive();
                 if (msg == null) { block(); return; }
 
-                if ("vrp-route".equals(msg.getConversationId())) {
+                if ("vrp-route".equals(msg.getConversationId())
+                        || "vrp-route-update".equals(msg.getConversationId())) {
                     handleRoute(msg);
                 }
             }
@@ -61,13 +90,41 @@ public class DeliveryAgent extends Agent {
             refuse.setContent("Load " + assignedLoad + " > cap " + capacity);
             send(refuse);
         } else {
-            System.out.printf("[DA] %s ACCEPTED route. Load: %d / %d%n",
-                              getLocalName(), assignedLoad, capacity);
+            System.out.printf("[DA] %s ACCEPTED %s. Load: %d / %d%n",
+                              getLocalName(),
+                              "vrp-route-update".equals(msg.getConversationId()) ? "route update" : "route",
+                              assignedLoad, capacity);
+            int nl = content.indexOf('\n');
+            if (nl > 0) improve(msg, content.substring(nl + 1));
         }
     }
 
+    /** Resequences the stop list on the optimiser thread; always replies so the MRA can stop waiting. */
+    private void improve(ACLMessage msg, String stops) {
+        optimiser.submit(() -> {
+            ACLMessage reply = msg.createReply();
+            reply.setConversationId("vrp-route-improved");
+            try {
+                double[] cost = new double[2];
+                reply.setContent(improver.improve(stops, cost));
+                reply.setPerformative(ACLMessage.INFORM);
+                if (cost[1] < cost[0])
+                    System.out.printf("[DA] %s resequenced its route: %.2f → %.2f%n", getLocalName(), cost[0], cost[1]);
+            } catch (RuntimeException e) {
+                reply.setPerformative(ACLMessage.FAILURE);
+                reply.setContent(String.valueOf(e.getMessage()));
+            }
+            outbox.add(reply);
+        });
+    }
+
+    @Override
+    protected void takeDown() {
+        if (optimiser != null) optimiser.shutdownNow();
+    }
+
     /** Extract numeric load from “Load: 18/50 | …” */
-    private int parseLoad(String content) {
+    static int parseLoad(String content) {
         try {
             String loadPart = content.split("Load:")[1].split("\\|")[0].trim();
             return Integer.parseInt(loadPart.split("/")[0].trim());
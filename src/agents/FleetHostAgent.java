@@ -0,0 +1,166 @@
+package agents;
+
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.TickerBehaviour;
+import jade.lang.acl.ACLMessage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fleet Host Agent: one JADE agent standing in for thousands of simulated delivery vehicles.
+ *  • Each vehicle is a small object (name, capacity), not an agent or a thread;
+ *    their messages are handled on a small executor, one at a time per vehicle, with one
+ *    {@link RouteImprover} per executor thread.
+ *  • Speaks the {@link DeliveryAgent} contract on the vehicles' behalf: capacities are announced
+ *    in batches of "name capacity" lines; routes, refusals and "vrp-route-improved" answers
+ *    carry the vehicle name in the {@value #VEHICLE} user-defined parameter.
+ *  • args[0] = vehicles, args[1] = capacity (null: random 30–80 each, as a DA), args[2] =
+ *    share of routes refused at random (load-testing re-queuing, default 0), args[3] = threads (default 2)
+ */
+public class FleetHostAgent extends Agent {
+
+    /** ACL user-defined parameter naming the simulated vehicle a message is for or from. */
+    public static final String VEHICLE = "vehicle";
+
+    private static final int ANNOUNCE_BATCH = 1_000;
+
+    private static final class Vehicle {
+        final String name;
+        final int capacity;
+
+        Vehicle(String name, int capacity) { this.name = name; this.capacity = capacity; }
+    }
+
+    private final Map<String, Vehicle> vehicles = new HashMap<>();
+    private ExecutorService executor;
+    private final ThreadLocal<RouteImprover> improvers = ThreadLocal.withInitial(RouteImprover::new);
+    private final Queue<ACLMessage> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger accepted = new AtomicInteger(), refused = new AtomicInteger(), improved = new AtomicInteger();
+    private double refuseRate;
+
+    @Override
+    protected void setup() {
+        Object[] args = getArguments();
+        int count    = args != null && args.length > 0 ? Integer.parseInt(args[0].toString()) : 1_000;
+        Integer cap  = args != null && args.length > 1 && args[1] != null ? Integer.valueOf(args[1].toString()) : null;
+        refuseRate   = args != null && args.length > 2 && args[2] != null ? Double.parseDouble(args[2].toString()) : 0;
+        int threads  = args != null && args.length > 3 && args[3] != null ? Integer.parseInt(args[3].toString()) : 2;
+
+        Random rnd = new Random();
+        for (int i = 0; i < count; i++) {
+            String name = String.format("%s-v%05d", getLocalName(), i);
+            vehicles.put(name, new Vehicle(name, cap != null ? cap : 30 + rnd.nextInt(51)));
+        }
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, getLocalName() + "-fleet");
+            t.setDaemon(true);
+            return t;
+        });
+
+        announceCapacities();
+        System.out.printf("[FLEET] %s hosting %d simulated vehicles on %d threads%n", getLocalName(), count, threads);
+
+        addBehaviour(new CyclicBehaviour() {
+            @Override
+            public void action() {
+                ACLMessage msg = receive();
+                if (msg == null) { block(); return; }
+                if (!"vrp-route".equals(msg.getConversationId())
+                        && !"vrp-route-update".equals(msg.getConversationId())) return;
+
+                Vehicle v = vehicles.get(msg.getUserDefinedParameter(VEHICLE));
+                if (v == null) {
+                    System.err.printf("[FLEET] %s: route for unknown vehicle %s%n", getLocalName(), msg.getUserDefinedParameter(VEHICLE));
+                    return;
+                }
+                executor.submit(() -> handleRoute(v, msg));
+            }
+        });
+
+        /* executor threads never touch the agent; replies go out here, plus a progress line */
+        addBehaviour(new TickerBehaviour(this, 50) {
+            private int ticks, lastReported = -1;
+
+            @Override
+            protected void onTick() {
+                ACLMessage m;
+                while ((m = outbox.poll()) != null) send(m);
+                int total = accepted.get() + refused.get();
+                if (++ticks % 100 == 0 && total != lastReported) {
+                    lastReported = total;
+                    System.out.printf("[FLEET] %s: %d accepted, %d refused, %d resequenced%n",
+                            getLocalName(), accepted.get(), refused.get(), improved.get());
+                }
+            }
+        });
+    }
+
+    @Override
+    protected void takeDown() {
+        if (executor != null) executor.shutdownNow();
+    }
+
+    private void announceCapacities() {
+        StringBuilder sb = new StringBuilder();
+        int inBatch = 0;
+        for (Vehicle v : vehicles.values()) {
+            sb.append(v.name).append(' ').append(v.capacity).append('\n');
+            if (++inBatch == ANNOUNCE_BATCH) { sendAnnouncement(sb.toString()); sb.setLength(0); inBatch = 0; }
+        }
+        if (inBatch > 0) sendAnnouncement(sb.toString());
+    }
+
+    private void sendAnnouncement(String lines) {
+        ACLMessage capMsg = new ACLMessage(ACLMessage.INFORM);
+        capMsg.addReceiver(new AID("mra", AID.ISLOCALNAME));
+        capMsg.setConversationId("capacity-announcement");
+        capMsg.setContent(lines);
+        send(capMsg);
+    }
+
+    /** Same decision as {@link DeliveryAgent}, plus optional random refusals. */
+    private void handleRoute(Vehicle v, ACLMessage msg) {
+        String content = msg.getContent();
+        int load = DeliveryAgent.parseLoad(content);
+        ACLMessage reply;
+        synchronized (v) {
+            boolean over = load > v.capacity;
+            if (over || (refuseRate > 0 && Math.random() < refuseRate)) {
+                refused.incrementAndGet();
+                reply = msg.createReply();
+                reply.setPerformative(ACLMessage.REFUSE);
+                reply.setConversationId("vrp-route-refused");
+                reply.setContent(over ? "Load " + load + " > cap " + v.capacity : "Load " + load + " (simulated refusal)");
+                reply.addUserDefinedParameter(VEHICLE, v.name);
+                outbox.add(reply);
+                return;
+            }
+            accepted.incrementAndGet();
+
+            int nl = content.indexOf('\n');
+            if (nl < 0) return;
+            reply = msg.createReply();
+            reply.setConversationId("vrp-route-improved");
+            reply.addUserDefinedParameter(VEHICLE, v.name);
+            try {
+                double[] cost = new double[2];
+                reply.setContent(improvers.get().improve(content.substring(nl + 1), cost));
+                reply.setPerformative(ACLMessage.INFORM);
+                if (cost[1] < cost[0]) improved.incrementAndGet();
+            } catch (RuntimeException e) {
+                reply.setPerformative(ACLMessage.FAILURE);
+                reply.setContent(String.valueOf(e.getMessage()));
+            }
+        }
+        outbox.add(reply);
+    }
+}
@@ -4,15 +4,38 @@ import core.*;
 import jade.core.Agent;
 import jade.core.AID;
 import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.TickerBehaviour;
+import jade.domain.DFService;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAException;
 import jade.lang.acl.ACLMessage;
 import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Master Routing Agent (MRA).
- *  • Waits for capacity announcements from all Delivery Agents.
+ *  • Waits for capacity announcements from all Delivery Agents, real or simulated
+ *    ({@link FleetHostAgent}: routes for its vehicles are addressed to the host).
  *  • Generates VRPTW instance, solves, and sends routes.
- *  • Handles re-assignments and fallback routes if a DA refuses.
+ *  • Farms clusters of large instances out to registered {@link SolverWorkerAgent}s
+ *    (see {@link SubproblemBroker}) and merges what comes back.
+ *  • Post-optimises every plan ({@link Algorithms#postOptimize}); initial routes also go out with
+ *    their stop data, and the DAs' "vrp-route-improved" orders are merged before the plan is reported.
+ *  • Opens the visualiser while solving and streams the solver's progress into it, or
+ *    writes JSON results when started headless (args[5] = path),
+ *    optionally with a PNG / SVG map of the plan (args[6] = path).
+ *  • Re-assigns a refused route alone to another agent with room, at most three times.
+ *  • Inserts streamed "customer-arrival" orders into the live plan and
+ *    sends "vrp-route-update" deltas to the affected DAs.
  */
 public class MasterRoutingAgent extends Agent {
 
@@ -20,10 +43,45 @@ public class MasterRoutingAgent extends Agent {
     private ArrayList<Route> routes;
 
     private final Map<String, Integer> agentCaps = new HashMap<>();
+    /* simulated vehicles (FleetHostAgent): vehicle name → the agent that hosts it */
+    private final Map<String, AID> vehicleHost = new HashMap<>();
     private int expectedCaps;
 
     private String algorithm;
-    private int numAgents, numCustomers, seed;
+    private int numAgents, numCustomers, seed, vehicleCap;
+
+    /* headless mode: write JSON results here instead of opening the visualiser */
+    private String resultPath, imagePath;
+    private long   instanceMs, solveMs, solveStart;
+
+    /* GUI mode: live convergence view, opened before solving; {@code live} is only touched on the EDT */
+    private static final int LIVE_FPS = 10;
+    private SolutionStream liveStream;
+    private RouteVisualizer live;
+
+    /* distributed solving: set while subproblems are out with workers */
+    private SubproblemBroker broker;
+
+    /* per-route resequencing on the DAs: reply tag → route and its stops as sent */
+    private static final long IMPROVE_WAIT_MS = 5_000;
+    private final Map<String, SentRoute> improving = new HashMap<>();
+    private int routeTags;
+
+    private static final class SentRoute {
+        final Route route;
+        final List<Node> stops;
+        SentRoute(Route route) { this.route = route; this.stops = new ArrayList<>(route.customers); }
+    }
+
+    /* dynamic mode */
+    private DynamicPlanner planner;
+    private final Map<Route, String> routeOwner = new HashMap<>();
+    /* refused routes are re-sent alone, to another agent, at most MAX_REFUSALS times */
+    private static final int MAX_REFUSALS = 3;
+    private final Map<Route, Integer> refusals = new HashMap<>();
+    private final Queue<Integer> dirtyRoutes = new ConcurrentLinkedQueue<>();
+    private final List<CustomerFeed.Arrival> pendingArrivals = new ArrayList<>();
+    private int nextArrivalId;                   // first ID free for streamed customers
 
     @Override
     protected void setup() {
@@ -31,8 +89,10 @@ public class MasterRoutingAgent extends Agent {
         algorithm    = (String)  a[0];
         numAgents    = (Integer) a[1];
         numCustomers = (Integer) a[2];
-        int vehicleCap = (Integer) a[3];
+        vehicleCap   = (Integer) a[3];
         seed         = (Integer) a[4];
+        resultPath   = a.length > 5 && a[5] != null ? a[5].toString() : null;
+        imagePath    = a.length > 6 && a[6] != null ? a[6].toString() : null;
 
         expectedCaps = numAgents;
 
@@ -53,42 +113,243 @@ public class MasterRoutingAgent extends Agent {
                 case "vrp-route-refused":
                     handleRefusal(msg);
                     break;
+                case "customer-arrival":
+                    handleArrival(msg);
+                    break;
+                case "vrp-route-improved":
+                    handleImproved(msg);
+                    break;
+                case SolverWorkerAgent.CONVERSATION:
+                    if (broker != null) broker.handle(msg);
+                    break;
                 }
             }
         });
     }
 
     private void handleCapacity(ACLMessage msg) {
-        agentCaps.put(msg.getSender().getLocalName(), Integer.parseInt(msg.getContent()));
-        System.out.printf("[MRA] Capacity from %s → %s%n",
-                          msg.getSender().getLocalName(), msg.getContent());
+        String content = msg.getContent().trim();
+        if (content.indexOf(' ') < 0) {
+            agentCaps.put(msg.getSender().getLocalName(), Integer.parseInt(content));
+            System.out.printf("[MRA] Capacity from %s → %s%n",
+                              msg.getSender().getLocalName(), content);
+        } else {                                          // a fleet host: "vehicle capacity" lines
+            int n = 0;
+            for (String line : content.split("\n")) {
+                String[] f = line.trim().split("\\s+");
+                agentCaps.put(f[0], Integer.parseInt(f[1]));
+                vehicleHost.put(f[0], msg.getSender());
+                n++;
+            }
+            System.out.printf("[MRA] Capacities of %d simulated vehicles from %s%n", n, msg.getSender().getLocalName());
+        }
 
-        if (agentCaps.size() == expectedCaps) {
+        if (agentCaps.size() >= expectedCaps && vrp == null) {
             launchOptimisation();
         }
     }
 
     private void launchOptimisation() {
+        long t0 = System.nanoTime();
         vrp = new VRPInstance();
         vrp.generateInstance(seed, numCustomers);
+        instanceMs = (System.nanoTime() - t0) / 1_000_000;
 
         int maxCap = agentCaps.values().stream().mapToInt(i -> i).max().orElse(50);
-        routes = solveWith(algorithm, vrp, maxCap);
-        routes.forEach(r -> r.updateArrivals(vrp.depot));
+        solveStart = System.nanoTime();
+
+        DecompositionSolver d = Algorithms.DECOMPOSITION.equals(algorithm)
+                ? DecompositionSolver.configured()
+                : DecompositionSolver.configured(algorithm);
+        List<AID> workers = numCustomers > d.clusterSize() ? findWorkers() : Collections.emptyList();
+        if (!workers.isEmpty()) {
+            broker = new SubproblemBroker(this, vrp, maxCap, d, workers, solved -> {
+                broker = null;
+                solveMs = (System.nanoTime() - solveStart) / 1_000_000;
+                System.out.printf("[INFO] %s computed by %d workers in %d ms%n", algorithm, workers.size(), solveMs);
+                dispatchSolution(solved, maxCap);
+            });
+            broker.start();
+            return;
+        }
+        if (resultPath == null) {
+            liveStream = new SolutionStream(vrp, LIVE_FPS);
+            VRPInstance inst = vrp;
+            SwingUtilities.invokeLater(() -> live = RouteVisualizer.showLive(inst, maxCap, liveStream, algorithm));
+        }
+        dispatchSolution(solveWith(algorithm, vrp, maxCap), maxCap);
+    }
+
+    /** Sends the solved plan to the DAs, then reports it (JSON or GUI) and goes dynamic. */
+    private void dispatchSolution(ArrayList<Route> solved, int maxCap) {
+        routes = solved;
+        routes.forEach(r -> r.updateArrivals(vrp));
 
         sendRoutesToAgents();
 
-        String summary = RouteLogger.buildSummary(routes, vrp.depot);
+        /* report once every DA has answered with its resequenced route, or after the grace period */
+        long waitUntil = System.currentTimeMillis() + IMPROVE_WAIT_MS;
+        if (improving.isEmpty()) { report(maxCap); return; }
+        addBehaviour(new TickerBehaviour(this, 50) {
+            @Override
+            protected void onTick() {
+                if (!improving.isEmpty() && System.currentTimeMillis() < waitUntil) return;
+                if (!improving.isEmpty())
+                    System.err.printf("[MRA] %d route improvements still outstanding – reporting without them%n", improving.size());
+                stop();
+                report(maxCap);
+            }
+        });
+    }
+
+    /** Summary, then JSON or GUI; dynamic mode starts here. */
+    private void report(int maxCap) {
+        String summary = RouteLogger.buildSummary(routes, vrp);
         System.out.println(summary);
 
+        if (resultPath != null) writeResult();
+        startDynamicMode(maxCap);
+        if (resultPath != null) return;
+
 //        System.out.println("[DEBUG] enqueue GUI, alg=" + algorithm + "  routes=" + routes.size());
 
+        /* the GUI gets its own copy: the live plan keeps changing in dynamic mode */
+        ArrayList<Route> dispatched = new ArrayList<>();
+        for (Route r : routes) {
+            Route copy = new Route();
+            copy.capacity  = r.capacity;
+            copy.load      = r.load;
+            copy.customers = new ArrayList<>(r.customers);
+            copy.arrival   = new ArrayList<>(r.arrival);
+            dispatched.add(copy);
+        }
+
+        /* the plan as dispatched (after the DAs' resequencing) is the stream's last frame */
+        if (liveStream != null) liveStream.publishFinal(dispatched, algorithm);
+
         SwingUtilities.invokeLater(() -> {
 //            System.out.println("[DEBUG] inside EDT, building frame");
-            RouteVisualizer.showGUI(vrp.depot, routes, summary, algorithm);
+            if (live != null) live.showFinal(dispatched, summary);
+            else              RouteVisualizer.showGUI(vrp.depot, dispatched, summary, algorithm);
+        });
+    }
+
+    /** Headless mode: JSON via a temp file + rename so pollers never see a partial file; the map goes first. */
+    private void writeResult() {
+        if (imagePath != null) {
+            try {
+                RouteImageExporter.write(Paths.get(imagePath), vrp.depot, routes, 1200, 900,
+                        String.format("%s: %d customers, %d vehicles", algorithm, numCustomers, routes.size()));
+            } catch (IOException e) {
+                System.err.println("[MRA] Cannot write map: " + e.getMessage());
+            }
+        }
+
+        ResultWriter.RunInfo info = new ResultWriter.RunInfo();
+        info.algorithm  = algorithm;
+        info.instance   = vrp.name;
+        info.customers  = numCustomers;
+        info.capacity   = vehicleCap;
+        info.seed       = seed;
+        info.instanceMs = instanceMs;
+        info.solveMs    = solveMs;
+
+        Path target = Paths.get(resultPath);
+        Path tmp    = Paths.get(resultPath + ".tmp");
+        try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            ResultWriter.writeJson(w, info, routes, vrp);
+        } catch (IOException e) {
+            System.err.println("[MRA] Cannot write results: " + e.getMessage());
+            return;
+        }
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("[MRA] Cannot publish results: " + e.getMessage());
+        }
+    }
+
+    @Override
+    protected void takeDown() {
+        if (planner != null) planner.stopReoptimizer();
+    }
+
+    /* ---------- dynamic mode ---------- */
+    private void startDynamicMode(int cap) {
+        nextArrivalId = vrp.size();
+        planner = new DynamicPlanner(vrp, routes, cap,
+                (idx, route) -> dirtyRoutes.add(idx));
+
+        for (CustomerFeed.Arrival a : pendingArrivals) insertArrival(a);
+        pendingArrivals.clear();
+
+        /* batch route deltas so the re-optimiser never blocks on messaging */
+        addBehaviour(new TickerBehaviour(this, 500) {
+            @Override
+            protected void onTick() { flushRouteUpdates(); }
         });
     }
 
+    private void handleArrival(ACLMessage msg) {
+        CustomerFeed.Arrival a;
+        try {
+            a = CustomerFeed.parse(msg.getContent());
+        } catch (RuntimeException e) {
+            System.err.println("[MRA] Bad customer-arrival: " + e.getMessage());
+            return;
+        }
+        if (planner == null) { pendingArrivals.add(a); return; }
+        insertArrival(a);
+    }
+
+    private void insertArrival(CustomerFeed.Arrival a) {
+        Node c = a.customer;
+        /* IDs index the distance matrix and coverage: streamed ones must not alias instance nodes or each other */
+        if (c.ID < nextArrivalId) {
+            Node renumbered = new Node(nextArrivalId, c.x, c.y, c.demand, c.ready, c.due, c.service);
+            System.err.println("[MRA] Arrival C" + c.ID + " collides with a known customer; renumbered C" + renumbered.ID);
+            c = renumbered;
+        }
+        nextArrivalId = c.ID + 1;
+
+        planner.startReoptimizer();              // idle until the first order arrives
+        planner.advanceClock(a.release);
+        int idx = planner.insert(c);
+        System.out.printf("[MRA] C%d inserted into R%d at t=%.0f (p99 %.1f µs over %d inserts)%n",
+                c.ID, idx + 1, planner.clock(),
+                planner.latencyPercentileMicros(0.99), planner.insertions());
+    }
+
+    private void flushRouteUpdates() {
+        Set<Integer> seen = new HashSet<>();
+        Integer idx;
+        while ((idx = dirtyRoutes.poll()) != null) {
+            if (!seen.add(idx)) continue;
+
+            synchronized (planner) {
+                if (idx >= routes.size()) continue;
+                Route r = routes.get(idx);
+                String owner = routeOwner.get(r);
+                if (owner == null) owner = pickAgentFor(r);
+                if (owner == null) {
+                    System.err.printf("[MRA] No agent can carry R%d (load %d)%n", idx + 1, r.load);
+                    continue;
+                }
+                routeOwner.put(r, owner);
+                sendRoute(owner, r, "vrp-route-update");
+            }
+        }
+    }
+
+    /** Largest-capacity agent that can carry {@code r}, or null. */
+    private String pickAgentFor(Route r) {
+        String best = null; int bestCap = -1;
+        for (Map.Entry<String, Integer> e : agentCaps.entrySet()) {
+            if (e.getValue() >= r.load && e.getValue() > bestCap) { best = e.getKey(); bestCap = e.getValue(); }
+        }
+        return best;
+    }
+
     private void sendRoutesToAgents() {
         List<Map.Entry<String,Integer>> agents = new ArrayList<>(agentCaps.entrySet());
         agents.sort((a, b) -> b.getValue() - a.getValue());
@@ -119,40 +380,43 @@ public class MasterRoutingAgent extends Agent {
         }
     }
 
+    /**
+     * Re-queues only the refused route, found by the reply tag or else as the refusing vehicle's
+     * route, on another agent with room; after {@value #MAX_REFUSALS} refusals it is left unassigned.
+     */
     private void handleRefusal(ACLMessage msg) {
-        System.err.printf("[MRA] %s refused route → re-queuing%n", msg.getSender().getLocalName());
-
-        int refusedLoad = 0;
-        try {
-            String loadPart = msg.getContent().split("Load")[1];
-            refusedLoad = Integer.parseInt(loadPart.replaceAll("[^0-9].*", ""));
-        } catch (Exception ignored) {}
-
-        int minCap = agentCaps.values().stream().mapToInt(Integer::intValue).min().orElse(30);
-        Route dummy = new Route();
-        dummy.capacity = minCap;
-        dummy.load = refusedLoad;
+        String vehicle = senderName(msg);
+        SentRoute sent = msg.getInReplyTo() != null ? improving.remove(msg.getInReplyTo()) : null;
+
+        synchronized (planner != null ? planner : this) {
+            Route r = sent != null ? sent.route : routeOf(vehicle);
+            if (r == null || !vehicle.equals(routeOwner.get(r))) return;      // already moved on
+            routeOwner.remove(r);
+
+            int n = refusals.merge(r, 1, Integer::sum);
+            if (n > MAX_REFUSALS) {
+                System.err.printf("[MRA] %s refused a route (load %d) – refused %d times, left unassigned%n",
+                        vehicle, r.load, n);
+                return;
+            }
+            System.err.printf("[MRA] %s refused a route (load %d) → re-queuing%n", vehicle, r.load);
+            if (!tryReassign(r, vehicle))
+                System.err.printf("[MRA] No other agent can carry a route of load %d – left unassigned%n", r.load);
+        }
+    }
 
-        routes.addAll(dummy.splitByCapacity(minCap));
-        sendRoutesToAgents();
+    /** A route currently assigned to {@code agentName}, or null. */
+    private Route routeOf(String agentName) {
+        for (Map.Entry<Route, String> e : routeOwner.entrySet())
+            if (e.getValue().equals(agentName)) return e.getKey();
+        return null;
     }
 
+    /** Sends {@code rejected} to the first other agent with room; all vehicles share depot and speed, so its timing is unchanged. */
     private boolean tryReassign(Route rejected, String failedAgent) {
         for (Map.Entry<String, Integer> entry : agentCaps.entrySet()) {
             String agentName = entry.getKey();
-            int    cap       = entry.getValue();
-
-            if (agentName.equals(failedAgent)) continue;
-            if (rejected.load > cap) continue;
-
-            Node depot = vrp.depot;
-            boolean twOk = true;
-            for (Node n : rejected.customers) {
-                twOk &= rejected.canAddTW(depot, n);
-            }
-
-            if (!twOk) continue;
-
+            if (agentName.equals(failedAgent) || rejected.load > entry.getValue()) continue;
             dispatchRouteTo(agentName, rejected);
             return true;
         }
@@ -160,47 +424,112 @@ public class MasterRoutingAgent extends Agent {
     }
 
     private void dispatchRouteTo(String agentName, Route r) {
+        routeOwner.put(r, agentName);
+        sendRoute(agentName, r, "vrp-route");
+    }
+
+    private void sendRoute(String agentName, Route r, String conversationId) {
         ACLMessage msg = new ACLMessage(ACLMessage.INFORM);
-        msg.addReceiver(new AID(agentName, AID.ISLOCALNAME));
-        msg.setConversationId("vrp-route");
+        AID host = vehicleHost.get(agentName);
+        if (host != null) {
+            msg.addReceiver(host);
+            msg.addUserDefinedParameter(FleetHostAgent.VEHICLE, agentName);
+        } else {
+            msg.addReceiver(new AID(agentName, AID.ISLOCALNAME));
+        }
+        msg.setConversationId(conversationId);
 
-        double dist = r.calculateTotalDistance(vrp.depot);
+        double dist = r.calculateTotalDistance(vrp);
         int eta     = (int) Math.ceil(dist);
 
-        msg.setContent(String.format(
+        String content = String.format(
                 "Route: %s | Load: %d/%d | Dist: %.2f | ETA: %d min",
-                r, r.load, r.capacity, dist, eta));
+                r, r.load, r.capacity, dist, eta);
+
+        /* initial routes carry their stops so the DA can resequence them; updates are already running */
+        if ("vrp-route".equals(conversationId) && r.customers.size() > 2) {
+            String tag = "route-" + (++routeTags);
+            msg.setReplyWith(tag);
+            improving.put(tag, new SentRoute(r));
+            content += "\n" + Subproblem.format(tag, "resequence", vrp.depot, r.customers, r.capacity);
+        }
+        msg.setContent(content);
         send(msg);
-        System.out.printf("[MRA] Sent route to %s (load %d/%d)%n",
-                agentName, r.load, r.capacity);
+        System.out.printf("[MRA] Sent %s to %s (load %d/%d)%n",
+                conversationId, agentName, r.load, r.capacity);
+    }
+
+    /**
+     * Merges a DA's resequenced order if the route has not changed since it was sent and the
+     * order scores better here too.
+     */
+    private void handleImproved(ACLMessage msg) {
+        SentRoute sent = improving.remove(msg.getInReplyTo());
+        if (sent == null || msg.getPerformative() != ACLMessage.INFORM) return;
+
+        String[] lines = msg.getContent().split("\n");
+        if (lines.length < 2) return;
+        int k = sent.stops.size();
+        ArrayList<Node> next = new ArrayList<>(k);
+        boolean[] used = new boolean[k];
+        try {
+            for (String tok : lines[1].trim().split("\\s+")) {
+                int p = Integer.parseInt(tok);
+                if (p < 0 || p >= k || used[p]) return;
+                used[p] = true;
+                next.add(sent.stops.get(p));
+            }
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (next.size() != k) return;
+
+        synchronized (planner != null ? planner : this) {
+            Route r = sent.route;
+            if (!r.customers.equals(sent.stops)) return;          // changed meanwhile (e.g. a dynamic insert)
+            List<Route> one = Collections.singletonList(r);
+            double before = Incumbent.score(one, vrp);
+            ArrayList<Node> old = r.customers;
+            r.customers = next;
+            double after = Incumbent.score(one, vrp);
+            if (after < before - 1e-9) {
+                r.updateArrivals(vrp);
+                System.out.printf("[MRA] %s resequenced its route: %.2f → %.2f%n",
+                        senderName(msg), before, after);
+            } else {
+                r.customers = old;
+            }
+        }
+    }
+
+    /** Vehicle a message came from: a simulated vehicle's name, else the sending DA. */
+    private static String senderName(ACLMessage msg) {
+        String v = msg.getUserDefinedParameter(FleetHostAgent.VEHICLE);
+        return v != null ? v : msg.getSender().getLocalName();
+    }
+
+    /** Agents offering the "vrp-solver" service, in any container of the platform. */
+    private List<AID> findWorkers() {
+        DFAgentDescription template = new DFAgentDescription();
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType(SolverWorkerAgent.SERVICE_TYPE);
+        template.addServices(sd);
+        List<AID> out = new ArrayList<>();
+        try {
+            for (DFAgentDescription d : DFService.search(this, template)) out.add(d.getName());
+        } catch (FIPAException e) {
+            System.err.println("[MRA] DF search failed, solving locally: " + e.getMessage());
+        }
+        return out;
     }
 
     private ArrayList<Route> solveWith(String alg, VRPInstance inst, int cap) {
-        ArrayList<Route> out;
         long start = System.nanoTime();
+        /* with the route-level post stage, as everywhere: a DA's own resequencing is optional */
+        ArrayList<Route> out = Algorithms.solve(alg, inst, cap, new SolverContext().stream(liveStream));
 
-        switch (alg) {
-            case "Local Search (Intra)":
-                out = new NearestNeighborSolver().generateRoutes(inst, cap);
-                new LocalSearchIntra().improveRoutes(out, inst.depot);
-                break;
-            case "Local Search (Inter)":
-                out = new NearestNeighborSolver().generateRoutes(inst, cap);
-                new LocalSearchInter().improveRoutes(out, inst.depot);
-                break;
-            case "Genetic Algorithm":
-                out = new GeneticAlgorithmSolver(inst, cap, 50, 200, 0.05).solve();
-                break;
-            case "Simulated Annealing":
-                out = new SimulatedAnnealingSolver(inst, cap, 1000, 1, 10_000).solve();
-                break;
-            default:
-                out = new NearestNeighborSolver().generateRoutes(inst, cap);
-                break;
-        }
-
-        long durationMs = (System.nanoTime() - start) / 1_000_000;
-        System.out.printf("[INFO] %s computed in %d ms%n", alg, durationMs);
+        solveMs = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf("[INFO] %s computed in %d ms%n", alg, solveMs);
         return out;
     }
 }
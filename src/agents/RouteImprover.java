@@ -0,0 +1,84 @@
+package agents;
+
+import core.Incumbent;
+import core.Node;
+import core.Route;
+import core.RouteOptimizer;
+import core.RouteResequencer;
+import core.Subproblem;
+import core.VRPInstance;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Resequencing state kept by a delivery agent (one per optimiser thread) across route messages.
+ *  • Stops are kept in a scratch instance under the MRA's customer IDs. It grows as new IDs
+ *    arrive, and IDs not seen yet hold null.
+ *  • One {@link RouteOptimizer} and one {@link RouteResequencer} work on it, so the resequencer's
+ *    tables and its memo carry over from one route to the next.
+ *  • Distances are Euclidean from the nodes, as on the {@link Subproblem} wire. If a stop or the
+ *    depot comes back with different data, the resequencer is rebuilt so no stale order is reused.
+ * Not thread-safe.
+ */
+final class RouteImprover {
+
+    private final VRPInstance scratch = new VRPInstance();
+    private final RouteOptimizer optimizer = new RouteOptimizer(scratch);
+    private RouteResequencer resequencer = new RouteResequencer(scratch);
+
+    /**
+     * Optimises a {@link Subproblem} stop list and returns the "vrp-route-improved" content: the
+     * costs before and after, then the new order as positions in the list. {@code cost} receives
+     * both costs.
+     */
+    String improve(String stops, double[] cost) {
+        Subproblem sp = Subproblem.parse(stops);
+        if (scratch.depot == null || !same(scratch.depot, sp.instance.depot)) {
+            scratch.depot = sp.instance.depot;
+            resequencer = new RouteResequencer(scratch);
+        }
+
+        Route r = new Route();
+        r.capacity = sp.capacity;
+        Map<Node, Integer> position = new HashMap<>();
+        for (int i = 0; i < sp.ids.length; i++) {
+            Node c = stop(sp.ids[i], sp.instance.customers.get(i));
+            if (position.put(c, i) != null) throw new IllegalArgumentException("Customer " + sp.ids[i] + " listed twice");
+            r.addCustomer(c);
+        }
+        List<Route> one = Collections.singletonList(r);
+
+        cost[0] = Incumbent.score(one, scratch);
+        optimizer.optimize(r);
+        resequencer.improve(r);
+        cost[1] = Incumbent.score(one, scratch);
+
+        StringBuilder order = new StringBuilder();
+        for (Node c : r.customers) order.append(order.length() == 0 ? "" : " ").append(position.get(c));
+        return String.format(Locale.ROOT, "%.3f %.3f\n%s", cost[0], cost[1], order);
+    }
+
+    /** Resequencer memo hits so far (since the last rebuild). */
+    long memoHits() { return resequencer.memoHits(); }
+
+    /** The scratch node for MRA customer {@code id}, with the data of {@code wire}. */
+    private Node stop(int id, Node wire) {
+        if (id <= 0) throw new IllegalArgumentException("Bad customer ID " + id);
+        while (scratch.customers.size() < id) scratch.customers.add(null);
+        Node c = scratch.customers.get(id - 1);
+        if (c != null && same(c, wire)) return c;
+        if (c != null) resequencer = new RouteResequencer(scratch);      // data changed: memo is stale
+        c = new Node(id, wire.x, wire.y, wire.demand, wire.ready, wire.due, wire.service);
+        scratch.customers.set(id - 1, c);
+        return c;
+    }
+
+    private static boolean same(Node a, Node b) {
+        return a.x == b.x && a.y == b.y && a.demand == b.demand
+            && a.ready == b.ready && a.due == b.due && a.service == b.service;
+    }
+}
@@ -0,0 +1,156 @@
+package agents;
+
+import core.Algorithms;
+import core.Route;
+import core.SolverContext;
+import core.Subproblem;
+import jade.core.Agent;
+import jade.core.behaviours.CyclicBehaviour;
+import jade.core.behaviours.TickerBehaviour;
+import jade.domain.DFService;
+import jade.domain.FIPAAgentManagement.DFAgentDescription;
+import jade.domain.FIPAAgentManagement.ServiceDescription;
+import jade.domain.FIPAException;
+import jade.lang.acl.ACLMessage;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solver Worker Agent (SWA): solves subproblems for the MRA, possibly in another container or JVM.
+ *  • Registers a "vrp-solver" service with the DF.
+ *  • Answers "vrp-subproblem" CFPs with its number of queued jobs (PROPOSE), or REFUSE when full.
+ *  • Solves accepted subproblems on a thread pool, within the ACCEPT's reply-by deadline, and
+ *    replies INFORM with the routes (see {@link Subproblem}) or FAILURE. Parts are solved as
+ *    {@link core.DecompositionSolver#solveCluster} solves them locally, without the route-level
+ *    post stage: the MRA post-optimises the assembled plan once.
+ *  • args[0] = jobs solved in parallel (default: available processors)
+ * More workers on the same machine, in a second container of the running platform:
+ * <pre>
+ *   java -cp bin:lib/jade.jar jade.Boot -container -host localhost -agents "w1:agents.SolverWorkerAgent;w2:agents.SolverWorkerAgent"
+ * </pre>
+ */
+public class SolverWorkerAgent extends Agent {
+
+    public static final String SERVICE_TYPE = "vrp-solver";
+    public static final String CONVERSATION = "vrp-subproblem";
+
+    /* stop this long before the MRA's deadline so the reply still makes it */
+    private static final long REPLY_MARGIN_MS = 500;
+
+    private int threads;
+    private ExecutorService pool;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<ACLMessage> outbox = new ConcurrentLinkedQueue<>();   // replies from solver threads
+
+    @Override
+    protected void setup() {
+        Object[] args = getArguments();
+        threads = args != null && args.length > 0
+                ? Integer.parseInt(args[0].toString())
+                : Runtime.getRuntime().availableProcessors();
+        pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, getLocalName() + "-solver");
+            t.setDaemon(true);
+            return t;
+        });
+
+        DFAgentDescription dfd = new DFAgentDescription();
+        dfd.setName(getAID());
+        ServiceDescription sd = new ServiceDescription();
+        sd.setType(SERVICE_TYPE);
+        sd.setName(getLocalName());
+        dfd.addServices(sd);
+        try {
+            DFService.register(this, dfd);
+        } catch (FIPAException e) {
+            System.err.println("[SWA] " + getLocalName() + " cannot register with the DF: " + e.getMessage());
+            doDelete();
+            return;
+        }
+        System.out.printf("[SWA] %s ready (%d solver threads)%n", getLocalName(), threads);
+
+        addBehaviour(new CyclicBehaviour() {
+            @Override
+            public void action() {
+                ACLMessage msg = receive();
+                if (msg == null) { block(); return; }
+                if (!CONVERSATION.equals(msg.getConversationId())) return;
+
+                switch (msg.getPerformative()) {
+                case ACLMessage.CFP:
+                    handleCfp(msg);
+                    break;
+                case ACLMessage.ACCEPT_PROPOSAL:
+                    handleAccept(msg);
+                    break;
+                default:                       // REJECT_PROPOSAL: nothing was reserved
+                    break;
+                }
+            }
+        });
+
+        /* solver threads never touch the agent: their replies are sent from here */
+        addBehaviour(new TickerBehaviour(this, 50) {
+            @Override
+            protected void onTick() {
+                ACLMessage m;
+                while ((m = outbox.poll()) != null) send(m);
+            }
+        });
+    }
+
+    @Override
+    protected void takeDown() {
+        try { DFService.deregister(this); } catch (FIPAException ignored) {}
+        if (pool != null) pool.shutdownNow();
+    }
+
+    private void handleCfp(ACLMessage cfp) {
+        ACLMessage reply = cfp.createReply();
+        if (queued.get() >= 4 * threads) {
+            reply.setPerformative(ACLMessage.REFUSE);
+            reply.setContent("busy");
+        } else {
+            reply.setPerformative(ACLMessage.PROPOSE);
+            reply.setContent(Integer.toString(queued.get()));
+        }
+        send(reply);
+    }
+
+    private void handleAccept(ACLMessage accept) {
+        queued.incrementAndGet();
+        Date replyBy = accept.getReplyByDate();
+        pool.submit(() -> {
+            ACLMessage reply = accept.createReply();
+            try {
+                Subproblem sp = Subproblem.parse(accept.getContent());
+                SolverContext ctx = new SolverContext();
+                if (replyBy != null) {
+                    long left = replyBy.getTime() - System.currentTimeMillis() - REPLY_MARGIN_MS;
+                    if (left <= 0) throw new IllegalStateException("deadline passed while queued");
+                    ctx.timeLimit(left);
+                }
+                long t0 = System.nanoTime();
+                ArrayList<Route> routes = Algorithms.create(sp.algorithm).solve(sp.instance, sp.capacity, ctx);
+                reply.setPerformative(ACLMessage.INFORM);
+                reply.setContent(sp.formatRoutes(routes));
+                System.out.printf("[SWA] %s solved %s (%d customers, %s) in %d ms%n", getLocalName(), sp.job,
+                        sp.ids.length, sp.algorithm, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+            } catch (RuntimeException e) {
+                reply.setPerformative(ACLMessage.FAILURE);
+                reply.setContent(String.valueOf(e.getMessage()));
+                System.err.println("[SWA] " + getLocalName() + " failed: " + e);
+            } finally {
+                queued.decrementAndGet();
+            }
+            outbox.add(reply);
+        });
+    }
+}
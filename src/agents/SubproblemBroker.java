@@ -0,0 +1,256 @@
+package agents;
+
+import core.Algorithms;
+import core.DecompositionSolver;
+import core.Route;
+import core.SolverContext;
+import core.Subproblem;
+import core.VRPInstance;
+import jade.core.AID;
+import jade.core.Agent;
+import jade.core.behaviours.TickerBehaviour;
+import jade.lang.acl.ACLMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * MRA side of distributed solving: one contract net per cluster on the "vrp-subproblem" conversation.
+ * <pre>
+ *   MRA → all workers   CFP              job summary            (reply-by: bid timeout)
+ *   worker → MRA        PROPOSE / REFUSE queued jobs / "busy"
+ *   MRA → cheapest bid  ACCEPT_PROPOSAL  the {@link Subproblem}  (reply-by: solve timeout)
+ *   MRA → other bidders REJECT_PROPOSAL
+ *   worker → MRA        INFORM / FAILURE routes / reason
+ * </pre>
+ * A job that gets no bid, fails, returns invalid routes or misses its deadline is re-solved
+ * locally on a background thread (by nearest neighbour if the inner solver throws; customers even
+ * that cannot route are reported and left out); late answers are ignored. Once every cluster is in,
+ * the routes are merged, boundary-polished and post-optimised ({@link Algorithms#postOptimize}, as
+ * after any solver) on the same background thread, and handed to {@code done} on the agent thread.
+ */
+final class SubproblemBroker {
+
+    static final long BID_TIMEOUT_MS   = Long.getLong("vrp.worker.bidTimeout", 2_000);
+    static final long SOLVE_TIMEOUT_MS = Long.getLong("vrp.worker.timeout", 60_000);
+
+    private enum State { CALLING, AWARDED, LOCAL, DONE }
+
+    private static final class Job {
+        final String id;
+        final int[] ids;
+        State state = State.CALLING;
+        long deadline;                                     // System.currentTimeMillis() based
+        final Map<AID, Integer> bids = new HashMap<>();
+        int answers;
+        AID worker;
+        List<Route> routes;
+
+        Job(String id, int[] ids) { this.id = id; this.ids = ids; }
+    }
+
+    private final Agent agent;
+    private final VRPInstance inst;
+    private final int capacity;
+    private final DecompositionSolver decomposition, nearest;
+    private final List<AID> workers;
+    private final Consumer<ArrayList<Route>> done;
+
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private final Map<AID, Integer> awarded = new HashMap<>();   // jobs in flight per worker
+    private final Queue<Job> solvedLocally = new ConcurrentLinkedQueue<>();
+    private final Queue<ArrayList<Route>> polished = new ConcurrentLinkedQueue<>();
+    private final ExecutorService local = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "mra-local-solver");
+        t.setDaemon(true);
+        return t;
+    });
+    private TickerBehaviour ticker;
+    private int remaining, remote, fallbacks, failed;
+
+    SubproblemBroker(Agent agent, VRPInstance inst, int capacity, DecompositionSolver decomposition,
+                     List<AID> workers, Consumer<ArrayList<Route>> done) {
+        this.agent = agent;
+        this.inst = inst;
+        this.capacity = capacity;
+        this.decomposition = decomposition;
+        this.nearest = new DecompositionSolver(Algorithms.NEAREST_NEIGHBOR, DecompositionSolver.Partition.SWEEP,
+                decomposition.clusterSize(), 0);
+        this.workers = workers;
+        this.done = done;
+    }
+
+    /** Partitions the instance and calls for proposals on every cluster. */
+    void start() {
+        List<int[]> clusters = decomposition.partition(inst, new SolverContext().random());
+        long bidBy = System.currentTimeMillis() + BID_TIMEOUT_MS;
+        int n = 0;
+        for (int[] ids : clusters) {
+            Job job = new Job("job-" + (++n), ids);
+            jobs.put(job.id, job);
+
+            ACLMessage cfp = new ACLMessage(ACLMessage.CFP);
+            workers.forEach(cfp::addReceiver);
+            cfp.setConversationId(SolverWorkerAgent.CONVERSATION);
+            cfp.setReplyWith(job.id);
+            cfp.setReplyByDate(new Date(bidBy));
+            cfp.setContent(job.id + " " + ids.length + " " + decomposition.inner());
+            job.deadline = bidBy;
+            agent.send(cfp);
+        }
+        remaining = jobs.size();
+        System.out.printf("[MRA] %d subproblems (%s) offered to %d workers%n",
+                jobs.size(), decomposition.inner(), workers.size());
+
+        ticker = new TickerBehaviour(agent, 100) {
+            @Override
+            protected void onTick() { checkDeadlines(); }
+        };
+        agent.addBehaviour(ticker);
+    }
+
+    /** Entry point for every "vrp-subproblem" message the MRA receives. */
+    void handle(ACLMessage msg) {
+        Job job = jobs.get(msg.getInReplyTo());
+        if (job == null) return;
+
+        switch (msg.getPerformative()) {
+        case ACLMessage.PROPOSE:
+        case ACLMessage.REFUSE:
+            if (job.state != State.CALLING) return;        // bid after the award: ignore
+            if (msg.getPerformative() == ACLMessage.PROPOSE) {
+                try {
+                    job.bids.put(msg.getSender(), Integer.parseInt(msg.getContent().trim()));
+                } catch (NumberFormatException ignored) {}
+            }
+            if (++job.answers >= workers.size()) award(job);
+            break;
+        case ACLMessage.INFORM:
+            if (job.state != State.AWARDED || !msg.getSender().equals(job.worker)) return;
+            release(job.worker);
+            ArrayList<Route> routes = Subproblem.parseRoutes(msg.getContent(), inst, job.ids, capacity);
+            if (routes == null) { fallback(job, "invalid routes from " + job.worker.getLocalName()); return; }
+            remote++;
+            complete(job, routes);
+            break;
+        case ACLMessage.FAILURE:
+            if (job.state != State.AWARDED || !msg.getSender().equals(job.worker)) return;
+            release(job.worker);
+            fallback(job, job.worker.getLocalName() + " failed: " + msg.getContent());
+            break;
+        default:
+            break;
+        }
+    }
+
+    /* ---------- contract net ---------- */
+    /** Awards {@code job} to the bidder with the fewest queued plus in-flight jobs. */
+    private void award(Job job) {
+        AID best = null;
+        int bestLoad = Integer.MAX_VALUE;
+        for (Map.Entry<AID, Integer> b : job.bids.entrySet()) {
+            int load = b.getValue() + awarded.getOrDefault(b.getKey(), 0);
+            if (load < bestLoad) { bestLoad = load; best = b.getKey(); }
+        }
+        if (best == null) { fallback(job, "no bids"); return; }
+
+        ACLMessage accept = new ACLMessage(ACLMessage.ACCEPT_PROPOSAL);
+        accept.addReceiver(best);
+        accept.setConversationId(SolverWorkerAgent.CONVERSATION);
+        accept.setReplyWith(job.id);
+        job.deadline = System.currentTimeMillis() + SOLVE_TIMEOUT_MS;
+        accept.setReplyByDate(new Date(job.deadline));
+        accept.setContent(Subproblem.format(job.id, decomposition.inner(), inst, job.ids, capacity));
+        agent.send(accept);
+
+        if (job.bids.size() > 1) {
+            ACLMessage reject = new ACLMessage(ACLMessage.REJECT_PROPOSAL);
+            for (AID a : job.bids.keySet()) if (!a.equals(best)) reject.addReceiver(a);
+            reject.setConversationId(SolverWorkerAgent.CONVERSATION);
+            reject.setInReplyTo(job.id);
+            agent.send(reject);
+        }
+        job.worker = best;
+        job.state = State.AWARDED;
+        awarded.merge(best, 1, Integer::sum);
+    }
+
+    private void checkDeadlines() {
+        long now = System.currentTimeMillis();
+        for (Job job : jobs.values()) {
+            if (job.state == State.CALLING && now >= job.deadline) award(job);
+            else if (job.state == State.AWARDED && now >= job.deadline) {
+                release(job.worker);
+                fallback(job, job.worker.getLocalName() + " missed its deadline");
+            }
+        }
+        Job j;
+        while ((j = solvedLocally.poll()) != null) complete(j, j.routes);
+
+        ArrayList<Route> result = polished.poll();
+        if (result != null) {
+            agent.removeBehaviour(ticker);
+            local.shutdown();
+            done.accept(result);
+        }
+    }
+
+    private void release(AID worker) {
+        awarded.merge(worker, -1, Integer::sum);
+    }
+
+    /* ---------- local re-solve and merge ---------- */
+    private void fallback(Job job, String reason) {
+        job.state = State.LOCAL;
+        fallbacks++;
+        System.err.printf("[MRA] %s: %s → solving locally%n", job.id, reason);
+        local.submit(() -> {
+            try {
+                job.routes = decomposition.solveCluster(inst, job.ids, capacity, new SolverContext());
+            } catch (RuntimeException e) {
+                System.err.printf("[MRA] %s: local %s failed (%s) → nearest neighbour%n", job.id, decomposition.inner(), e);
+                try {
+                    job.routes = nearest.solveCluster(inst, job.ids, capacity, new SolverContext());
+                } catch (RuntimeException again) {
+                    System.err.printf("[MRA] %s: %d customers left unrouted: %s%n", job.id, job.ids.length, again.getMessage());
+                    job.routes = Collections.emptyList();
+                    failed++;
+                }
+            }
+            solvedLocally.add(job);
+        });
+    }
+
+    private void complete(Job job, List<Route> routes) {
+        if (job.state == State.DONE) return;
+        job.state = State.DONE;
+        job.routes = routes;
+        if (--remaining > 0) return;
+
+        ArrayList<Route> merged = new ArrayList<>();
+        for (Job j : jobs.values()) merged.addAll(j.routes);
+        System.out.printf("[MRA] all %d subproblems in (%d by workers, %d locally, %d failed)%n",
+                jobs.size(), remote, fallbacks, failed);
+
+        /* polishing takes seconds: keep it off the agent thread, the ticker hands the result back */
+        local.submit(() -> {
+            try {
+                decomposition.polish(inst, merged, capacity, new SolverContext());
+                Algorithms.postOptimize(inst, merged);
+            } catch (RuntimeException e) {
+                System.err.println("[MRA] Polish failed, keeping the merged routes: " + e);
+            }
+            polished.add(merged);
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Name → solver dispatch shared by the MRA, the launcher and the headless runner.
+ */
+public final class Algorithms {
+
+    public static final String NEAREST_NEIGHBOR    = "Nearest Neighbor";
+    public static final String LOCAL_SEARCH_INTRA  = "Local Search (Intra)";
+    public static final String LOCAL_SEARCH_INTER  = "Local Search (Inter)";
+    public static final String GENETIC_ALGORITHM   = "Genetic Algorithm";
+    public static final String SIMULATED_ANNEALING = "Simulated Annealing";
+    public static final String TABU_SEARCH         = "Tabu Search";
+    public static final String PORTFOLIO           = "Portfolio";
+    public static final String DECOMPOSITION       = "Decomposition";
+
+    /** Wall-clock budget for the portfolio race. */
+    public static final long PORTFOLIO_BUDGET_MS = 5_000;
+
+    /**
+     * Route-level post-optimisation after every solver ({@link RouteOptimizer}, then the exact
+     * {@link RouteResequencer}); {@code -Dvrp.postopt=false} turns it off.
+     */
+    public static final boolean POST_OPTIMIZE = !"false".equalsIgnoreCase(System.getProperty("vrp.postopt"));
+
+    /** Display order used by the launcher. */
+    public static final String[] NAMES = {
+            NEAREST_NEIGHBOR, LOCAL_SEARCH_INTRA, LOCAL_SEARCH_INTER,
+            GENETIC_ALGORITHM, SIMULATED_ANNEALING, TABU_SEARCH, PORTFOLIO, DECOMPOSITION
+    };
+
+    /** Solver registered under {@code alg}; unknown names fall back to nearest neighbour. */
+    public static Solver create(String alg) {
+        switch (alg) {
+            case LOCAL_SEARCH_INTRA:  return new LocalSearchIntra();
+            case LOCAL_SEARCH_INTER:  return new LocalSearchInter();
+            case GENETIC_ALGORITHM:   return new GeneticAlgorithmSolver(50, 200, 0.05);
+            case SIMULATED_ANNEALING: return new SimulatedAnnealingSolver(1000, 1, 10_000);
+            case TABU_SEARCH:         return new TabuSearchSolver(2_000, 500);
+            case PORTFOLIO:           return new PortfolioSolver(PORTFOLIO_BUDGET_MS);
+            case DECOMPOSITION:       return DecompositionSolver.configured();
+            default:                  return new NearestNeighborSolver();
+        }
+    }
+
+    public static ArrayList<Route> solve(String alg, VRPInstance inst, int cap) {
+        return solve(alg, inst, cap, new SolverContext());
+    }
+
+    /** Runs {@code alg}, then the route-level post-optimisation stage. */
+    public static ArrayList<Route> solve(String alg, VRPInstance inst, int cap, SolverContext ctx) {
+        ArrayList<Route> routes = create(alg).solve(inst, cap, ctx);
+        postOptimize(inst, routes);
+        return routes;
+    }
+
+    /** The route-level stage on its own (unless disabled), for routes assembled elsewhere. */
+    public static void postOptimize(VRPInstance inst, List<Route> routes) {
+        if (!POST_OPTIMIZE) return;
+        new RouteOptimizer(inst).optimizeAll(routes);         // long routes the DP cannot take
+        inst.resequencer().improveAll(routes);
+    }
+
+    /** Accepts a display name or a short alias (nn, intra, inter, ga, sa, ts, portfolio, decomp). */
+    public static String resolve(String nameOrAlias) {
+        for (String n : NAMES)
+            if (n.equalsIgnoreCase(nameOrAlias)) return n;
+
+        switch (nameOrAlias.toLowerCase(Locale.ROOT)) {
+            case "nn":    return NEAREST_NEIGHBOR;
+            case "intra": return LOCAL_SEARCH_INTRA;
+            case "inter": return LOCAL_SEARCH_INTER;
+            case "ga":    return GENETIC_ALGORITHM;
+            case "sa":    return SIMULATED_ANNEALING;
+            case "ts": case "tabu": return TABU_SEARCH;
+            case "portfolio": return PORTFOLIO;
+            case "decomp": case "decomposition": return DECOMPOSITION;
+            default:
+                throw new IllegalArgumentException("Unknown algorithm: " + nameOrAlias);
+        }
+    }
+
+    private Algorithms() {}  // utility
+}
@@ -0,0 +1,10 @@
+package core;
+
+/** Cooperative stop flag; solvers observe it through {@link SolverContext#shouldStop(long)}. */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    public void cancel()          { cancelled = true; }
+    public boolean isCancelled()  { return cancelled; }
+}
@@ -0,0 +1,57 @@
+package core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Line format for streamed customers (ACL content or one line per file row):
+ * <pre>  id x y demand ready due service [release]</pre>
+ * {@code release} is the plan-clock minute at which the order becomes known (default 0).
+ * Blank lines and lines starting with '#' are ignored.
+ */
+public final class CustomerFeed {
+
+    /** A customer plus the time it was released to the planner. */
+    public static final class Arrival {
+        public final Node   customer;
+        public final double release;
+        Arrival(Node customer, double release) { this.customer = customer; this.release = release; }
+    }
+
+    public static Arrival parse(String line) {
+        String[] f = line.trim().split("\\s+");
+        if (f.length < 7)
+            throw new IllegalArgumentException("Expected 'id x y demand ready due service [release]': " + line);
+
+        Node n = new Node(Integer.parseInt(f[0]), Integer.parseInt(f[1]), Integer.parseInt(f[2]),
+                          Integer.parseInt(f[3]), Integer.parseInt(f[4]), Integer.parseInt(f[5]),
+                          Integer.parseInt(f[6]));
+        double release = f.length > 7 ? Double.parseDouble(f[7]) : 0;
+        return new Arrival(n, release);
+    }
+
+    public static String format(Node n, double release) {
+        return n.ID + " " + n.x + " " + n.y + " " + n.demand + " "
+             + n.ready + " " + n.due + " " + n.service + " " + release;
+    }
+
+    /** Reads a whole feed file, in file order. */
+    public static List<Arrival> read(String path) throws IOException {
+        List<Arrival> out = new ArrayList<>();
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.trim().isEmpty() || line.trim().startsWith("#")) continue;
+                out.add(parse(line));
+            }
+        }
+        return out;
+    }
+
+    private CustomerFeed() {}  // utility
+}
@@ -0,0 +1,386 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * Divide and conquer for instances far beyond what the whole-instance solvers handle.
+ *  1. Customers are partitioned into clusters of about {@code clusterSize} by angular sweep
+ *     around the depot or by k-means on coordinates.
+ *  2. Each cluster becomes a {@link VRPInstance#subInstance} and is solved by the inner
+ *     algorithm on its own thread; the routes are stitched back together.
+ *  3. POPMUSIC-style boundary polish: each round groups every route with its nearest routes
+ *     (by centroid) into disjoint subproblems, re-optimises them concurrently with tabu search
+ *     warm-started from the current routes, and keeps whatever scores better.
+ * Defaults come from {@code -Dvrp.decomp.partition=sweep|kmeans}, {@code -Dvrp.decomp.solver=<alias>}
+ * and {@code -Dvrp.decomp.size=N}.
+ */
+public class DecompositionSolver implements Solver {
+
+    public enum Partition { SWEEP, KMEANS }
+
+    public static final int DEFAULT_CLUSTER = 200;
+    public static final int DEFAULT_ROUNDS  = 3;
+
+    private static final int GROUP_ROUTES = 6;          // routes per polish subproblem at most
+    private static final int NEAR_ROUTES  = 4 * GROUP_ROUTES;   // candidates a group is drawn from
+    private static final int KMEANS_ITERATIONS = 25;
+
+    private final String inner;
+    private final Partition partition;
+    private final int clusterSize, rounds;
+
+    public DecompositionSolver(String inner, Partition partition, int clusterSize, int rounds) {
+        if (Algorithms.DECOMPOSITION.equals(inner))
+            throw new IllegalArgumentException("Decomposition cannot be its own inner solver");
+        this.inner = inner;
+        this.partition = partition;
+        this.clusterSize = Math.max(10, clusterSize);
+        this.rounds = rounds;
+    }
+
+    /** Solver configured from the {@code vrp.decomp.*} system properties. */
+    public static DecompositionSolver configured() {
+        return configured(Algorithms.resolve(System.getProperty("vrp.decomp.solver", "ts")));
+    }
+
+    /** As {@link #configured()} but with the given inner algorithm. */
+    public static DecompositionSolver configured(String inner) {
+        String p = System.getProperty("vrp.decomp.partition", "sweep");
+        int size = Integer.getInteger("vrp.decomp.size", DEFAULT_CLUSTER);
+        return new DecompositionSolver(inner, Partition.valueOf(p.toUpperCase(Locale.ROOT)), size, DEFAULT_ROUNDS);
+    }
+
+    @Override public String name() { return Algorithms.DECOMPOSITION; }
+
+    public String inner()     { return inner; }
+    public int clusterSize()  { return clusterSize; }
+
+    @Override
+    public ArrayList<Route> solve(VRPInstance inst, int capacity, SolverContext ctx) {
+        if (inst.customers.size() <= clusterSize) return Algorithms.create(inner).solve(inst, capacity, sub(ctx));
+
+        ExecutorService pool = newPool();
+        try {
+            long t0 = System.nanoTime();
+            List<int[]> clusters = partition(inst, ctx.random());
+
+            List<Future<List<Route>>> parts = new ArrayList<>();
+            for (int[] ids : clusters)
+                parts.add(pool.submit(() -> solveCluster(inst, ids, capacity, ctx)));
+            ArrayList<Route> routes = new ArrayList<>();
+            for (Future<List<Route>> f : parts) routes.addAll(get(f));
+
+            System.out.printf("[Decomposition] %d clusters (%s, %s) → %.2f in %d ms%n", clusters.size(),
+                    partition, inner, Incumbent.score(routes, inst), (System.nanoTime() - t0) / 1_000_000);
+            polish(inst, routes, capacity, ctx, pool);
+            return routes;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Customer clusters (IDs in {@code inst}) by the configured partitioning. */
+    public List<int[]> partition(VRPInstance inst, Random rnd) {
+        return partition == Partition.KMEANS ? kMeans(inst, rnd) : sweep(inst, allCustomers(inst.customers.size()));
+    }
+
+    /** Solves one cluster with the inner algorithm; routes are over {@code inst}'s nodes. */
+    public List<Route> solveCluster(VRPInstance inst, int[] ids, int capacity, SolverContext ctx) {
+        return solvePart(inst, ids, capacity, inner, null, ctx);
+    }
+
+    /** Boundary polish rounds over stitched routes (in place) on a pool of its own. */
+    public void polish(VRPInstance inst, ArrayList<Route> routes, int capacity, SolverContext ctx) {
+        ExecutorService pool = newPool();
+        try {
+            polish(inst, routes, capacity, ctx, pool);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void polish(VRPInstance inst, ArrayList<Route> routes, int capacity,
+                        SolverContext ctx, ExecutorService pool) {
+        ctx.progress(name(), 0, Incumbent.score(routes, inst), 0);
+        ctx.publishNow(routes, name());
+        for (int round = 1; round <= rounds && !ctx.shouldStop(round); round++) {
+            int improved = polishRound(inst, routes, capacity, ctx, pool);
+            double cost = Incumbent.score(routes, inst);
+            System.out.printf("[Decomposition] polish %d: %d groups improved → %.2f%n", round, improved, cost);
+            ctx.progress(name(), round, cost, 0);
+            ctx.publishNow(routes, name());
+            if (improved == 0) break;
+        }
+    }
+
+    private static ExecutorService newPool() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread t = new Thread(r, "decomposition-worker");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /* ---------- subproblems ---------- */
+    /** Solves the customers {@code ids} as a sub-instance and returns routes over {@code inst}'s nodes. */
+    private List<Route> solvePart(VRPInstance inst, int[] ids, int capacity, String alg,
+                                  List<Route> warm, SolverContext ctx) {
+        VRPInstance s = inst.subInstance(ids);
+        SolverContext c = sub(ctx).stream(null);             // local IDs: nothing a display could draw
+        if (warm != null) {
+            int[] local = new int[inst.size()];
+            for (int i = 0; i < ids.length; i++) local[ids[i]] = i + 1;
+            ArrayList<Route> start = new ArrayList<>(warm.size());
+            for (Route r : warm) start.add(remap(r, s, local, capacity));
+            c.initial(start);
+        }
+        ArrayList<Route> solved = Algorithms.create(alg).solve(s, capacity, c);   // post-opt runs once, on the whole
+
+        int[] parent = new int[ids.length + 1];
+        System.arraycopy(ids, 0, parent, 1, ids.length);
+        ArrayList<Route> out = new ArrayList<>(solved.size());
+        for (Route r : solved) if (!r.customers.isEmpty()) out.add(remap(r, inst, parent, capacity));
+        return out;
+    }
+
+    /** Same stops as {@code r}, as nodes of {@code target} under the ID map {@code to}. */
+    private static Route remap(Route r, VRPInstance target, int[] to, int capacity) {
+        Route out = new Route();
+        out.capacity = capacity;
+        for (Node c : r.customers) out.addCustomer(target.customers.get(to[c.ID] - 1));
+        out.updateArrivals(target);
+        return out;
+    }
+
+    /** Fork sharing the caller's cancellation, so cancelling the decomposition stops every part. */
+    private static SolverContext sub(SolverContext ctx) {
+        return ctx.fork().cancellation(ctx.cancellation());
+    }
+
+    /* ---------- boundary polish ---------- */
+    /** One POPMUSIC round over disjoint route groups; replaces improved groups in place. */
+    private int polishRound(VRPInstance inst, ArrayList<Route> routes, int capacity,
+                       SolverContext ctx, ExecutorService pool) {
+        int k = routes.size();
+        double[] cx = new double[k], cy = new double[k];
+        for (int r = 0; r < k; r++) {
+            for (Node c : routes.get(r).customers) { cx[r] += c.x; cy[r] += c.y; }
+            int size = Math.max(1, routes.get(r).customers.size());
+            cx[r] /= size; cy[r] /= size;
+        }
+
+        List<Integer> seeds = new ArrayList<>();
+        for (int r = 0; r < k; r++) seeds.add(r);
+        Collections.shuffle(seeds, ctx.random());
+
+        int[][] near = nearestRoutes(cx, cy, NEAR_ROUTES);
+        boolean[] taken = new boolean[k];
+        List<int[]> groups = new ArrayList<>();
+        for (int s : seeds) {
+            if (taken[s]) continue;
+            List<Integer> group = new ArrayList<>();
+            group.add(s); taken[s] = true;
+            int stops = routes.get(s).customers.size();
+            for (int r : near[s]) {
+                if (taken[r] || group.size() == GROUP_ROUTES) continue;
+                int size = routes.get(r).customers.size();
+                if (stops + size > clusterSize) continue;
+                group.add(r); stops += size; taken[r] = true;
+            }
+            if (group.size() > 1) groups.add(group.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        List<Future<List<Route>>> results = new ArrayList<>();
+        for (int[] g : groups) {
+            List<Route> old = new ArrayList<>(g.length);
+            for (int r : g) old.add(routes.get(r));
+            results.add(pool.submit(() -> {
+                List<Integer> ids = new ArrayList<>();
+                for (Route r : old) for (Node c : r.customers) ids.add(c.ID);
+                int[] arr = ids.stream().mapToInt(Integer::intValue).toArray();
+                List<Route> next = solvePart(inst, arr, capacity, Algorithms.TABU_SEARCH, old, ctx);
+                return Incumbent.score(next, inst) < Incumbent.score(old, inst) - 1e-6 ? next : null;
+            }));
+        }
+
+        int improved = 0;
+        Route[] slots = routes.toArray(new Route[0]);
+        List<Route> added = new ArrayList<>();
+        for (int i = 0; i < groups.size(); i++) {
+            List<Route> next = get(results.get(i));
+            if (next == null) continue;
+            improved++;
+            for (int r : groups.get(i)) slots[r] = null;
+            added.addAll(next);
+        }
+        routes.clear();
+        for (Route r : slots) if (r != null) routes.add(r);
+        routes.addAll(added);
+        return improved;
+    }
+
+    /**
+     * The {@code want} routes with the nearest centroids to each route (itself excluded), nearest
+     * first. Centroids are bucketed into a square grid of about two per cell and each search
+     * grows ring by ring until no unvisited cell can hold anything closer, so a round costs
+     * O(k · want log want) rather than a full sort per seed.
+     */
+    static int[][] nearestRoutes(double[] cx, double[] cy, int want) {
+        int k = cx.length;
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, maxX = -minX, maxY = -minY;
+        for (int r = 0; r < k; r++) {
+            minX = Math.min(minX, cx[r]); maxX = Math.max(maxX, cx[r]);
+            minY = Math.min(minY, cy[r]); maxY = Math.max(maxY, cy[r]);
+        }
+        int side = Math.max(1, (int) Math.sqrt(k / 2.0));
+        double w = Math.max(Math.max(maxX - minX, maxY - minY) / side, 1e-9);
+
+        int[] cell = new int[k], start = new int[side * side + 1], members = new int[k];
+        for (int r = 0; r < k; r++) {
+            int gx = Math.min(side - 1, (int) ((cx[r] - minX) / w)), gy = Math.min(side - 1, (int) ((cy[r] - minY) / w));
+            cell[r] = gy * side + gx;
+            start[cell[r] + 1]++;
+        }
+        for (int c = 0; c < side * side; c++) start[c + 1] += start[c];
+        int[] fill = Arrays.copyOf(start, side * side);
+        for (int r = 0; r < k; r++) members[fill[cell[r]]++] = r;
+
+        int[][] out = new int[k][];
+        int[] cand = new int[k];
+        double[] d2 = new double[k];
+        for (int s = 0; s < k; s++) {
+            int gx = cell[s] % side, gy = cell[s] / side, found = 0;
+            for (int ring = 0; ring <= side; ring++) {
+                for (int y = Math.max(0, gy - ring); y <= Math.min(side - 1, gy + ring); y++) {
+                    int step = Math.abs(y - gy) == ring ? 1 : Math.max(1, 2 * ring);    // ring cells only
+                    for (int x = gx - ring; x <= gx + ring; x += step) {
+                        if (x < 0 || x >= side) continue;
+                        int c = y * side + x;
+                        for (int i = start[c]; i < start[c + 1]; i++) {
+                            int r = members[i];
+                            if (r == s) continue;
+                            double dx = cx[r] - cx[s], dy = cy[r] - cy[s];
+                            cand[found] = r; d2[r] = dx * dx + dy * dy; found++;
+                        }
+                    }
+                }
+                if (found >= want) {                       // anything unseen is at least ring · w away
+                    double[] ds = new double[found];
+                    for (int i = 0; i < found; i++) ds[i] = d2[cand[i]];
+                    Arrays.sort(ds);
+                    if (ds[want - 1] <= ring * w * ring * w) break;
+                }
+            }
+            Integer[] order = new Integer[found];
+            for (int i = 0; i < found; i++) order[i] = cand[i];
+            Arrays.sort(order, Comparator.comparingDouble(r -> d2[r]));
+            out[s] = new int[Math.min(want, found)];
+            for (int i = 0; i < out[s].length; i++) out[s][i] = order[i];
+        }
+        return out;
+    }
+
+    /* ---------- partitioning ---------- */
+    /** Cuts {@code ids} by polar angle around the depot into slices of about {@code clusterSize}. */
+    private List<int[]> sweep(VRPInstance inst, int[] ids) {
+        int n = ids.length;
+        double[] angle = new double[inst.size()];
+        for (int id : ids) angle[id] = Math.atan2(inst.y[id] - inst.y[0], inst.x[id] - inst.x[0]);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = ids[i];
+        Arrays.sort(order, Comparator.comparingDouble(id -> angle[id]));
+
+        int parts = (n + clusterSize - 1) / clusterSize;
+        List<int[]> out = new ArrayList<>(parts);
+        for (int p = 0; p < parts; p++) {
+            int from = (int) ((long) p * n / parts), to = (int) ((long) (p + 1) * n / parts);
+            int[] slice = new int[to - from];
+            for (int i = from; i < to; i++) slice[i - from] = order[i];
+            out.add(slice);
+        }
+        return out;
+    }
+
+    /** k-means++ on coordinates; clusters that come out much larger than wanted are swept apart. */
+    private List<int[]> kMeans(VRPInstance inst, Random rnd) {
+        int m = inst.customers.size(), k = (m + clusterSize - 1) / clusterSize;
+        double[] mx = new double[k], my = new double[k];
+        double[] d2 = new double[m + 1];
+        Arrays.fill(d2, Double.POSITIVE_INFINITY);
+
+        int first = 1 + rnd.nextInt(m);
+        mx[0] = inst.x[first]; my[0] = inst.y[first];
+        for (int c = 1; c < k; c++) {                       // k-means++ seeding
+            double total = 0;
+            for (int id = 1; id <= m; id++) {
+                double dx = inst.x[id] - mx[c - 1], dy = inst.y[id] - my[c - 1];
+                d2[id] = Math.min(d2[id], dx * dx + dy * dy);
+                total += d2[id];
+            }
+            double pick = rnd.nextDouble() * total;
+            int id = 1;
+            while (id < m && (pick -= d2[id]) > 0) id++;
+            mx[c] = inst.x[id]; my[c] = inst.y[id];
+        }
+
+        int[] assign = new int[m + 1];
+        for (int it = 0; it < KMEANS_ITERATIONS; it++) {
+            boolean[] moved = new boolean[1];
+            IntStream.rangeClosed(1, m).parallel().forEach(id -> {
+                int best = 0;
+                double bd = Double.POSITIVE_INFINITY;
+                for (int c = 0; c < k; c++) {
+                    double dx = inst.x[id] - mx[c], dy = inst.y[id] - my[c], d = dx * dx + dy * dy;
+                    if (d < bd) { bd = d; best = c; }
+                }
+                if (assign[id] != best) { assign[id] = best; moved[0] = true; }
+            });
+            if (!moved[0] && it > 0) break;
+            double[] sx = new double[k], sy = new double[k];
+            int[] cnt = new int[k];
+            for (int id = 1; id <= m; id++) { sx[assign[id]] += inst.x[id]; sy[assign[id]] += inst.y[id]; cnt[assign[id]]++; }
+            for (int c = 0; c < k; c++) if (cnt[c] > 0) { mx[c] = sx[c] / cnt[c]; my[c] = sy[c] / cnt[c]; }
+        }
+
+        int[] cnt = new int[k];
+        for (int id = 1; id <= m; id++) cnt[assign[id]]++;
+        int[][] members = new int[k][];
+        for (int c = 0; c < k; c++) members[c] = new int[cnt[c]];
+        Arrays.fill(cnt, 0);
+        for (int id = 1; id <= m; id++) members[assign[id]][cnt[assign[id]]++] = id;
+
+        List<int[]> out = new ArrayList<>();
+        for (int[] cluster : members) {
+            if (cluster.length == 0) continue;
+            if (cluster.length > clusterSize * 3 / 2) out.addAll(sweep(inst, cluster));
+            else out.add(cluster);
+        }
+        return out;
+    }
+
+    private static int[] allCustomers(int m) {
+        return IntStream.rangeClosed(1, m).toArray();
+    }
+
+    private static <T> T get(Future<T> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Decomposition interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Subproblem failed", e.getCause());
+        }
+    }
+}
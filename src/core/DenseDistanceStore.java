@@ -0,0 +1,29 @@
+package core;
+
+/** Full {@code double[n][n]} matrix — fastest lookups, 8·n² bytes. Fine up to a few thousand nodes. */
+public final class DenseDistanceStore implements DistanceStore {
+
+    private final double[][] m;
+
+    public DenseDistanceStore(double[][] m) { this.m = m; }
+
+    /** Euclidean distances between the given coordinates; each symmetric pair is computed once. */
+    public static DenseDistanceStore euclidean(int[] x, int[] y, int n) {
+        double[][] m = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            double[] row = m[i];
+            for (int j = i + 1; j < n; j++) {
+                double d = DistanceStores.euclid(x, y, i, j);
+                row[j] = d;
+                m[j][i] = d;
+            }
+        }
+        return new DenseDistanceStore(m);
+    }
+
+    @Override public int size() { return m.length; }
+
+    @Override public double get(int from, int to) { return m[from][to]; }
+
+    @Override public long footprintBytes() { return 8L * m.length * m.length; }
+}
@@ -0,0 +1,17 @@
+package core;
+
+/**
+ * Travel distance between two nodes of an instance, indexed by node ID (0 = depot).
+ * Implementations trade memory for precision and lookup cost; see {@link DistanceStores}
+ * for the available layouts and the size-based default.
+ */
+public interface DistanceStore {
+
+    /** Number of nodes covered, including the depot. */
+    int size();
+
+    double get(int from, int to);
+
+    /** Bytes held by the store (heap or off-heap), 0 if nothing is materialised. */
+    long footprintBytes();
+}
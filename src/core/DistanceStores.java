@@ -0,0 +1,81 @@
+package core;
+
+import java.util.Locale;
+
+/**
+ * Chooses and builds the {@link DistanceStore} for an instance. Without an explicit kind
+ * (or the {@code vrp.distances} system property) the choice follows the instance size:
+ * <pre>
+ *   ≤ 2 000 nodes    DENSE        double[n][n]       ≤  32 MB
+ *   ≤ 16 000 nodes   TRIANGULAR   float upper half   ≤ 512 MB
+ *   larger           LAZY         from coordinates       0 MB
+ * </pre>
+ */
+public final class DistanceStores {
+
+    public enum Kind { DENSE, TRIANGULAR, OFF_HEAP_FLOAT, OFF_HEAP_FIXED16, LAZY }
+
+    public static final int DENSE_MAX      = 2_000;
+    public static final int TRIANGULAR_MAX = 16_000;
+
+    /** Kind forced by {@code -Dvrp.distances=dense|triangular|off-heap-float|off-heap-fixed16|lazy}, else null. */
+    public static Kind configured() {
+        String p = System.getProperty("vrp.distances");
+        if (p == null || p.trim().isEmpty()) return null;
+        return parse(p);
+    }
+
+    public static Kind parse(String s) {
+        return Kind.valueOf(s.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public static Kind forSize(int n) {
+        Kind k = configured();
+        if (k != null) return k;
+        if (n <= DENSE_MAX)      return Kind.DENSE;
+        if (n <= TRIANGULAR_MAX) return Kind.TRIANGULAR;
+        return Kind.LAZY;
+    }
+
+    /** Euclidean store over the first {@code n} coordinates. */
+    public static DistanceStore euclidean(Kind kind, int[] x, int[] y, int n) {
+        switch (kind) {
+            case DENSE:            return DenseDistanceStore.euclidean(x, y, n);
+            case TRIANGULAR:       return TriangularDistanceStore.euclidean(x, y, n);
+            case OFF_HEAP_FLOAT:   return PackedDistanceStore.euclidean(x, y, n,
+                                        PackedDistanceStore.Layout.UPPER_TRIANGLE, PackedDistanceStore.Encoding.FLOAT32);
+            case OFF_HEAP_FIXED16: return PackedDistanceStore.euclidean(x, y, n,
+                                        PackedDistanceStore.Layout.UPPER_TRIANGLE, PackedDistanceStore.Encoding.FIXED16);
+            default:               return new LazyDistanceStore(x, y, n);
+        }
+    }
+
+    /** Dense copy of {@code s} restricted to {@code nodes}: entry (i, j) = s(nodes[i], nodes[j]). */
+    public static DenseDistanceStore restrict(DistanceStore s, int[] nodes) {
+        int k = nodes.length;
+        double[][] m = new double[k][k];
+        for (int i = 0; i < k; i++)
+            for (int j = 0; j < k; j++)
+                if (i != j) m[i][j] = s.get(nodes[i], nodes[j]);
+        return new DenseDistanceStore(m);
+    }
+
+    /* ---------- shared arithmetic ---------- */
+    static double euclid(int[] x, int[] y, int i, int j) {
+        double dx = x[i] - x[j], dy = y[i] - y[j];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /** Entries in the strict upper triangle of an n×n matrix. */
+    static long triangleLength(int n) {
+        return (long) n * (n - 1) / 2;
+    }
+
+    /** Position of (i, j), i ≠ j, in the row-major strict upper triangle; arguments may come in either order. */
+    static long triangleIndex(int n, int i, int j) {
+        if (i > j) { int t = i; i = j; j = t; }
+        return (long) i * (2L * n - i - 1) / 2 + (j - i - 1);
+    }
+
+    private DistanceStores() {}  // utility
+}
@@ -0,0 +1,261 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Keeps a dispatched plan alive while new customers stream in.
+ *  • Inserts each arrival at its cheapest time-window-feasible position (O(n) per insert).
+ *  • Never touches the committed prefix of a route (stops already started at the current clock).
+ *  • A background thread re-sequences the open part of routes between arrivals.
+ *  • Routes that change are reported to a {@link Listener} so agents can send deltas.
+ */
+public class DynamicPlanner {
+
+    /** Notified (from the inserting or re-optimising thread) whenever a route changes. */
+    public interface Listener {
+        void routeChanged(int routeIdx, Route route);
+    }
+
+    private static final int LATENCY_SAMPLES = 4096;
+
+    private final VRPInstance inst;
+    private final Node depot;
+    private final int capacity;
+    private final ArrayList<Route> routes;
+    private final Listener listener;
+
+    private double now = 0;                    // plan clock in minutes
+    private int    version = 0;                // bumped on every insertion
+
+    /* scratch schedule arrays, grown on demand */
+    private double[] start  = new double[64];  // service start per stop
+    private double[] latest = new double[64];  // latest start that keeps the rest of the route on time
+
+    /* insertion latency ring (nanoseconds) */
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyCount = 0;
+
+    private Thread reoptimizer;
+    private volatile boolean running;
+
+    /** Distances and travel times come from {@code inst}; arrivals beyond its matrix fall back to Euclidean. */
+    public DynamicPlanner(VRPInstance inst, ArrayList<Route> routes, int capacity, Listener listener) {
+        this.inst     = inst;
+        this.depot    = inst.depot;
+        this.routes   = routes;
+        this.capacity = capacity;
+        this.listener = listener;
+    }
+
+    /* ---------- clock ---------- */
+    public synchronized void advanceClock(double time) {
+        if (time > now) now = time;
+    }
+    public synchronized double clock() { return now; }
+
+    /* ---------- online insertion ---------- */
+    /**
+     * Inserts {@code c} into the live plan.
+     * @return index of the route that received the customer (a new route if none could)
+     */
+    public synchronized int insert(Node c) {
+        long t0 = System.nanoTime();
+
+        int bestRoute = -1, bestPos = -1;
+        double bestDelta = Double.MAX_VALUE;
+
+        for (int r = 0; r < routes.size(); r++) {
+            Route route = routes.get(r);
+            if (!route.canAdd(c)) continue;
+
+            int n = route.customers.size();
+            int first = schedule(route);
+            for (int pos = first; pos <= n; pos++) {
+                double delta = insertionDelta(route, c, pos);
+                if (delta < bestDelta) { bestDelta = delta; bestRoute = r; bestPos = pos; }
+            }
+        }
+
+        if (bestRoute == -1) {
+            Route fresh = new Route();
+            fresh.capacity = capacity;
+            routes.add(fresh);
+            bestRoute = routes.size() - 1;
+            bestPos   = 0;
+        }
+
+        Route target = routes.get(bestRoute);
+        target.customers.add(bestPos, c);
+        target.load += c.demand;
+        target.updateArrivals(inst);
+        version++;
+
+        recordLatency(System.nanoTime() - t0);
+        if (listener != null) listener.routeChanged(bestRoute, target);
+        return bestRoute;
+    }
+
+    /**
+     * Fills {@link #start} / {@link #latest} for {@code route}.
+     * @return first position open for insertion (after the committed prefix)
+     */
+    private int schedule(Route route) {
+        int n = route.customers.size();
+        if (start.length < n + 1) {
+            start  = new double[Math.max(n + 1, start.length * 2)];
+            latest = new double[start.length];
+        }
+
+        double t = 0; Node prev = depot; int committed = 0;
+        for (int i = 0; i < n; i++) {
+            Node s = route.customers.get(i);
+            t += inst.travel(prev, s);
+            t  = Math.max(t, s.ready);
+            start[i] = t;
+            if (t <= now) committed = i + 1;
+            t += s.service;
+            prev = s;
+        }
+
+        /* backward pass: latest start that keeps every later stop on time (SolutionEvaluator.late) */
+        double next = Double.MAX_VALUE;
+        for (int i = n - 1; i >= 0; i--) {
+            Node s = route.customers.get(i);
+            double lim = s.due + SolutionEvaluator.EPS;
+            if (i < n - 1) {
+                Node after = route.customers.get(i + 1);
+                lim = Math.min(lim, next - s.service - inst.travel(s, after));
+            }
+            latest[i] = lim;
+            next = lim;
+        }
+        return committed;
+    }
+
+    /** Extra distance of inserting {@code c} at {@code pos}, or MAX_VALUE if it breaks a window. */
+    private double insertionDelta(Route route, Node c, int pos) {
+        int n = route.customers.size();
+        Node prev = pos == 0 ? depot : route.customers.get(pos - 1);
+        Node next = pos == n ? depot : route.customers.get(pos);
+
+        double depart = pos == 0 ? Math.max(0, now) : Math.max(now, start[pos - 1] + prev.service);
+        double arrive = Math.max(depart + inst.travel(prev, c), c.ready);
+        if (SolutionEvaluator.late(arrive, c.due)) return Double.MAX_VALUE;
+
+        if (pos < n) {
+            double nextStart = Math.max(arrive + c.service + inst.travel(c, next), next.ready);
+            if (nextStart > latest[pos]) return Double.MAX_VALUE;
+        }
+        return inst.dist(prev, c) + inst.dist(c, next) - inst.dist(prev, next);
+    }
+
+    /* ---------- background re-optimisation ---------- */
+    public synchronized void startReoptimizer() {
+        if (reoptimizer != null) return;
+        running = true;
+        reoptimizer = new Thread(this::reoptimizeLoop, "vrp-reoptimizer");
+        reoptimizer.setDaemon(true);
+        reoptimizer.start();
+    }
+
+    public void stopReoptimizer() {
+        running = false;
+        Thread t;
+        synchronized (this) { t = reoptimizer; reoptimizer = null; }
+        if (t != null) t.interrupt();
+    }
+
+    private void reoptimizeLoop() {
+        int cursor = 0, idle = 0;
+        while (running) {
+            int idx = -1, size;
+            Route changed = null;
+
+            /* one route per lock hold keeps insertion latency bounded */
+            synchronized (this) {
+                size = routes.size();
+                if (size > 0) {
+                    idx = cursor++ % size;
+                    if (relocateOnce(routes.get(idx))) changed = routes.get(idx);
+                }
+            }
+
+            if (changed != null) {
+                idle = 0;
+                if (listener != null) listener.routeChanged(idx, changed);
+            } else if (++idle >= size) {           // full sweep without gain: back off
+                idle = 0;
+                try { Thread.sleep(20); } catch (InterruptedException e) { return; }
+            }
+        }
+    }
+
+    /**
+     * First-improvement relocate inside the open suffix of {@code route}. Each move is priced
+     * in O(1) from the arc deltas; only improving moves are checked for time windows, and the
+     * check replays just the stops between the two positions before handing over to
+     * {@link #latest} for the unchanged tail.
+     */
+    private boolean relocateOnce(Route route) {
+        ArrayList<Node> c = route.customers;
+        int n = c.size();
+        int first = schedule(route);
+        if (n - first < 2) return false;
+
+        for (int i = first; i < n; i++) {
+            Node m = c.get(i);
+            Node p = i == 0 ? depot : c.get(i - 1), s = i == n - 1 ? depot : c.get(i + 1);
+            double gain = inst.dist(p, m) + inst.dist(m, s) - inst.dist(p, s);
+
+            for (int j = first; j < n; j++) {     // j: index of m after the move
+                if (i == j) continue;
+                Node a = j < i ? (j == 0 ? depot : c.get(j - 1)) : c.get(j);
+                Node b = j < i ? c.get(j) : (j == n - 1 ? depot : c.get(j + 1));
+                double delta = inst.dist(a, m) + inst.dist(m, b) - inst.dist(a, b) - gain;
+                if (delta >= -1e-9 || !relocationFeasible(c, i, j)) continue;
+
+                c.add(j, c.remove(i));
+                route.updateArrivals(inst);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether moving stop {@code i} to index {@code j} keeps every window; needs {@link #schedule} first. */
+    private boolean relocationFeasible(ArrayList<Node> c, int i, int j) {
+        int lo = Math.min(i, j), hi = Math.max(i, j);
+        Node prev = lo == 0 ? depot : c.get(lo - 1);
+        double t = lo == 0 ? 0 : start[lo - 1] + prev.service;
+
+        for (int k = lo; k <= hi; k++) {
+            Node s = k == j ? c.get(i) : c.get(i < j ? k + 1 : k - 1);
+            t = Math.max(t + inst.travel(prev, s), s.ready);
+            if (SolutionEvaluator.late(t, s.due)) return false;
+            t += s.service;
+            prev = s;
+        }
+        if (hi + 1 == c.size()) return true;
+        Node next = c.get(hi + 1);
+        return Math.max(t + inst.travel(prev, next), next.ready) <= latest[hi + 1];
+    }
+
+    /* ---------- latency statistics ---------- */
+    private void recordLatency(long nanos) {
+        latencies[latencyCount % LATENCY_SAMPLES] = nanos;
+        latencyCount++;
+    }
+
+    /** Insertion latency percentile (0–1) over the most recent samples, in microseconds. */
+    public synchronized double latencyPercentileMicros(double p) {
+        int n = Math.min(latencyCount, LATENCY_SAMPLES);
+        if (n == 0) return 0;
+        long[] sorted = Arrays.copyOf(latencies, n);
+        Arrays.sort(sorted);
+        int idx = (int) Math.min(n - 1, Math.ceil(p * n) - 1);
+        return sorted[Math.max(0, idx)] / 1_000.0;
+    }
+
+    public synchronized int insertions() { return version; }
+}
@@ -2,7 +2,7 @@ package core;
 
 import java.util.*;
 
-public class GeneticAlgorithmSolver {
+public class GeneticAlgorithmSolver implements Solver {
     private VRPInstance inst;
     private int capacity;
     private int populationSize, generations;
@@ -10,6 +10,15 @@ public class GeneticAlgorithmSolver {
     private Map<Integer, Double> fitnessCache = new HashMap<>();
     private Random rnd = new Random();
 
+    private long evaluations = 0;
+
+    // Budget, cancellation, warm start and progress sinks (unbounded unless run through the SPI)
+    private SolverContext ctx = new SolverContext();
+
+    // Instrumentation (null unless SolverMetrics is enabled)
+    private SolverMetrics.Run metrics;
+    private SolverMetrics.Operator crossoverOp, swapOp, reverseOp;
+
     // Now take capacity as a parameter
     public GeneticAlgorithmSolver(VRPInstance inst, int capacity,
                                   int popSize, int gens, double mutRate) {
@@ -20,15 +29,47 @@ public class GeneticAlgorithmSolver {
         this.mutationRate  = mutRate;
     }
 
+    /** Unbound solver for the {@link Solver} SPI; instance and capacity arrive with {@link #solve(VRPInstance, int, SolverContext)}. */
+    public GeneticAlgorithmSolver(int popSize, int gens, double mutRate) {
+        this.populationSize = popSize;
+        this.generations   = gens;
+        this.mutationRate  = mutRate;
+    }
+
+    @Override public String name() { return Algorithms.GENETIC_ALGORITHM; }
+
+    /**
+     * SPI entry point. Iterations are generations counted across runs; the context's
+     * incumbent (if any) seeds each population and receives each run's best.
+     */
+    @Override
+    public ArrayList<Route> solve(VRPInstance inst, int capacity, SolverContext ctx) {
+        this.inst = inst;
+        this.capacity = capacity;
+        this.ctx = ctx;
+        this.rnd = ctx.random();
+        return solve();
+    }
+
     public ArrayList<Route> solve() {
         // Run the GA multiple times and choose the best solution
         final int NUM_RUNS = 3;
         List<Route> overallBestSolution = null;
         double overallBestFitness = Double.MAX_VALUE;
         
+        metrics = SolverMetrics.start(name());
+        if (metrics != null) {
+            crossoverOp = metrics.operator("crossover");
+            swapOp      = metrics.operator("swap");
+            reverseOp   = metrics.operator("2-opt");
+        }
+
         System.out.println("\nRunning Genetic Algorithm " + NUM_RUNS + " times...");
+        long iteration = 0;
+        evaluations = 0;
         
         for (int run = 0; run < NUM_RUNS; run++) {
+            if (run > 0 && ctx.shouldStop(iteration)) break;
             System.out.println("GA Run " + (run + 1) + "/" + NUM_RUNS);
             
             // Clear cache between runs
@@ -41,6 +82,9 @@ public class GeneticAlgorithmSolver {
             List<Route> bestSolution = null;
             
             for (int gen = 0; gen < generations && noImprovementCount < 20; gen++) {
+                if (gen > 0 && ctx.shouldStop(iteration)) break;
+                iteration++;
+
                 // Sort population by fitness
                 pop.sort(Comparator.comparingDouble(this::fitness));
                 
@@ -50,6 +94,8 @@ public class GeneticAlgorithmSolver {
                     bestFitness = currentBest;
                     bestSolution = new ArrayList<>(pop.get(0));
                     noImprovementCount = 0;
+                    if (metrics != null) metrics.best(bestFitness);
+                    if (ctx.wantsSnapshot()) ctx.publish(bestSolution, name());
                     
                     // Apply local search to best solution
                     if (gen % 5 == 0) { // Apply local search every 5 generations
@@ -77,6 +123,7 @@ public class GeneticAlgorithmSolver {
                     List<Route> p2 = tournamentSelect(pop);
                     List<Route> child = crossover(p1, p2);
                     mutate(child, adaptiveMutationRate);
+                    if (crossoverOp != null) crossoverOp.attempt();
                     
                     // Accept based on simulated annealing occasionally
                     if (rnd.nextDouble() < 0.1) { // 10% chance to apply simulated annealing
@@ -84,8 +131,14 @@ public class GeneticAlgorithmSolver {
                         double childFitness = fitness(child);
                         double parentFitness = fitness(p1);
                         double delta = childFitness - parentFitness;
+                        boolean accept = delta < 0 || Math.exp(-delta / temperature) > rnd.nextDouble();
+                        if (metrics != null) {
+                            metrics.proposal(accept);
+                            if (accept) crossoverOp.success();
+                            if (delta < 0) crossoverOp.improvement();
+                        }
                         
-                        if (delta < 0 || Math.exp(-delta / temperature) > rnd.nextDouble()) {
+                        if (accept) {
                             next.add(child);
                         } else {
                             // If rejected, add a clone of the parent
@@ -97,6 +150,8 @@ public class GeneticAlgorithmSolver {
                 }
                 
                 pop = next;
+                ctx.progress(name(), iteration, bestFitness, evaluations);
+                if (metrics != null) metrics.iteration();
                 
                 // Clear cache periodically to prevent memory issues
                 if (gen % 10 == 0) {
@@ -126,13 +181,19 @@ public class GeneticAlgorithmSolver {
                 overallBestFitness = finalFitness;
                 overallBestSolution = new ArrayList<>(finalSolution);
                 System.out.println("→ New best solution found!");
+                if (ctx.incumbent() != null) ctx.incumbent().offer(overallBestSolution, name());
             }
         }
         
         System.out.println("\nBest solution found with quality: " + overallBestFitness);
+        if (metrics != null) metrics.end();
         return new ArrayList<>(overallBestSolution);
     }
 
+    void clearFitnessCache() {
+        fitnessCache.clear();
+    }
+
     private List<List<Route>> initPopulation() {
         List<List<Route>> pop = new ArrayList<>();
         
@@ -141,7 +202,8 @@ public class GeneticAlgorithmSolver {
             ArrayList<Route> base;
             
             // Choose strategy based on position in population
-            if (i < populationSize * 0.6) {
+            // Greedy members are expensive; past the budget fill up with NN variants instead
+            if (i < populationSize * 0.6 || (i > 0 && ctx.shouldStop(0))) {
                 // 60% nearest neighbor
                 NearestNeighborSolver nn = new NearestNeighborSolver();
                 base = nn.generateRoutes(inst, capacity);
@@ -165,36 +227,30 @@ public class GeneticAlgorithmSolver {
             
             pop.add(new ArrayList<>(base));
         }
+
+        // Warm start: replace one member with the portfolio's current best
+        ArrayList<Route> warm = ctx.incumbent() != null ? ctx.incumbent().snapshot() : null;
+        if (warm != null && !pop.isEmpty()) {
+            pop.set(pop.size() - 1, warm);
+        }
         return pop;
     }
 
-    private double fitness(List<Route> sol) {
+    // Package-private, like crossover and mutate, for the JMH benchmarks
+    double fitness(List<Route> sol) {
         // Check cache first to avoid recalculation
         Integer solHash = calculateRouteListHashCode(sol);
         if (fitnessCache.containsKey(solHash)) {
+            if (metrics != null) metrics.cache(true);
             return fitnessCache.get(solHash);
         }
         
-        double dist = 0;
-        double penalty = 0;
-
-        for (Route r : sol) {
-            dist += r.calculateTotalDistance(inst.depot);
-            r.updateArrivals(inst.depot);
-            for (int i = 0; i < r.customers.size(); i++) {
-                Node n = r.customers.get(i);
-                int arrival = r.arrival.get(i);
-                if (arrival > n.due) {
-                    // Weighted penalty based on how late the arrival is
-                    penalty += 1000 + 10 * (arrival - n.due);  
-                } else if (arrival < n.ready - 2) {
-                    // Weighted penalty based on how early the arrival is
-                    penalty += 1000 + 10 * (n.ready - arrival);  
-                }
-            }
+        evaluations++;
+        if (metrics != null) {
+            metrics.cache(false);
+            metrics.evaluations(1);
         }
-        
-        double result = dist + penalty;
+        double result = SolutionEvaluator.cost(sol, inst, inst.depot);
         fitnessCache.put(solHash, result);
         return result;
     }
@@ -217,7 +273,7 @@ public class GeneticAlgorithmSolver {
         return best;
     }
 
-    private List<Route> crossover(List<Route> p1, List<Route> p2) {
+    List<Route> crossover(List<Route> p1, List<Route> p2) {
         // Choose crossover strategy randomly
         int strategy = rnd.nextInt(2);
         
@@ -318,7 +374,7 @@ public class GeneticAlgorithmSolver {
         return ensureAllCustomersInSolution(child);
     }
 
-    private void mutate(List<Route> sol, double adaptiveMutationRate) {
+    void mutate(List<Route> sol, double adaptiveMutationRate) {
         for (Route r : sol) {
             if (r.customers.size() >= 2 && rnd.nextDouble() < adaptiveMutationRate) {
                 // Choose mutation strategy
@@ -362,7 +418,7 @@ public class GeneticAlgorithmSolver {
                             int scrambleLength = 2 + rnd.nextInt(r.customers.size() - scrambleStart - 1);
                             int scrambleEnd = Math.min(scrambleStart + scrambleLength, r.customers.size());
                             List<Node> subList = r.customers.subList(scrambleStart, scrambleEnd);
-                            Collections.shuffle(subList);
+                            Collections.shuffle(subList, rnd);
                         }
                         break;
                 }
@@ -414,7 +470,7 @@ public class GeneticAlgorithmSolver {
         return Math.max(0.01, Math.min(0.25, mutationRate * (1.0 - 0.5 * normalizedDiversity)));
     }
     
-    // Local search optimization with 2-opt
+    // Local search optimization with 2-opt and pairwise swaps
     private void localSearch(List<Route> solution) {
         boolean improved = true;
         int iterations = 0;
@@ -423,7 +479,27 @@ public class GeneticAlgorithmSolver {
             improved = false;
             double currentFitness = fitness(solution);
             
-            // Try 2-opt on each route
+            // 2-opt: only reversals that shorten the route (directional O(1) delta) are fully evaluated
+            for (Route r : solution) {
+                for (int i = 0; i < r.customers.size() - 1 && !improved; i++) {
+                    for (int j = i + 1; j < r.customers.size() && !improved; j++) {
+                        if (r.reversalDelta(inst, i, j) > -1e-9) continue;
+                        Collections.reverse(r.customers.subList(i, j + 1));
+
+                        double newFitness = fitness(solution);
+                        if (reverseOp != null) reverseOp.attempt();
+                        if (newFitness < currentFitness) {
+                            currentFitness = newFitness;
+                            improved = true;
+                            if (reverseOp != null) { reverseOp.success(); reverseOp.improvement(); }
+                        } else {
+                            Collections.reverse(r.customers.subList(i, j + 1));
+                        }
+                    }
+                }
+            }
+
+            // Try swapping customer pairs on each route
             for (Route r : solution) {
                 if (r.customers.size() < 3) continue;
                 
@@ -434,9 +510,11 @@ public class GeneticAlgorithmSolver {
                         
                         // Check if it improves
                         double newFitness = fitness(solution);
+                        if (swapOp != null) swapOp.attempt();
                         if (newFitness < currentFitness) {
                             currentFitness = newFitness;
                             improved = true;
+                            if (swapOp != null) { swapOp.success(); swapOp.improvement(); }
                         } else {
                             // Revert the swap
                             Collections.swap(r.customers, i, j);
@@ -453,7 +531,7 @@ public class GeneticAlgorithmSolver {
     private ArrayList<Route> generateGreedySolution() {
         ArrayList<Route> routes = new ArrayList<>();
         List<Node> unassigned = new ArrayList<>(inst.customers);
-        Collections.shuffle(unassigned);
+        Collections.shuffle(unassigned, rnd);
         
         while (!unassigned.isEmpty()) {
             Route r = new Route();
@@ -480,11 +558,11 @@ public class GeneticAlgorithmSolver {
                     for (int pos = 0; pos <= r.customers.size(); pos++) {
                         // Insert temporarily
                         r.customers.add(pos, n);
-                        double newDist = r.calculateTotalDistance(inst.depot);
+                        double newDist = r.calculateTotalDistance(inst);
                         r.customers.remove(pos); // Remove for now
                         
                         // Calculate the insertion cost
-                        double increase = newDist - r.calculateTotalDistance(inst.depot);
+                        double increase = newDist - r.calculateTotalDistance(inst);
                         
                         if (increase < bestIncrease) {
                             bestIncrease = increase;
@@ -579,7 +657,7 @@ public class GeneticAlgorithmSolver {
     private double calculateTotalDistance(List<Route> solution) {
         double totalDistance = 0;
         for (Route r : solution) {
-            totalDistance += r.calculateTotalDistance(inst.depot);
+            totalDistance += r.calculateTotalDistance(inst);
         }
         return totalDistance;
     }
@@ -0,0 +1,67 @@
+package core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent histogram of non-negative longs (e.g. nanoseconds) in the HdrHistogram layout:
+ * 32 linear sub-buckets per power of two, so any value is recorded to within about 3% over
+ * the whole {@code long} range in a fixed 15 KB of counters. Recording is lock-free and
+ * allocation-free; queries read the live counters and are approximate while writers run.
+ */
+public final class Histogram {
+
+    private static final int SUB_BITS = 5, SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = SUB + (63 - SUB_BITS) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder(), sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long v) {
+        if (v < 0) v = 0;
+        counts.incrementAndGet(index(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public long count()  { return count.sum(); }
+    public long max()    { return max.get(); }
+    public double mean() { long n = count.sum(); return n == 0 ? 0 : (double) sum.sum() / n; }
+
+    /** Smallest recorded value (to bucket precision) that {@code p} (0–1) of the samples do not exceed; 0 when empty. */
+    public long percentile(double p) {
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += counts.get(i);
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, p)) * n)), seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(highest(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /* ---------- bucket layout ---------- */
+    static int index(long v) {
+        if (v < SUB) return (int) v;
+        int e = 63 - Long.numberOfLeadingZeros(v);                   // ≥ SUB_BITS
+        return SUB + (e - SUB_BITS) * SUB + (int) ((v >>> (e - SUB_BITS)) & (SUB - 1));
+    }
+
+    /** Largest value that falls into bucket {@code i}. */
+    static long highest(int i) {
+        if (i < SUB) return i;
+        int shift = (i - SUB) / SUB, m = (i - SUB) % SUB;
+        return ((long) (SUB + m) << shift) + (1L << shift) - 1;
+    }
+}
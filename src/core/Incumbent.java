@@ -0,0 +1,80 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Best solution shared by concurrently running solvers.
+ * Every offer is re-scored with {@link #score} so engines with different
+ * internal fitness functions compete on the same scale. Offers are ranked first by
+ * {@link #defects} (capacity excess, customers missing or visited twice), so a partial or
+ * overloaded plan only holds the incumbent until a complete one arrives.
+ */
+public class Incumbent {
+
+    private final VRPInstance inst;
+
+    private ArrayList<Route> best;
+    private double bestCost = Double.POSITIVE_INFINITY;
+    private int bestDefects = Integer.MAX_VALUE;
+    private String source;
+
+    public Incumbent(VRPInstance inst) { this.inst = inst; }
+
+    /** {@link SolutionEvaluator.Evaluation#cost()}: distance plus 1000 per late customer and 10 per minute late. */
+    public static double score(List<Route> routes, Node depot) {
+        return score(routes, null, depot);
+    }
+
+    /** As {@link #score(List, Node)}, with distances from the instance's store. */
+    public static double score(List<Route> routes, VRPInstance inst) {
+        return score(routes, inst, inst.depot);
+    }
+
+    static double score(List<Route> routes, VRPInstance inst, Node depot) {
+        return SolutionEvaluator.cost(routes, inst, depot);
+    }
+
+    /** Units of capacity excess plus customers missing or visited twice; 0 for a complete plan. */
+    static int defects(SolutionEvaluator.Evaluation e) {
+        return e.capacityExcess + e.missing + e.duplicates;
+    }
+
+    /** Records {@code routes} if it beats the current best (fewer defects, then lower score); returns true when it did. */
+    public boolean offer(List<Route> routes, String from) {
+        if (routes == null || routes.isEmpty()) return false;
+        SolutionEvaluator.Evaluation e = SolutionEvaluator.evaluate(routes, inst);
+        double cost = e.cost();
+        int defects = defects(e);
+        synchronized (this) {
+            if (defects > bestDefects || (defects == bestDefects && cost >= bestCost)) return false;
+            best        = copy(routes);
+            bestCost    = cost;
+            bestDefects = defects;
+            source      = from;
+            return true;
+        }
+    }
+
+    /** Deep copy of the current best, or null before the first offer. */
+    public synchronized ArrayList<Route> snapshot() {
+        return best == null ? null : copy(best);
+    }
+
+    public synchronized double cost()   { return bestCost; }
+    /** False while the best plan overloads a vehicle or misses or repeats a customer (or before the first offer). */
+    public synchronized boolean complete() { return bestDefects == 0; }
+    public synchronized String source() { return source; }
+
+    static ArrayList<Route> copy(List<Route> routes) {
+        ArrayList<Route> out = new ArrayList<>(routes.size());
+        for (Route r : routes) {
+            Route nr = new Route();
+            nr.capacity  = r.capacity;
+            nr.load      = r.load;
+            nr.customers = new ArrayList<>(r.customers);
+            out.add(nr);
+        }
+        return out;
+    }
+}
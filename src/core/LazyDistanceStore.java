@@ -0,0 +1,24 @@
+package core;
+
+/**
+ * Computes Euclidean distances from the coordinate arrays on every lookup. Holds no
+ * matrix at all; for very large instances a square root is cheaper than the cache miss
+ * a multi-gigabyte matrix would cost anyway.
+ */
+public final class LazyDistanceStore implements DistanceStore {
+
+    private final int[] x, y;
+    private final int n;
+
+    public LazyDistanceStore(int[] x, int[] y, int n) {
+        this.x = x;
+        this.y = y;
+        this.n = n;
+    }
+
+    @Override public int size() { return n; }
+
+    @Override public double get(int from, int to) { return DistanceStores.euclid(x, y, from, to); }
+
+    @Override public long footprintBytes() { return 0; }
+}
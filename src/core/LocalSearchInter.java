@@ -2,12 +2,43 @@ package core;
 
 import java.util.ArrayList;
 
-public class LocalSearchInter {
+public class LocalSearchInter implements Solver {
+
+    @Override public String name() { return Algorithms.LOCAL_SEARCH_INTER; }
+
+    /** Improves {@code ctx.initial()} or, without a warm start, a nearest-neighbour plan. */
+    @Override
+    public ArrayList<Route> solve(VRPInstance inst, int capacity, SolverContext ctx) {
+        ArrayList<Route> routes = ctx.initialCopy();
+        if (routes == null) routes = new NearestNeighborSolver().generateRoutes(inst, capacity);
+        improveRoutes(routes, inst, ctx);
+        return routes;
+    }
+
     public void improveRoutes(ArrayList<Route> routes, Node depot) {
+        improveRoutes(routes, depot, new SolverContext());
+    }
+
+    public void improveRoutes(ArrayList<Route> routes, Node depot, SolverContext ctx) {
+        improve(routes, null, depot, ctx);
+    }
+
+    /** Same search, with distances from the instance's {@link DistanceStore}. */
+    public void improveRoutes(ArrayList<Route> routes, VRPInstance inst, SolverContext ctx) {
+        improve(routes, inst, inst.depot, ctx);
+    }
+
+    private void improve(ArrayList<Route> routes, VRPInstance inst, Node depot, SolverContext ctx) {
         boolean improvement = true;
+        long pass = 0, evals = 0;
+        TimeWindowCompatibility tw = inst != null ? inst.compatibility() : null;
+        SolverMetrics.Run metrics = SolverMetrics.start(name());
+        SolverMetrics.Operator relocate = metrics == null ? null : metrics.operator("relocate");
+        long counted = 0, feasible = 0, moved = 0;          // per pass, for the metrics
 
-        while (improvement) {
+        while (improvement && !ctx.shouldStop(pass)) {
             improvement = false;
+            pass++;
 
             for (int i = 0; i < routes.size(); i++) {
                 Route from = routes.get(i);
@@ -22,6 +53,11 @@ public class LocalSearchInter {
                         if (!to.canAdd(customer)) continue;
 
                         for (int l = 0; l <= to.customers.size(); l++) {
+                            if (tw != null) {   // arcs that can never be on time: skip without evaluating
+                                Node pred = l > 0 ? to.customers.get(l - 1) : depot;
+                                Node succ = l < to.customers.size() ? to.customers.get(l) : depot;
+                                if (!tw.compatible(pred, customer) || !tw.compatible(customer, succ)) continue;
+                            }
                             // Simulate move
                             from.customers.remove(j);
                             from.load -= customer.demand;
@@ -31,21 +67,24 @@ public class LocalSearchInter {
 
                             boolean twOk = true;
                             for (Node c : to.customers) {
-                                if (!to.canAddTW(depot, c)) {
+                                if (!to.canAddTW(inst, depot, c)) {
                                     twOk = false;
                                     break;
                                 }
                             }
 
-                            double before = from.calculateTotalDistance(depot) + to.calculateTotalDistance(depot);
+                            evals++;
+                            double before = from.calculateTotalDistance(inst, depot) + to.calculateTotalDistance(inst, depot);
                             double after = before;
 
                             if (twOk) {
-                                after = from.calculateTotalDistance(depot) + to.calculateTotalDistance(depot);
+                                feasible++;
+                                after = from.calculateTotalDistance(inst, depot) + to.calculateTotalDistance(inst, depot);
                             }
 
                             if (twOk && after < before) {
                                 improvement = true;
+                                moved++;
                                 break;
                             } else {
                                 // Rollback
@@ -61,6 +100,21 @@ public class LocalSearchInter {
                 }
                 if (improvement) break;
             }
+            if (ctx.hasListeners() || metrics != null) {
+                double cost = Incumbent.score(routes, inst, depot);
+                ctx.progress(name(), pass, cost, evals);
+                if (metrics != null) {
+                    relocate.attempts(evals - counted);
+                    relocate.successes(feasible);
+                    relocate.improvements(moved);
+                    metrics.evaluations(evals - counted);
+                    metrics.best(cost);
+                    metrics.iteration();
+                    counted = evals; feasible = moved = 0;
+                }
+            }
+            if (ctx.wantsSnapshot()) ctx.publish(routes, name());
         }
+        if (metrics != null) metrics.end();
     }
 }
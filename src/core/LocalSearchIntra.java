@@ -2,46 +2,70 @@ package core;
 
 import java.util.ArrayList;
 
-public class LocalSearchIntra {
+public class LocalSearchIntra implements Solver {
+
+    @Override public String name() { return Algorithms.LOCAL_SEARCH_INTRA; }
+
+    /** Improves {@code ctx.initial()} or, without a warm start, a nearest-neighbour plan. */
+    @Override
+    public ArrayList<Route> solve(VRPInstance inst, int capacity, SolverContext ctx) {
+        ArrayList<Route> routes = ctx.initialCopy();
+        if (routes == null) routes = new NearestNeighborSolver().generateRoutes(inst, capacity);
+        improveRoutes(routes, inst, ctx);
+        return routes;
+    }
+
     public void improveRoutes(ArrayList<Route> routes, Node depot) {
+        improveRoutes(routes, depot, new SolverContext());
+    }
+
+    public void improveRoutes(ArrayList<Route> routes, Node depot, SolverContext ctx) {
+        improve(routes, null, depot, ctx);
+    }
+
+    /** Same search, with distances from the instance's {@link DistanceStore}. */
+    public void improveRoutes(ArrayList<Route> routes, VRPInstance inst, SolverContext ctx) {
+        improve(routes, inst, inst.depot, ctx);
+    }
+
+    private void improve(ArrayList<Route> routes, VRPInstance inst, Node depot, SolverContext ctx) {
         boolean improvement = true;
+        long pass = 0, evals = 0;
+        TimeWindowCompatibility tw = inst != null ? inst.compatibility() : null;
+        SolverMetrics.Run metrics = SolverMetrics.start(name());
+        SolverMetrics.Operator relocate = metrics == null ? null : metrics.operator("relocate");
+        long counted = 0, feasible = 0, moved = 0;          // per pass, for the metrics
 
-        while (improvement) {
+        while (improvement && !ctx.shouldStop(pass)) {
             improvement = false;
+            pass++;
 
             for (Route route : routes) {
                 double bestDelta = 0;
                 int bestFrom = -1;
                 int bestTo = -1;
+                double origDist = route.calculateTotalDistance(inst, depot);
 
                 for (int i = 0; i < route.customers.size(); i++) {
                     for (int j = 0; j < route.customers.size(); j++) {
                         if (i == j) continue;
+                        if (tw != null && !relocatable(tw, route.customers, depot, i, j)) continue;
 
                         Node n = route.customers.get(i);
                         route.customers.remove(i);
                         route.customers.add(j, n);
 
-                        route.updateArrivals(depot);
-                        boolean twOk = true;
-                        for (int k = 0; k < route.customers.size(); k++) {
-                            Node node = route.customers.get(k);
-                            int arrival = route.arrival.get(k);
-                            if (arrival > node.due || arrival < node.ready - 2) {
-                                twOk = false;
-                                break;
-                            }
-                        }
-
-                        double dist = route.calculateTotalDistance(depot);
+                        // Distance and time windows in one pass
+                        SolutionEvaluator.Evaluation e = SolutionEvaluator.route(route, inst, depot);
+                        evals++;
 
                         // Undo move
                         route.customers.remove(j);
                         route.customers.add(i, n);
 
-                        if (twOk) {
-                            double origDist = route.calculateTotalDistance(depot);
-                            double delta = origDist - dist;
+                        if (e.lateCustomers == 0) {
+                            feasible++;
+                            double delta = origDist - e.distance;
 
                             if (delta > bestDelta) {
                                 bestDelta = delta;
@@ -56,13 +80,44 @@ public class LocalSearchIntra {
                     Node n = route.customers.remove(bestFrom);
                     route.customers.add(bestTo, n);
                     improvement = true;
+                    moved++;
                 }
             }
+            if (ctx.hasListeners() || metrics != null) {
+                double cost = Incumbent.score(routes, inst, depot);
+                ctx.progress(name(), pass, cost, evals);
+                if (metrics != null) {
+                    relocate.attempts(evals - counted);
+                    relocate.successes(feasible);
+                    relocate.improvements(moved);
+                    metrics.evaluations(evals - counted);
+                    metrics.best(cost);
+                    metrics.iteration();
+                    counted = evals; feasible = moved = 0;
+                }
+            }
+            if (ctx.wantsSnapshot()) ctx.publish(routes, name());
         }
 
+        if (metrics != null) metrics.end();
+
         // Final update of arrival times to support visualisation
         for (Route route : routes) {
-            route.updateArrivals(depot);
+            route.updateArrivals(inst, depot);
         }
     }
+
+    /**
+     * False when moving stop {@code i} to index {@code j} creates an arc that can never meet its
+     * time window, i.e. the move is certainly infeasible.
+     */
+    private static boolean relocatable(TimeWindowCompatibility tw, ArrayList<Node> c, Node depot, int i, int j) {
+        int last = c.size() - 1;
+        Node n    = c.get(i);
+        Node gapA = i > 0 ? c.get(i - 1) : depot, gapB = i < last ? c.get(i + 1) : depot;
+        Node pred, succ;
+        if (j < i) { pred = j > 0 ? c.get(j - 1) : depot; succ = c.get(j); }
+        else       { pred = c.get(j);                    succ = j < last ? c.get(j + 1) : depot; }
+        return tw.compatible(gapA, gapB) && tw.compatible(pred, n) && tw.compatible(n, succ);
+    }
 }
@@ -0,0 +1,195 @@
+package core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Imports precomputed (road-network) distance or travel-time matrices, possibly asymmetric.
+ * <pre>
+ * CSV, dense   : one row per origin node, n values separated by ',' ';' or blanks
+ * CSV, triples : header line starting with "from", then  from,to,value  per line (missing pairs = 0)
+ * binary .vrpm : "VRPM" version n flags pad  double scale  entries   (flags as in {@link SnapshotIO})
+ * </pre>
+ * Text is streamed in 1 MB blocks straight into a {@link PackedDistanceStore}, so a matrix far
+ * larger than the heap can be converted once and then opened instantly from its binary form.
+ * Node IDs follow the instance (0 = depot); lines starting with a letter or '#' are skipped.
+ */
+public final class MatrixImporter {
+
+    public static final int MATRIX_MAGIC = 0x4D505256;   // "VRPM" little-endian
+    public static final int VERSION = 1;
+
+    private static final int HEADER = 16;
+    private static final int FLAG_TRIANGLE = 2;
+    private static final int ENCODING_SHIFT = 2;
+
+    /**
+     * Attaches imported matrices to {@code inst} and marks it asymmetric. {@code durations} may be
+     * null, in which case travel times equal distances.
+     */
+    public static void attach(VRPInstance inst, Path distances, Path durations,
+                              PackedDistanceStore.Encoding encoding) throws IOException {
+        int n = inst.size();
+        DistanceStore d = read(distances, n, encoding);
+        DistanceStore t = durations == null ? null : read(durations, n, encoding);
+        inst.distances = d;
+        inst.durations = t;
+        inst.symmetric = false;
+    }
+
+    /** Reads a binary matrix (by magic number) or a CSV file with {@code n} nodes. */
+    public static PackedDistanceStore read(Path file, int n, PackedDistanceStore.Encoding encoding) throws IOException {
+        PackedDistanceStore s;
+        if (isBinary(file)) s = readBinary(file);
+        else                s = readCsv(file, n, encoding);
+        if (s.size() != n)
+            throw new IOException(file + " holds " + s.size() + " nodes, instance has " + n);
+        return s;
+    }
+
+    /* ---------- CSV ---------- */
+    public static PackedDistanceStore readCsv(Path file, int n, PackedDistanceStore.Encoding encoding) throws IOException {
+        double max = 0;
+        if (encoding == PackedDistanceStore.Encoding.FIXED16) {
+            double[] m = new double[1];
+            parseCsv(file, n, (i, j, v) -> { if (v > m[0]) m[0] = v; });   // first pass: range only
+            max = m[0];
+        }
+        PackedDistanceStore s = PackedDistanceStore.allocate(n, PackedDistanceStore.Layout.FULL, encoding, max);
+        parseCsv(file, n, s::set);
+        return s;
+    }
+
+    private interface Sink {
+        void accept(int from, int to, double value);
+    }
+
+    private static void parseCsv(Path file, int n, Sink sink) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+            boolean triples = false, headerSeen = false;
+            int row = 0, lineNo = 0;
+            double[] vals = new double[3];
+            int col = 0;
+            boolean lineStart = true, skipLine = false;
+
+            /* number being scanned */
+            boolean inNum = false, neg = false, frac = false, exp = false, expNeg = false;
+            long mant = 0; int scale = 0, expVal = 0;
+
+            boolean eof = false;
+            while (!eof) {
+                buf.clear();
+                eof = ch.read(buf) < 0;
+                buf.flip();
+                int limit = eof ? buf.limit() + 1 : buf.limit();   // one virtual '\n' at EOF
+                for (int p = 0; p < limit; p++) {
+                    byte c = p < buf.limit() ? buf.get(p) : (byte) '\n';
+
+                    if (lineStart && c != '\n' && c != ' ' && c != '\t' && c != '\r') {
+                        lineStart = false;
+                        if (c == '#' || Character.isLetter(c)) {
+                            skipLine = true;
+                            if (!headerSeen && row == 0 && Character.toLowerCase(c) == 'f') triples = true;
+                            headerSeen = true;
+                        }
+                    }
+                    if (skipLine && c != '\n') continue;
+
+                    if ((c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+' || c == 'e' || c == 'E') {
+                        if (!inNum) { inNum = true; neg = false; frac = false; exp = false; expNeg = false; mant = 0; scale = 0; expVal = 0; }
+                        if (c >= '0' && c <= '9') {
+                            if (exp)  expVal = expVal * 10 + (c - '0');
+                            else { mant = mant * 10 + (c - '0'); if (frac) scale++; }
+                        }
+                        else if (c == '.') frac = true;
+                        else if (c == 'e' || c == 'E') exp = true;
+                        else if (c == '-') { if (exp) expNeg = true; else neg = true; }
+                        continue;
+                    }
+
+                    if (inNum) {   // separator ends the number
+                        inNum = false;
+                        double v = mant * Math.pow(10, (expNeg ? -expVal : expVal) - scale);
+                        if (neg) v = -v;
+                        if (triples) {
+                            if (col < 3) vals[col] = v;
+                        } else {
+                            if (col >= n) throw new IOException(file + " line " + (lineNo + 1) + ": more than " + n + " values");
+                            if (row >= n) throw new IOException(file + ": more than " + n + " rows");
+                            sink.accept(row, col, v);
+                        }
+                        col++;
+                    }
+
+                    if (c == '\n') {
+                        lineNo++;
+                        if (!skipLine && col > 0) {
+                            if (triples) {
+                                if (col < 3) throw new IOException(file + " line " + lineNo + ": expected from,to,value");
+                                int i = (int) vals[0], j = (int) vals[1];
+                                if (i < 0 || j < 0 || i >= n || j >= n)
+                                    throw new IOException(file + " line " + lineNo + ": node out of range 0.." + (n - 1));
+                                sink.accept(i, j, vals[2]);
+                            } else {
+                                if (col != n) throw new IOException(file + " line " + lineNo + ": expected " + n + " values, found " + col);
+                                row++;
+                            }
+                        }
+                        col = 0;
+                        lineStart = true;
+                        skipLine = false;
+                    }
+                }
+            }
+            if (!triples && row != n) throw new IOException(file + ": expected " + n + " rows, found " + row);
+        }
+    }
+
+    /* ---------- binary ---------- */
+    /** Converts any store to the binary form (full layout, so direction is preserved). */
+    public static void writeBinary(Path file, DistanceStore d, PackedDistanceStore.Encoding encoding) throws IOException {
+        ByteBuffer head = SnapshotIO.le(ByteBuffer.allocate(HEADER));
+        head.putInt(MATRIX_MAGIC).putInt(VERSION).putInt(d.size()).putInt(encoding.ordinal() << ENCODING_SHIFT);
+        head.flip();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            SnapshotIO.writeFully(ch, head);
+            SnapshotIO.writeMatrix(ch, d, d.size(), PackedDistanceStore.Layout.FULL, encoding);
+        }
+    }
+
+    /** Maps a .vrpm file; nothing is read until entries are looked up. */
+    public static PackedDistanceStore readBinary(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = SnapshotIO.le(ByteBuffer.allocate(HEADER));
+            while (head.hasRemaining()) if (ch.read(head) < 0) throw new IOException("Truncated matrix file: " + file);
+            head.flip();
+            if (head.getInt() != MATRIX_MAGIC) throw new IOException("Not a VRPM matrix: " + file);
+            int version = head.getInt();
+            if (version != VERSION) throw new IOException("Unsupported matrix version " + version + ": " + file);
+            int n = head.getInt(), flags = head.getInt();
+
+            PackedDistanceStore.Layout layout = (flags & FLAG_TRIANGLE) != 0
+                    ? PackedDistanceStore.Layout.UPPER_TRIANGLE : PackedDistanceStore.Layout.FULL;
+            PackedDistanceStore.Encoding encoding =
+                    PackedDistanceStore.Encoding.values()[(flags >>> ENCODING_SHIFT) & 3];
+            double scale = SnapshotIO.readDouble(ch, HEADER);
+            return PackedDistanceStore.map(ch, HEADER + 8, n, layout, encoding, scale, FileChannel.MapMode.READ_ONLY);
+        }
+    }
+
+    private static boolean isBinary(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER) return false;
+            ByteBuffer b = SnapshotIO.le(ByteBuffer.allocate(4));
+            while (b.hasRemaining()) if (ch.read(b) < 0) return false;
+            return b.getInt(0) == MATRIX_MAGIC;
+        }
+    }
+
+    private MatrixImporter() {}  // utility
+}
@@ -3,9 +3,27 @@ package core;
 import java.util.*;
 
 /** Greedy solver that respects capacity *and* time windows (with 1-min tolerance). */
-public class NearestNeighborSolver {
+public class NearestNeighborSolver implements Solver {
 
-    private static final double EPS = 1.0;   // 1-minute slack
+    @Override public String name() { return Algorithms.NEAREST_NEIGHBOR; }
+
+    /** Construction is a single pass, so the only budget honoured is cancellation before it starts. */
+    @Override
+    public ArrayList<Route> solve(VRPInstance inst, int capacity, SolverContext ctx) {
+        SolverMetrics.Run metrics = SolverMetrics.start(name());
+        ArrayList<Route> routes = generateRoutes(inst, capacity);
+        if (ctx.hasListeners() || metrics != null) {
+            double cost = Incumbent.score(routes, inst);
+            ctx.progress(name(), 1, cost, inst.customers.size());
+            if (metrics != null) {
+                metrics.best(cost);
+                metrics.iteration();
+                metrics.end();
+            }
+        }
+        ctx.publishNow(routes, name());
+        return routes;
+    }
 
     public ArrayList<Route> generateRoutes(VRPInstance inst, int vehicleCapacity) {
         ArrayList<Route> routes = new ArrayList<>();
@@ -24,15 +42,26 @@ public class NearestNeighborSolver {
 
                 for (Node c : inst.customers) {
                     if (visited.contains(c.ID) || !route.canAdd(c)) continue;
-                    if (!canServe(prev, c, time)) continue;
+                    if (!canServe(inst, prev, c, time)) continue;
 
-                    double d = prev.distanceTo(c);
+                    double d = inst.dist(prev, c);
                     if (d < best) { best = d; next = c; }
                 }
+                if (next == null && route.customers.isEmpty()) {
+                    /* nobody is reachable in time even straight from the depot (can happen
+                       with loaded instances): serve the nearest one late rather than loop forever */
+                    for (Node c : inst.customers) {
+                        if (visited.contains(c.ID) || !route.canAdd(c)) continue;
+                        double d = inst.dist(prev, c);
+                        if (d < best) { best = d; next = c; }
+                    }
+                    if (next == null)      // only customers no empty vehicle can carry are left
+                        throw new IllegalArgumentException(unservable(inst, visited, vehicleCapacity));
+                }
                 if (next == null) break;   // no feasible customer left
 
                 /* update clock */
-                double travel = prev.distanceTo(next);
+                double travel = inst.travel(prev, next);
                 double arrive = time + travel;
                 double wait   = Math.max(0, next.ready - arrive);
                 time = arrive + wait + next.service;
@@ -41,16 +70,23 @@ public class NearestNeighborSolver {
                 visited.add(next.ID);
                 prev = next;
             }
-            route.updateArrivals(inst.depot);
+            route.updateArrivals(inst);
             routes.add(route);
         }
         return routes;
     }
 
-    /** Check if arrival would violate due-time */
-    private boolean canServe(Node prev, Node cand, double currentTime) {
-        double travel = prev.distanceTo(cand);
+    private static String unservable(VRPInstance inst, Set<Integer> visited, int capacity) {
+        for (Node c : inst.customers)
+            if (!visited.contains(c.ID))
+                return "Customer " + c.ID + " demands " + c.demand + ", more than the vehicle capacity " + capacity;
+        return "No customer left to serve";
+    }
+
+    /** Check if arrival would violate due-time (beyond the shared {@link SolutionEvaluator#EPS} slack) */
+    private boolean canServe(VRPInstance inst, Node prev, Node cand, double currentTime) {
+        double travel = inst.travel(prev, cand);
         double arrive = currentTime + travel;
-        return arrive <= cand.due + EPS;
+        return !SolutionEvaluator.late(arrive, cand.due);
     }
 }
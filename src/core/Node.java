@@ -1,56 +1,34 @@
 package core;
 
-import java.util.*;
+/** A customer (or the depot) with its demand and time window, in minutes. */
+public class Node {
 
-/** Greedy solver that respects capacity *and* time windows (with 1-min tolerance). */
-public class NearestNeighborSolver {
+    public int ID;
+    public int x, y;
+    public int demand;
 
-    private static final double EPS = 1.0;   // 1-minute slack
+    public int ready;     // earliest service start
+    public int due;       // latest service start
+    public int service;   // service duration
 
-    public ArrayList<Route> generateRoutes(VRPInstance inst, int vehicleCapacity) {
-        ArrayList<Route> routes = new ArrayList<>();
-        Set<Integer> visited = new HashSet<>();
-
-        while (visited.size() < inst.customers.size()) {
-            Route route = new Route();
-            route.capacity = vehicleCapacity;
-
-            Node prev = inst.depot;
-            double time = 0;
-
-            while (true) {
-                Node next = null;
-                double best = Double.MAX_VALUE;
-
-                for (Node c : inst.customers) {
-                    if (visited.contains(c.ID) || !route.canAdd(c)) continue;
-                    if (!canServe(prev, c, time)) continue;
-
-                    double d = prev.distanceTo(c);
-                    if (d < best) { best = d; next = c; }
-                }
-                if (next == null) break;   // no feasible customer left
-
-                /* update clock */
-                double travel = prev.distanceTo(next);
-                double arrive = time + travel;
-                double wait   = Math.max(0, next.ready - arrive);
-                time = arrive + wait + next.service;
+    /** A node without a time window, e.g. the depot of a generated instance. */
+    public Node(int ID, int x, int y, int demand) {
+        this(ID, x, y, demand, 0, Integer.MAX_VALUE, 0);
+    }
 
-                route.addCustomer(next);
-                visited.add(next.ID);
-                prev = next;
-            }
-            route.updateArrivals(inst.depot);
-            routes.add(route);
-        }
-        return routes;
+    public Node(int ID, int x, int y, int demand, int ready, int due, int service) {
+        this.ID      = ID;
+        this.x       = x;
+        this.y       = y;
+        this.demand  = demand;
+        this.ready   = ready;
+        this.due     = due;
+        this.service = service;
     }
 
-    /** Check if arrival would violate due-time */
-    private boolean canServe(Node prev, Node cand, double currentTime) {
-        double travel = prev.distanceTo(cand);
-        double arrive = currentTime + travel;
-        return arrive <= cand.due + EPS;
+    /** Euclidean distance, also the travel time at unit speed. */
+    public double distanceTo(Node other) {
+        double dx = x - other.x, dy = y - other.y;
+        return Math.sqrt(dx * dx + dy * dy);
     }
 }
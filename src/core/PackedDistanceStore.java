@@ -0,0 +1,171 @@
+package core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Distances outside the Java heap, in a direct or memory-mapped buffer.
+ *  • Layout: full n×n matrix or packed upper triangle (symmetric instances).
+ *  • Encoding: 8-byte double, 4-byte float, or 2-byte fixed point ({@code value = raw · scale}).
+ * The data is split into 1 GB chunks so matrices beyond the 2 GB {@link ByteBuffer} limit work;
+ * entries never straddle a chunk because the chunk size is a multiple of every encoding width.
+ */
+public final class PackedDistanceStore implements DistanceStore {
+
+    public enum Layout { FULL, UPPER_TRIANGLE }
+
+    public enum Encoding {
+        FLOAT64(8), FLOAT32(4), FIXED16(2);
+        public final int bytes;
+        Encoding(int bytes) { this.bytes = bytes; }
+    }
+
+    private static final int  CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK  = (1L << CHUNK_SHIFT) - 1;
+
+    private final int n;
+    private final Layout layout;
+    private final Encoding encoding;
+    private final double scale;
+    private final ByteBuffer[] chunks;
+    private final long bytes;
+
+    private PackedDistanceStore(int n, Layout layout, Encoding encoding, double scale, ByteBuffer[] chunks) {
+        this.n = n;
+        this.layout = layout;
+        this.encoding = encoding;
+        this.scale = scale;
+        this.chunks = chunks;
+        this.bytes = byteSize(n, layout, encoding);
+    }
+
+    /**
+     * Allocates a zeroed direct store. For {@link Encoding#FIXED16}, {@code maxValue} sets the
+     * resolution (maxValue / 65535); it is ignored by the float encodings.
+     */
+    public static PackedDistanceStore allocate(int n, Layout layout, Encoding encoding, double maxValue) {
+        long total = byteSize(n, layout, encoding);
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(total)];
+        for (int c = 0; c < chunks.length; c++)
+            chunks[c] = ByteBuffer.allocateDirect(chunkLength(total, c)).order(ByteOrder.LITTLE_ENDIAN);
+        return new PackedDistanceStore(n, layout, encoding, scaleFor(encoding, maxValue), chunks);
+    }
+
+    /**
+     * Maps {@code byteSize(n, layout, encoding)} bytes of {@code ch} starting at {@code offset}.
+     * The mapping stays valid after the channel is closed.
+     */
+    public static PackedDistanceStore map(FileChannel ch, long offset, int n, Layout layout,
+                                          Encoding encoding, double scale, FileChannel.MapMode mode)
+            throws IOException {
+        long total = byteSize(n, layout, encoding);
+        if (mode == FileChannel.MapMode.READ_ONLY && ch.size() < offset + total)
+            throw new IOException("Distance section truncated: need " + total + " bytes at " + offset);
+        ByteBuffer[] chunks = new ByteBuffer[chunkCount(total)];
+        for (int c = 0; c < chunks.length; c++)
+            chunks[c] = ch.map(mode, offset + ((long) c << CHUNK_SHIFT), chunkLength(total, c))
+                          .order(ByteOrder.LITTLE_ENDIAN);
+        return new PackedDistanceStore(n, layout, encoding, encoding == Encoding.FIXED16 ? scale : 1, chunks);
+    }
+
+    /** Euclidean distances from the coordinate arrays into a new direct store. */
+    public static PackedDistanceStore euclidean(int[] x, int[] y, int n, Layout layout, Encoding encoding) {
+        double max = 0;
+        if (encoding == Encoding.FIXED16) {
+            int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                minX = Math.min(minX, x[i]); maxX = Math.max(maxX, x[i]);
+                minY = Math.min(minY, y[i]); maxY = Math.max(maxY, y[i]);
+            }
+            max = Math.hypot((double) maxX - minX, (double) maxY - minY);   // bounding-box diagonal
+        }
+        PackedDistanceStore s = allocate(n, layout, encoding, max);
+        s.fill((i, j) -> DistanceStores.euclid(x, y, i, j));
+        return s;
+    }
+
+    /** Writes every stored entry from {@code f} (only i &lt; j for the triangle). */
+    public void fill(DistanceFunction f) {
+        for (int i = 0; i < n; i++)
+            for (int j = layout == Layout.FULL ? 0 : i + 1; j < n; j++)
+                set(i, j, f.distance(i, j));
+    }
+
+    /** Sets d(i, j); with the triangle layout this also sets d(j, i). The diagonal is ignored there. */
+    public void set(int i, int j, double v) {
+        long idx = index(i, j);
+        if (idx < 0) return;
+        long off = idx * encoding.bytes;
+        ByteBuffer b = chunks[(int) (off >>> CHUNK_SHIFT)];
+        int p = (int) (off & CHUNK_MASK);
+        switch (encoding) {
+            case FLOAT64: b.putDouble(p, v); break;
+            case FLOAT32: b.putFloat(p, (float) v); break;
+            default:
+                long raw = Math.round(v / scale);
+                b.putShort(p, (short) Math.max(0, Math.min(0xFFFF, raw)));
+        }
+    }
+
+    @Override
+    public double get(int from, int to) {
+        long idx = index(from, to);
+        if (idx < 0) return 0;
+        long off = idx * encoding.bytes;
+        ByteBuffer b = chunks[(int) (off >>> CHUNK_SHIFT)];
+        int p = (int) (off & CHUNK_MASK);
+        switch (encoding) {
+            case FLOAT64: return b.getDouble(p);
+            case FLOAT32: return b.getFloat(p);
+            default:      return (b.getShort(p) & 0xFFFF) * scale;
+        }
+    }
+
+    @Override public int size() { return n; }
+
+    @Override public long footprintBytes() { return bytes; }
+
+    public Layout layout()     { return layout; }
+    public Encoding encoding() { return encoding; }
+    /** Distance represented by one fixed-point unit (1 for the float encodings). */
+    public double scale()      { return scale; }
+
+    /** Copies the raw store into {@code ch} at its current position, chunk by chunk. */
+    public void writeTo(FileChannel ch) throws IOException {
+        for (ByteBuffer c : chunks) {
+            ByteBuffer dup = c.duplicate();
+            dup.clear();
+            while (dup.hasRemaining()) ch.write(dup);
+        }
+    }
+
+    /* ---------- layout arithmetic ---------- */
+    public static long byteSize(int n, Layout layout, Encoding encoding) {
+        long entries = layout == Layout.FULL ? (long) n * n : DistanceStores.triangleLength(n);
+        return entries * encoding.bytes;
+    }
+
+    private long index(int i, int j) {
+        if (layout == Layout.FULL) return (long) i * n + j;
+        return i == j ? -1 : DistanceStores.triangleIndex(n, i, j);
+    }
+
+    private static double scaleFor(Encoding e, double maxValue) {
+        return e == Encoding.FIXED16 ? Math.max(maxValue, 1e-9) / 0xFFFF : 1;
+    }
+
+    private static int chunkCount(long total) {
+        return (int) Math.max(1, (total + CHUNK_MASK) >>> CHUNK_SHIFT);
+    }
+
+    private static int chunkLength(long total, int c) {
+        return (int) Math.min(1L << CHUNK_SHIFT, total - ((long) c << CHUNK_SHIFT));
+    }
+
+    /** Source of pairwise distances for {@link #fill}. */
+    public interface DistanceFunction {
+        double distance(int i, int j);
+    }
+}
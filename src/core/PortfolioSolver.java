@@ -0,0 +1,86 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Races several {@link Solver}s against one wall-clock deadline, one thread per engine so
+ * they really run side by side even on small hosts.
+ *  • All engines share an {@link Incumbent}; engines that support warm starts read it.
+ *  • Each engine draws from its own random stream ({@link SolverContext#sibling}).
+ *  • Whatever the incumbent holds at the deadline (or when all engines finish) wins.
+ */
+public class PortfolioSolver implements Solver {
+
+    private final long budgetMs;
+    private final List<Solver> engines = new ArrayList<>();
+
+    /** Portfolio of NN+intra, NN+inter, GA, SA and tabu search. */
+    public PortfolioSolver(long budgetMs) {
+        this.budgetMs = budgetMs;
+        engines.add(new LocalSearchIntra());
+        engines.add(new LocalSearchInter());
+        engines.add(new GeneticAlgorithmSolver(50, 200, 0.05));
+        engines.add(new SimulatedAnnealingSolver(1000, 1, 10_000));
+        engines.add(new TabuSearchSolver(2_000, 500));
+    }
+
+    public PortfolioSolver addEngine(Solver s) {
+        engines.add(s);
+        return this;
+    }
+
+    @Override public String name() { return Algorithms.PORTFOLIO; }
+
+    /** Runs until the earlier of the context deadline and the portfolio budget, or cancellation. */
+    @Override
+    public ArrayList<Route> solve(VRPInstance inst, int capacity, SolverContext ctx) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        if (ctx.hasDeadline() && ctx.deadline() - deadline < 0) deadline = ctx.deadline();
+
+        Incumbent incumbent = new Incumbent(inst);
+        SolverContext shared = ctx.fork().deadline(deadline).incumbent(incumbent);
+
+        ExecutorService pool = Executors.newFixedThreadPool(engines.size(), r -> {
+            Thread t = new Thread(r, "portfolio-engine");
+            t.setDaemon(true);                   // stragglers must not keep the JVM alive
+            return t;
+        });
+
+        for (int k = 0; k < engines.size(); k++) {
+            Solver e = engines.get(k);
+            SolverContext own = shared.sibling(k);
+            pool.submit(() -> {
+                try {
+                    incumbent.offer(e.solve(inst, capacity, own), e.name());
+                } catch (RuntimeException ex) {
+                    System.err.println("[Portfolio] " + e.name() + " failed: " + ex);
+                }
+            });
+        }
+        pool.shutdown();
+
+        try {
+            /* never return empty-handed: past the deadline, wait for the first engine to publish */
+            while (!pool.isTerminated()) {
+                if (ctx.cancellation().isCancelled()) shared.cancellation().cancel();
+                boolean expired = System.nanoTime() - deadline >= 0 || shared.cancellation().isCancelled();
+                if (expired && incumbent.cost() < Double.POSITIVE_INFINITY) break;
+                pool.awaitTermination(10, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        shared.cancellation().cancel();
+        pool.shutdownNow();
+
+        System.out.printf("[Portfolio] best %.2f from %s%s%n", incumbent.cost(), incumbent.source(),
+                incumbent.complete() ? "" : " (INCOMPLETE: overloaded or missing customers)");
+        ctx.progress(name(), 1, incumbent.cost(), 0);
+        ArrayList<Route> best = incumbent.snapshot();
+        return best != null ? best : new ArrayList<>();
+    }
+}
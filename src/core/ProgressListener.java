@@ -0,0 +1,37 @@
+package core;
+
+/**
+ * Receives progress from a running solver. Called on the solver's own thread,
+ * so implementations should be quick and thread-safe.
+ */
+public interface ProgressListener {
+
+    /** One progress sample. */
+    final class Progress {
+        public final String solver;
+        public final long   iteration;
+        public final double bestCost;
+        public final long   evaluations;
+        public final long   elapsedMs;
+
+        Progress(String solver, long iteration, double bestCost, long evaluations, long elapsedMs) {
+            this.solver      = solver;
+            this.iteration   = iteration;
+            this.bestCost    = bestCost;
+            this.evaluations = evaluations;
+            this.elapsedMs   = elapsedMs;
+        }
+
+        public double evalsPerSecond() {
+            return elapsedMs == 0 ? 0 : evaluations * 1000.0 / elapsedMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s it=%d best=%.2f evals/s=%.0f t=%dms",
+                    solver, iteration, bestCost, evalsPerSecond(), elapsedMs);
+        }
+    }
+
+    void onProgress(Progress p);
+}
@@ -0,0 +1,109 @@
+package core;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Machine-readable run results (JSON or CSV) for the headless runner and the MRA.
+ * The JSON {@code cost} is the {@link SolutionEvaluator} score; {@code distance} is the plain total.
+ */
+public final class ResultWriter {
+
+    /** Everything a batch run reports besides the routes themselves. */
+    public static final class RunInfo {
+        public String algorithm;
+        public String instance = "synthetic";
+        public int    customers, capacity, seed;
+        public long   instanceMs, solveMs;
+    }
+
+    public static void writeJson(Appendable out, RunInfo info, List<Route> routes, Node depot)
+            throws IOException {
+        writeJson(out, info, routes, null, depot);
+    }
+
+    /** As {@link #writeJson(Appendable, RunInfo, List, Node)}, costing routes with the instance's matrix. */
+    public static void writeJson(Appendable out, RunInfo info, List<Route> routes, VRPInstance inst)
+            throws IOException {
+        writeJson(out, info, routes, inst, inst.depot);
+    }
+
+    private static void writeJson(Appendable out, RunInfo info, List<Route> routes, VRPInstance inst, Node depot)
+            throws IOException {
+        double total = 0;
+        for (Route r : routes) total += r.calculateTotalDistance(inst, depot);
+        double cost = SolutionEvaluator.cost(routes, inst, depot);
+
+        out.append("{\n");
+        out.append("  \"algorithm\": \"").append(escape(info.algorithm)).append("\",\n");
+        out.append("  \"instance\": \"").append(escape(info.instance)).append("\",\n");
+        out.append("  \"customers\": ").append(Integer.toString(info.customers)).append(",\n");
+        out.append("  \"capacity\": ").append(Integer.toString(info.capacity)).append(",\n");
+        out.append("  \"seed\": ").append(Integer.toString(info.seed)).append(",\n");
+        out.append("  \"cost\": ").append(num(cost)).append(",\n");
+        out.append("  \"distance\": ").append(num(total)).append(",\n");
+        out.append("  \"vehicles\": ").append(Integer.toString(routes.size())).append(",\n");
+        out.append("  \"timings\": {\"instanceMs\": ").append(Long.toString(info.instanceMs))
+           .append(", \"solveMs\": ").append(Long.toString(info.solveMs)).append("},\n");
+        out.append("  \"routes\": [");
+        for (int i = 0; i < routes.size(); i++) {
+            Route r = routes.get(i);
+            out.append(i == 0 ? "\n" : ",\n");
+            out.append("    {\"load\": ").append(Integer.toString(r.load))
+               .append(", \"distance\": ").append(num(r.calculateTotalDistance(inst, depot)))
+               .append(", \"stops\": [");
+            for (int k = 0; k < r.customers.size(); k++) {
+                if (k > 0) out.append(", ");
+                out.append(Integer.toString(r.customers.get(k).ID));
+            }
+            out.append("]}");
+        }
+        out.append(routes.isEmpty() ? "]\n" : "\n  ]\n");
+        out.append("}\n");
+    }
+
+    /** One row per route: algorithm,seed,route,load,distance,stops (space-separated IDs). */
+    public static void writeCsv(Appendable out, RunInfo info, List<Route> routes, Node depot)
+            throws IOException {
+        writeCsv(out, info, routes, null, depot);
+    }
+
+    public static void writeCsv(Appendable out, RunInfo info, List<Route> routes, VRPInstance inst)
+            throws IOException {
+        writeCsv(out, info, routes, inst, inst.depot);
+    }
+
+    private static void writeCsv(Appendable out, RunInfo info, List<Route> routes, VRPInstance inst, Node depot)
+            throws IOException {
+        out.append("algorithm,seed,route,load,distance,stops\n");
+        for (int i = 0; i < routes.size(); i++) {
+            Route r = routes.get(i);
+            out.append('"').append(csvEscape(info.algorithm)).append("\",")
+               .append(Integer.toString(info.seed)).append(',')
+               .append(Integer.toString(i + 1)).append(',')
+               .append(Integer.toString(r.load)).append(',')
+               .append(num(r.calculateTotalDistance(inst, depot))).append(',');
+            for (int k = 0; k < r.customers.size(); k++) {
+                if (k > 0) out.append(' ');
+                out.append(Integer.toString(r.customers.get(k).ID));
+            }
+            out.append('\n');
+        }
+    }
+
+    private static String num(double v) {
+        return String.format(Locale.ROOT, "%.3f", v);
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /** RFC 4180: quotes inside a quoted field are doubled. */
+    private static String csvEscape(String s) {
+        return s.replace("\"", "\"\"");
+    }
+
+    private ResultWriter() {}  // utility
+}
@@ -23,16 +23,25 @@ public class Route {
     /* ---------- time-window helpers ---------- */
     /** Quick feasibility check: would appending c violate any TW? */
     public boolean canAddTW(Node depot, Node c) {
+        return canAddTW(null, depot, c);
+    }
+    /** As {@link #canAddTW(Node, Node)}, with the instance's distances and travel times. */
+    public boolean canAddTW(VRPInstance inst, Node c) {
+        return canAddTW(inst, inst.depot, c);
+    }
+
+    /* {@code inst} may be null: Euclidean travel from the nodes themselves */
+    boolean canAddTW(VRPInstance inst, Node depot, Node c) {
         double t = 0; Node prev = depot;
         for (Node n : customers) {
-            t += prev.distanceTo(n);          // travel
+            t += travel(inst, prev, n);       // travel
             t  = Math.max(t, n.ready);        // wait if early
             t += n.service;                  // service
             if (t > n.due) return false;
             prev = n;
         }
         /* append candidate */
-        t += prev.distanceTo(c);
+        t += travel(inst, prev, c);
         t  = Math.max(t, c.ready);
         t += c.service;
         return t <= c.due;
@@ -40,10 +49,17 @@ public class Route {
 
     /** Recomputes arrival[] for visualisation / verification */
     public void updateArrivals(Node depot) {
+        updateArrivals(null, depot);
+    }
+    public void updateArrivals(VRPInstance inst) {
+        updateArrivals(inst, inst.depot);
+    }
+
+    void updateArrivals(VRPInstance inst, Node depot) {
         arrival.clear();
         double t = 0; Node prev = depot;
         for (Node n : customers) {
-            t += prev.distanceTo(n);
+            t += travel(inst, prev, n);
             t  = Math.max(t, n.ready);
             arrival.add((int) t);
             t += n.service;
@@ -53,9 +69,46 @@ public class Route {
 
     /* ---------- distance ---------- */
     public double calculateTotalDistance(Node depot) {
+        return calculateTotalDistance(null, depot);
+    }
+    public double calculateTotalDistance(VRPInstance inst) {
+        return calculateTotalDistance(inst, inst.depot);
+    }
+
+    double calculateTotalDistance(VRPInstance inst, Node depot) {
         double d = 0; Node prev = depot;
-        for (Node n : customers) { d += prev.distanceTo(n); prev = n; }
-        return d + prev.distanceTo(depot);
+        for (Node n : customers) { d += dist(inst, prev, n); prev = n; }
+        return d + dist(inst, prev, depot);
+    }
+
+    /**
+     * Change in distance if {@code customers[i..j]} were reversed (2-opt move inside the route).
+     * O(1) on symmetric instances; on asymmetric ones every reversed arc changes direction,
+     * so the inner arcs are re-summed, O(j − i).
+     */
+    public double reversalDelta(VRPInstance inst, int i, int j) {
+        if (i >= j) return 0;
+        Node before = i == 0 ? inst.depot : customers.get(i - 1);
+        Node after  = j == customers.size() - 1 ? inst.depot : customers.get(j + 1);
+        Node first  = customers.get(i), last = customers.get(j);
+
+        double delta = inst.dist(before, last) + inst.dist(first, after)
+                     - inst.dist(before, first) - inst.dist(last, after);
+        if (!inst.symmetric) {
+            for (int k = i; k < j; k++) {
+                Node a = customers.get(k), b = customers.get(k + 1);
+                delta += inst.dist(b, a) - inst.dist(a, b);
+            }
+        }
+        return delta;
+    }
+
+    /** Store lookup when an instance is given, plain Euclidean otherwise. */
+    private static double dist(VRPInstance inst, Node a, Node b) {
+        return inst != null ? inst.dist(a, b) : a.distanceTo(b);
+    }
+    private static double travel(VRPInstance inst, Node a, Node b) {
+        return inst != null ? inst.travel(a, b) : a.distanceTo(b);
     }
 
     @Override
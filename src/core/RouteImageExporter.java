@@ -0,0 +1,66 @@
+package core;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Route maps as PNG or SVG files without Swing: each image is drawn by its own
+ * {@link RoutePainter} on the calling thread, never on the EDT, so it works with
+ * {@code -Djava.awt.headless=true} and several maps may be written concurrently.
+ */
+public final class RouteImageExporter {
+
+    public enum Format {
+        PNG, SVG;
+
+        /** From a file name's extension; PNG unless it ends in ".svg". */
+        public static Format of(Path file) {
+            return file.getFileName().toString().toLowerCase().endsWith(".svg") ? SVG : PNG;
+        }
+    }
+
+    private static final int MARGIN = 30, CAPTION_LINE = 16;
+    private static final Font CAPTION_FONT = new Font("SansSerif", Font.PLAIN, 13);
+
+    /** A {@code w × h} map of {@code routes}, fitted inside the margins below the caption lines. */
+    public static BufferedImage render(Node depot, List<Route> routes, int w, int h, String... caption) {
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = img.createGraphics();
+        try {
+            painter(depot, routes, w, h, caption).paint(g2, w, h);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setFont(CAPTION_FONT);
+            g2.setColor(Color.BLACK);
+            for (int i = 0; i < caption.length; i++) g2.drawString(caption[i], 10, 18 + CAPTION_LINE * i);
+        } finally {
+            g2.dispose();
+        }
+        return img;
+    }
+
+    /** Writes one map; the format follows the file extension. */
+    public static void write(Path file, Node depot, List<Route> routes, int w, int h, String... caption)
+            throws IOException {
+        if (Format.of(file) == Format.SVG) {
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                painter(depot, routes, w, h, caption).writeSvg(out, w, h, caption);
+            }
+        } else if (!ImageIO.write(render(depot, routes, w, h, caption), "png", file.toFile())) {
+            throw new IOException("No PNG writer available");
+        }
+    }
+
+    private static RoutePainter painter(Node depot, List<Route> routes, int w, int h, String[] caption) {
+        int top = MARGIN + CAPTION_LINE * caption.length;
+        return new RoutePainter(depot, routes, MARGIN, top).fit(Math.max(1, Math.min(w - 2 * MARGIN, h - top - MARGIN)));
+    }
+
+    private RouteImageExporter() {}  // utility
+}
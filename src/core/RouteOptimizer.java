@@ -0,0 +1,248 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Intra-route 2-opt and Or-opt (3-opt segment insertion, either orientation) with
+ * neighbour lists and don't-look bits.
+ *  • Each stop only tries moves that make it adjacent to one of its {@value #NEIGHBORS} nearest
+ *    route mates; a stop is re-examined only after an edge next to it changed.
+ *  • Distance deltas are O(1): prefix sums of forward and backward arc costs price reversals
+ *    in either direction (asymmetric matrices included).
+ *  • Time windows are checked against the route's cached schedule: only the changed stretch
+ *    is re-timed, then the first unchanged stop is compared with its latest feasible start.
+ * Only routes that are on time to begin with are optimised, and they stay on time
+ * ({@link SolutionEvaluator#late}, so within the shared one-minute slack).
+ * Not thread-safe: scratch arrays are reused across routes.
+ */
+public final class RouteOptimizer {
+
+    public static final int NEIGHBORS = 8;
+    private static final int MAX_SEGMENT = 3;
+    private static final double GAIN_EPS = 1e-9;
+
+    private final VRPInstance inst;
+    private long evaluations, moves;
+
+    /* scratch, indexed by local stop id (node) or by position (seq, schedule, prefix sums) */
+    private int m;
+    private Node[] node = new Node[0];
+    private int[] seq = new int[0], pos = new int[0], nbr = new int[0], queue = new int[0], region = new int[0];
+    private boolean[] queued = new boolean[0];
+    private double[] start = new double[0], latest = new double[0], fwd = new double[0], bwd = new double[0];
+    private int qHead, qSize;
+
+    public RouteOptimizer(VRPInstance inst) { this.inst = inst; }
+
+    /** Optimises every route in place; returns how many changed. */
+    public int optimizeAll(List<Route> routes) {
+        int changed = 0;
+        for (Route r : routes) if (optimize(r)) changed++;
+        return changed;
+    }
+
+    /** Runs to a local optimum; returns true if {@code r}'s order changed. */
+    public boolean optimize(Route r) {
+        m = r.customers.size();
+        if (m < 3) return false;
+        ensure(m);
+        for (int k = 0; k < m; k++) { node[k] = r.customers.get(k); seq[k] = k; pos[k] = k; }
+        refresh(0, m - 1);
+        for (int k = 0; k < m; k++) if (SolutionEvaluator.late(start[k], node[seq[k]].due)) return false;   // late already: leave it
+        buildNeighbours();
+
+        qHead = 0; qSize = 0;
+        for (int k = 0; k < m; k++) push(k);
+
+        boolean changed = false;
+        while (qSize > 0) {
+            int a = queue[qHead];
+            qHead = (qHead + 1) % m; qSize--;
+            queued[a] = false;
+            if (twoOpt(a) || orOpt(a)) { changed = true; moves++; }
+        }
+        if (!changed) return false;
+
+        ArrayList<Node> out = new ArrayList<>(m);
+        for (int p = 0; p < m; p++) out.add(node[seq[p]]);
+        r.customers = out;
+        r.updateArrivals(inst);
+        return true;
+    }
+
+    public long evaluations() { return evaluations; }
+    public long moves()       { return moves; }
+
+    /* ---------- 2-opt ---------- */
+    private boolean twoOpt(int a) {
+        int i = pos[a];
+        for (int n = 0; n < NEIGHBORS; n++) {
+            int b = nbr[a * NEIGHBORS + n];
+            if (b < 0) break;
+            int j = pos[b];
+            if (j > i) { if (tryReverse(i + 1, j) || tryReverse(i, j - 1)) return true; }
+            else       { if (tryReverse(j + 1, i) || tryReverse(j, i - 1)) return true; }
+        }
+        return false;
+    }
+
+    /** Reverses positions p..q if that is shorter and on time. */
+    private boolean tryReverse(int p, int q) {
+        if (p < 0 || q >= m || q - p < 1) return false;
+        evaluations++;
+        double delta = d(at(p - 1), at(q)) + d(at(p), at(q + 1)) - d(at(p - 1), at(p)) - d(at(q), at(q + 1))
+                     + (bwd[q] - bwd[p]) - (fwd[q] - fwd[p]);
+        if (delta > -GAIN_EPS) return false;
+
+        for (int k = 0; k <= q - p; k++) region[k] = seq[q - k];
+        if (!onTime(p, q)) return false;
+        apply(p, q);
+        touch(p - 1); touch(p); touch(q); touch(q + 1);
+        return true;
+    }
+
+    /* ---------- Or-opt ---------- */
+    private boolean orOpt(int a) {
+        for (int len = 1; len <= MAX_SEGMENT && len < m; len++) {
+            for (int first = pos[a] - len + 1; first <= pos[a]; first++) {   // every segment containing a
+                if (first < 0 || first + len > m) continue;
+                for (int n = 0; n < NEIGHBORS; n++) {
+                    int b = nbr[a * NEIGHBORS + n];
+                    if (b < 0) break;
+                    int j = pos[b];
+                    if (tryMove(first, len, j) || tryMove(first, len, j - 1)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Moves positions [i, i+len) to just after position g (−1 = route start), forward or reversed. */
+    private boolean tryMove(int i, int len, int g) {
+        int e = i + len - 1;
+        if (g >= i - 1 && g <= e) return false;                   // same place or inside the segment
+        if (g < -1 || g >= m) return false;
+
+        int pr = at(i - 1), nx = at(e + 1), x = at(g), y = at(g + 1), s = seq[i], t = seq[e];
+        double removal = d(pr, nx) - d(pr, s) - d(t, nx) - d(x, y);
+        double inner = fwd[e] - fwd[i], innerRev = bwd[e] - bwd[i];
+
+        for (int rev = 0; rev < 2; rev++) {
+            if (rev == 1 && len == 1) break;
+            evaluations++;
+            double delta = removal + (rev == 0 ? d(x, s) + d(t, y) : d(x, t) + d(s, y) + innerRev - inner);
+            if (delta > -GAIN_EPS) continue;
+
+            int from, to, k = 0;
+            if (g < i) {                                           // segment moves left
+                from = g + 1; to = e;
+                for (int q = 0; q < len; q++) region[k++] = seq[rev == 0 ? i + q : e - q];
+                for (int q = g + 1; q < i; q++) region[k++] = seq[q];
+            } else {                                               // segment moves right
+                from = i; to = g;
+                for (int q = e + 1; q <= g; q++) region[k++] = seq[q];
+                for (int q = 0; q < len; q++) region[k++] = seq[rev == 0 ? i + q : e - q];
+            }
+            if (!onTime(from, to)) continue;
+            apply(from, to);
+            touch(i - 1); touch(e + 1); touch(g); touch(g + 1);
+            push(s); push(t);
+            return true;
+        }
+        return false;
+    }
+
+    /* ---------- schedule ---------- */
+    /**
+     * Would positions from..to, replaced by {@code region}, be on time? Times before {@code from}
+     * are unchanged; after {@code to} it suffices that the next stop starts by its latest start.
+     */
+    private boolean onTime(int from, int to) {
+        Node prev = from == 0 ? inst.depot : node[seq[from - 1]];
+        double dep = from == 0 ? 0 : start[from - 1] + prev.service;
+        for (int k = 0; k <= to - from; k++) {
+            Node c = node[region[k]];
+            double st = Math.max(dep + inst.travel(prev, c), c.ready);
+            if (SolutionEvaluator.late(st, c.due)) return false;
+            dep = st + c.service;
+            prev = c;
+        }
+        if (to + 1 >= m) return true;
+        Node next = node[seq[to + 1]];
+        return Math.max(dep + inst.travel(prev, next), next.ready) <= latest[to + 1];
+    }
+
+    private void apply(int from, int to) {
+        for (int k = 0; k <= to - from; k++) { seq[from + k] = region[k]; pos[region[k]] = from + k; }
+        refresh(from, to);
+    }
+
+    /**
+     * Recomputes earliest start times and prefix sums from position {@code from} on, and latest
+     * start times from {@code to} back — everything outside that is unaffected by a change in from..to.
+     */
+    private void refresh(int from, int to) {
+        Node prev = from == 0 ? inst.depot : node[seq[from - 1]];
+        double dep = from == 0 ? 0 : start[from - 1] + prev.service;
+        for (int p = from; p < m; p++) {
+            Node c = node[seq[p]];
+            start[p] = Math.max(dep + inst.travel(prev, c), c.ready);
+            dep = start[p] + c.service;
+            fwd[p] = p == 0 ? 0 : fwd[p - 1] + inst.dist(prev, c);
+            bwd[p] = p == 0 ? 0 : bwd[p - 1] + inst.dist(c, prev);
+            prev = c;
+        }
+        latest[m - 1] = node[seq[m - 1]].due + SolutionEvaluator.EPS;   // return to depot is not windowed
+        for (int p = Math.min(to, m - 2); p >= 0; p--) {
+            Node c = node[seq[p]], nx = node[seq[p + 1]];
+            latest[p] = Math.min(c.due + SolutionEvaluator.EPS, latest[p + 1] - inst.travel(c, nx) - c.service);
+        }
+    }
+
+    /* ---------- neighbours and don't-look bits ---------- */
+    private void buildNeighbours() {
+        double[] best = new double[NEIGHBORS];
+        for (int a = 0; a < m; a++) {
+            int base = a * NEIGHBORS, found = 0;
+            for (int b = 0; b < m; b++) {
+                if (b == a) continue;
+                double v = Math.min(inst.dist(node[a], node[b]), inst.dist(node[b], node[a]));
+                if (found == NEIGHBORS && v >= best[NEIGHBORS - 1]) continue;
+                int k = found < NEIGHBORS ? found++ : NEIGHBORS - 1;
+                while (k > 0 && best[k - 1] > v) { best[k] = best[k - 1]; nbr[base + k] = nbr[base + k - 1]; k--; }
+                best[k] = v; nbr[base + k] = b;
+            }
+            for (int k = found; k < NEIGHBORS; k++) nbr[base + k] = -1;
+        }
+    }
+
+    /** Clears the don't-look bit of whatever sits at position p (depot positions are ignored). */
+    private void touch(int p) {
+        if (p >= 0 && p < m) push(seq[p]);
+    }
+
+    private void push(int local) {
+        if (queued[local]) return;
+        queued[local] = true;
+        queue[(qHead + qSize) % m] = local;
+        qSize++;
+    }
+
+    /* ---------- helpers ---------- */
+    /** Local id at position p, or −1 for the depot before/after the route. */
+    private int at(int p) { return p < 0 || p >= m ? -1 : seq[p]; }
+
+    private double d(int a, int b) {
+        return inst.dist(a < 0 ? inst.depot : node[a], b < 0 ? inst.depot : node[b]);
+    }
+
+    private void ensure(int n) {
+        if (node.length >= n) return;
+        node = new Node[n];
+        seq = new int[n]; pos = new int[n]; queue = new int[n]; region = new int[n];
+        nbr = new int[n * NEIGHBORS];
+        queued = new boolean[n];
+        start = new double[n]; latest = new double[n]; fwd = new double[n]; bwd = new double[n];
+    }
+}
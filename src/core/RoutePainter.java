@@ -0,0 +1,274 @@
+package core;
+
+import java.awt.*;
+import java.awt.geom.*;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Draws the static part of a route map (routes, customers, depot) for a view: a fit scale,
+ * a zoom and a pan around a fixed pixel origin. Used by {@link RouteVisualizer} for its cached
+ * layer and by {@link RouteImageExporter} off the EDT; one painter per thread.
+ * <p>
+ * Above {@value #LOD_CUSTOMERS} visible customers the map switches to straight polylines and
+ * one dot per occupied {@value #CLUSTER_PX}-pixel cell instead of curves and halos. The same
+ * drawing is available as SVG through {@link #writeSvg}.
+ */
+public final class RoutePainter {
+
+    /* ---------- constants ---------- */
+    static final int NODE_RADIUS = 10;
+    static final Color[] COLORS = {
+            new Color(0xe6194b), new Color(0x3cb44b), new Color(0x0082c8),
+            new Color(0xf58231), new Color(0x911eb4), new Color(0x46f0f0),
+            new Color(0xf032e6), new Color(0xd2f53c), new Color(0xfabebe),
+            new Color(0x008080), new Color(0xe6beff), new Color(0xaa6e28)
+    };
+    private static final int HALO_LAYERS = 5;
+    private static final Color[] HALO_FILL = new Color[HALO_LAYERS], HALO_EDGE = new Color[HALO_LAYERS];
+    static {
+        for (int layer = 0; layer < HALO_LAYERS; layer++) {
+            float alpha = 0.25f + 0.1f*layer;
+            HALO_FILL[layer] = new Color(1f,1f,1f,alpha);
+            HALO_EDGE[layer] = new Color(0f,0f,0f,alpha);
+        }
+    }
+    private static final Stroke ROUTE_STROKE = new BasicStroke(3f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final Stroke LOD_STROKE   = new BasicStroke(1f);
+    static final int LOD_CUSTOMERS = 1_500;
+    static final int CLUSTER_PX    = 4;
+
+    /* ---------- data & view ---------- */
+    private final Node depot;
+    private final List<Route> routes;
+    private final int originX, originY;            // pixel position of world (0, 0) at zoom 1, no pan
+
+    public double fitScale = 1;                    // pixels per unit at zoom 1
+    public double zoom = 1, panX, panY;            // pan in pixels
+    public Color background = Color.WHITE;
+
+    public RoutePainter(Node depot, List<Route> routes, int originX, int originY) {
+        this.depot   = depot;
+        this.routes  = routes;
+        this.originX = originX;
+        this.originY = originY;
+    }
+
+    /** Sets the fit scale so the largest coordinate lands {@code pixels} from the origin. */
+    public RoutePainter fit(double pixels) {
+        int max = Math.max(depot.x, depot.y);
+        for (Route r : routes)
+            for (Node n : r.customers)
+                max = Math.max(max, Math.max(n.x, n.y));
+        fitScale = pixels / Math.max(max, 1);
+        return this;
+    }
+
+    /* world ↔ pixel coordinates */
+    public double scale()         { return fitScale * zoom; }
+    public double sx(double x)    { return originX + panX + x * scale(); }
+    public double sy(double y)    { return originY + panY + y * scale(); }
+    public double worldX(double px) { return (px - originX - panX) / scale(); }
+    public double worldY(double py) { return (py - originY - panY) / scale(); }
+
+    /** True when the {@code w × h} view shows too many customers for curves and halos. */
+    public boolean overview(int w, int h) {
+        int count = 0;
+        for (Route r : routes)
+            for (Node n : r.customers) {
+                double x = sx(n.x), y = sy(n.y);
+                if (x >= 0 && y >= 0 && x < w && y < h && ++count > LOD_CUSTOMERS) return true;
+            }
+        return false;
+    }
+
+    /* ---------- Java2D ---------- */
+    /** Background, routes, customers and depot over {@code w × h} pixels. */
+    public void paint(Graphics2D g2, int w, int h) {
+        g2.setColor(background);
+        g2.fillRect(0, 0, w, h);
+        if (overview(w, h)) paintOverview(g2, w, h);
+        else                paintDetailed(g2);
+
+        /* depot */
+        g2.setColor(Color.BLACK);
+        int dx = (int) sx(depot.x) - NODE_RADIUS;
+        int dy = (int) sy(depot.y) - NODE_RADIUS;
+        g2.fillRect(dx, dy, NODE_RADIUS*2, NODE_RADIUS*2);
+        g2.drawString("Depot", dx - 4, dy - 4);
+    }
+
+    /** Curved routes and haloed customers. */
+    private void paintDetailed(Graphics2D g2) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        QuadCurve2D.Float curve = new QuadCurve2D.Float();
+        g2.setStroke(ROUTE_STROKE);
+        for (int idx = 0; idx < routes.size(); idx++) {
+            Route r = routes.get(idx);
+            g2.setColor(COLORS[idx % COLORS.length]);
+
+            Node prev = depot;
+            for (Node n : r.customers) {
+                float x1 = (float) sx(prev.x), y1 = (float) sy(prev.y);
+                float x2 = (float) sx(n.x),    y2 = (float) sy(n.y);
+                curve.setCurve(x1, y1, bendX(x1, x2, idx), bendY(y1, y2), x2, y2);
+                g2.draw(curve);
+                prev = n;
+            }
+            float px = (float) sx(prev.x), py = (float) sy(prev.y);
+            float qx = (float) sx(depot.x), qy = (float) sy(depot.y);
+            curve.setCurve(px, py, (px+qx)/2, bendY(py, qy), qx, qy);
+            g2.draw(curve);
+
+            /* customers – original white halos */
+            for (Node n : r.customers) {
+                int cx = (int) sx(n.x), cy = (int) sy(n.y), rad = NODE_RADIUS;
+                for (int layer = 0; layer < HALO_LAYERS && rad > 0; layer++, rad -= 2) {
+                    g2.setColor(HALO_FILL[layer]);
+                    g2.fillOval(cx - rad, cy - rad, rad*2, rad*2);
+                    g2.setColor(HALO_EDGE[layer]);
+                    g2.drawOval(cx - rad, cy - rad, rad*2, rad*2);
+                }
+            }
+        }
+    }
+
+    /* control point of a leg: routes fan out sideways by 5 px each and sag 20 px */
+    private float bendX(float x1, float x2, int idx) { return (x1+x2)/2 + (idx - routes.size()/2)*5; }
+    private static float bendY(float y1, float y2)   { return (y1+y2)/2 + 20; }
+
+    /** Straight thin polylines and one dot per occupied {@value #CLUSTER_PX}-pixel cell. */
+    private void paintOverview(Graphics2D g2, int w, int h) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        g2.setStroke(LOD_STROKE);
+        Path2D.Float path = new Path2D.Float();
+        for (int idx = 0; idx < routes.size(); idx++) {
+            Route r = routes.get(idx);
+            if (r.customers.isEmpty()) continue;
+            path.reset();
+            path.moveTo(sx(depot.x), sy(depot.y));
+            for (Node n : r.customers) path.lineTo(sx(n.x), sy(n.y));
+            path.closePath();
+            g2.setColor(COLORS[idx % COLORS.length]);
+            g2.draw(path);
+        }
+
+        g2.setColor(Color.DARK_GRAY);
+        ClusterFilter cells = new ClusterFilter(w, h);
+        for (Route r : routes)
+            for (Node n : r.customers) {
+                int x = (int) sx(n.x), y = (int) sy(n.y);
+                if (cells.first(x, y)) g2.fillRect(x - 1, y - 1, 3, 3);
+            }
+    }
+
+    /** One hit per on-screen {@value #CLUSTER_PX}-pixel cell. */
+    private static final class ClusterFilter {
+        final int w, h, cw;
+        final boolean[] occupied;
+
+        ClusterFilter(int w, int h) {
+            this.w = w; this.h = h;
+            cw = w / CLUSTER_PX + 1;
+            occupied = new boolean[cw * (h / CLUSTER_PX + 1)];
+        }
+
+        boolean first(int x, int y) {
+            if (x < 0 || y < 0 || x >= w || y >= h) return false;
+            int cell = (y / CLUSTER_PX) * cw + x / CLUSTER_PX;
+            if (occupied[cell]) return false;
+            return occupied[cell] = true;
+        }
+    }
+
+    /* ---------- SVG ---------- */
+    /** The same map as {@link #paint} as a standalone SVG document, plus optional caption lines. */
+    public void writeSvg(Appendable out, int w, int h, String... caption) throws IOException {
+        out.append("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" width=\"").append(Integer.toString(w))
+           .append("\" height=\"").append(Integer.toString(h)).append("\" viewBox=\"0 0 ")
+           .append(Integer.toString(w)).append(' ').append(Integer.toString(h)).append("\">\n");
+        out.append("<rect width=\"100%\" height=\"100%\" fill=\"").append(hex(background)).append("\"/>\n");
+
+        boolean overview = overview(w, h);
+        for (int idx = 0; idx < routes.size(); idx++) {
+            Route r = routes.get(idx);
+            if (r.customers.isEmpty()) continue;
+            out.append("<path fill=\"none\" stroke=\"").append(hex(COLORS[idx % COLORS.length]))
+               .append(overview ? "\" stroke-width=\"1\" d=\"M"
+                                : "\" stroke-width=\"3\" stroke-linecap=\"round\" stroke-linejoin=\"round\" d=\"M");
+            float x1 = (float) sx(depot.x), y1 = (float) sy(depot.y);
+            num(out, x1).append(' '); num(out, y1);
+            for (int k = 0; k <= r.customers.size(); k++) {
+                boolean home = k == r.customers.size();
+                Node n = home ? depot : r.customers.get(k);
+                float x2 = (float) sx(n.x), y2 = (float) sy(n.y);
+                if (overview) out.append(" L");
+                else {
+                    out.append(" Q");
+                    num(out, home ? (x1+x2)/2 : bendX(x1, x2, idx)).append(' ');
+                    num(out, bendY(y1, y2)).append(' ');
+                }
+                num(out, x2).append(' '); num(out, y2);
+                x1 = x2; y1 = y2;
+            }
+            out.append("\"/>\n");
+        }
+
+        if (overview) {
+            out.append("<g fill=\"#404040\">\n");
+            ClusterFilter cells = new ClusterFilter(w, h);
+            for (Route r : routes)
+                for (Node n : r.customers) {
+                    int x = (int) sx(n.x), y = (int) sy(n.y);
+                    if (!cells.first(x, y)) continue;
+                    out.append("<rect x=\"").append(Integer.toString(x - 1)).append("\" y=\"")
+                       .append(Integer.toString(y - 1)).append("\" width=\"3\" height=\"3\"/>\n");
+                }
+            out.append("</g>\n");
+        } else {
+            /* the halo, once, as a symbol */
+            out.append("<defs><g id=\"halo\">");
+            for (int layer = 0, rad = NODE_RADIUS; layer < HALO_LAYERS && rad > 0; layer++, rad -= 2) {
+                String alpha = Float.toString(HALO_FILL[layer].getAlpha() / 255f);
+                out.append("<circle r=\"").append(Integer.toString(rad)).append("\" fill=\"#fff\" fill-opacity=\"")
+                   .append(alpha).append("\" stroke=\"#000\" stroke-opacity=\"").append(alpha).append("\"/>");
+            }
+            out.append("</g></defs>\n");
+            for (Route r : routes)
+                for (Node n : r.customers) {
+                    out.append("<use xlink:href=\"#halo\" href=\"#halo\" x=\"");   // SVG 1.1 and 2
+                    num(out, (float) sx(n.x)).append("\" y=\"");
+                    num(out, (float) sy(n.y)).append("\"/>\n");
+                }
+        }
+
+        int dx = (int) sx(depot.x) - NODE_RADIUS, dy = (int) sy(depot.y) - NODE_RADIUS;
+        out.append("<rect x=\"").append(Integer.toString(dx)).append("\" y=\"").append(Integer.toString(dy))
+           .append("\" width=\"").append(Integer.toString(2 * NODE_RADIUS)).append("\" height=\"")
+           .append(Integer.toString(2 * NODE_RADIUS)).append("\"/>\n");
+        out.append("<text x=\"").append(Integer.toString(dx - 4)).append("\" y=\"").append(Integer.toString(dy - 4))
+           .append("\" font-family=\"SansSerif\" font-size=\"12\">Depot</text>\n");
+
+        for (int i = 0; i < caption.length; i++)
+            out.append("<text x=\"10\" y=\"").append(Integer.toString(18 + 16 * i))
+               .append("\" font-family=\"SansSerif\" font-size=\"13\">").append(escape(caption[i])).append("</text>\n");
+        out.append("</svg>\n");
+    }
+
+    /* one decimal is plenty at screen resolution */
+    private static Appendable num(Appendable out, float v) throws IOException {
+        long tenths = Math.round(v * 10.0);
+        if (tenths < 0) { out.append('-'); tenths = -tenths; }
+        out.append(Long.toString(tenths / 10));
+        if (tenths % 10 != 0) out.append('.').append((char) ('0' + tenths % 10));
+        return out;
+    }
+
+    private static String hex(Color c) {
+        return String.format("#%06x", c.getRGB() & 0xffffff);
+    }
+
+    private static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
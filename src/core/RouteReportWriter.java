@@ -0,0 +1,228 @@
+package core;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-stop schedule report (arrival, window, demand, wait, and why a stop is impossible) as
+ * text, CSV or JSON, streamed to an {@link Appendable} from the {@link SolutionEvaluator} pass
+ * that judges the routes. Only the text format buffers anything: the current route's lines,
+ * because its header carries the "(INFEASIBLE)" tag. Text output is what {@link RouteLogger#buildSummary} returns.
+ * <p>
+ * A stop is impossible when service starts more than {@link SolutionEvaluator#EPS} minute after
+ * {@code due}, or the vehicle would wait longer than the window is wide.
+ */
+public final class RouteReportWriter {
+
+    public enum Format {
+        TEXT, CSV, JSON;
+
+        /** From a file name: ".csv" and ".json" by extension, text otherwise. */
+        public static Format of(String file) {
+            String f = file.toLowerCase(Locale.ROOT);
+            return f.endsWith(".csv") ? CSV : f.endsWith(".json") ? JSON : TEXT;
+        }
+    }
+
+    public static void write(Appendable out, Format format, List<Route> routes, Node depot) throws IOException {
+        write(out, format, routes, null, depot);
+    }
+
+    /** As {@link #write(Appendable, Format, List, Node)}, with the instance's (possibly asymmetric) matrix. */
+    public static void write(Appendable out, Format format, List<Route> routes, VRPInstance inst) throws IOException {
+        write(out, format, routes, inst, inst.depot);
+    }
+
+    static void write(Appendable out, Format format, List<Route> routes, VRPInstance inst, Node depot)
+            throws IOException {
+        Sink sink = format == Format.CSV ? new CsvSink(out) : format == Format.JSON ? new JsonSink(out) : new TextSink(out);
+        sink.begin();
+        SolutionEvaluator.Evaluation e = SolutionEvaluator.evaluate(routes, inst, depot, false, sink);
+        sink.end(e.routes, e.distance, sink.totalLoad, e.lateCustomers + e.longWaits > 0);
+    }
+
+    /* ---------- formats ---------- */
+    /** Receives the evaluator's stops and routes; a route begins at its first stop (or its end, when empty). */
+    private abstract static class Sink implements SolutionEvaluator.StopVisitor {
+        final Appendable out;
+        int open;                  // route being written
+        int totalLoad;
+        Sink(Appendable out) { this.out = out; }
+
+        @Override
+        public final void stop(int route, Node n, double start, double wait, boolean late, boolean waitLong)
+                throws IOException {
+            if (open != route) beginRoute(open = route);
+            writeStop(route, n, (int) start, (int) wait, late, waitLong, n.due - n.ready);
+        }
+
+        @Override
+        public final void route(int route, Route r, double distance, boolean feasible) throws IOException {
+            if (open != route) beginRoute(open = route);
+            endRoute(route, r.load, distance, !feasible);
+            totalLoad += r.load;
+        }
+
+        void begin() throws IOException {}
+        void beginRoute(int idx) throws IOException {}
+        abstract void writeStop(int idx, Node n, int start, int wait, boolean late, boolean waitLong, int winLen)
+                throws IOException;
+        abstract void endRoute(int idx, int load, double dist, boolean bad) throws IOException;
+        abstract void end(int routes, double dist, int load, boolean anyBad) throws IOException;
+    }
+
+    /** The classic console summary; per-customer lines are built without String.format. */
+    private static final class TextSink extends Sink {
+        static final String NL = System.lineSeparator();
+        final StringBuilder lines = new StringBuilder();       // current route only
+
+        TextSink(Appendable out) { super(out); }
+
+        @Override void begin() throws IOException { out.append("======= ROUTE SUMMARY =======\n"); }
+
+        @Override void beginRoute(int idx) { lines.setLength(0); }
+
+        @Override
+        void writeStop(int idx, Node n, int start, int wait, boolean late, boolean waitLong, int winLen) {
+            StringBuilder sb = lines;
+            sb.append("      C");
+            padLeft(sb, n.ID, 2);
+            sb.append("  Arrival:");
+            padRight(sb, start, 4);
+            sb.append("  TW:");
+            padRight(sb, n.ready, 4);
+            sb.append('-');
+            padRight(sb, n.due, 4);
+            sb.append("  Demand:");
+            padRight(sb, n.demand, 2);
+            sb.append("  Wait:");
+            padRight(sb, wait, 3);
+            if (late || waitLong) sb.append("  IMPOSSIBLE");
+            if (waitLong) {
+                sb.append(" (wait ").append(wait).append(" > window ").append(winLen)
+                  .append(" — vehicle could wait ≤2 min extra if schedule allows)");
+            } else if (late) {
+                sb.append(" (start ").append(start).append(" > due ").append(n.due)
+                  .append(" — vehicle could wait ≤2 min extra if schedule allows)");
+            }
+            sb.append(NL);
+        }
+
+        @Override
+        void endRoute(int idx, int load, double dist, boolean bad) throws IOException {
+            if (bad) out.append("(INFEASIBLE) ");
+            out.append(String.format("R%-2d  Load:%d  Dist:%.1f%n", idx, load, dist));
+            out.append(lines);
+        }
+
+        @Override
+        void end(int routes, double dist, int load, boolean anyBad) throws IOException {
+            out.append("------------------------------\n")
+               .append(String.format("Total routes: %d%n", routes))
+               .append(String.format("Total distance: %.1f%n", dist))
+               .append(String.format("Total load: %d%n", load))
+               .append("==============================\n");
+            if (anyBad)
+                out.append("⚠  One or more routes are INFEASIBLE (time-window violations).\n");
+        }
+
+        /* %-Nd and %Nd */
+        private static void padLeft(StringBuilder sb, int v, int width) {
+            int from = sb.length();
+            sb.append(v);
+            for (int k = sb.length() - from; k < width; k++) sb.append(' ');
+        }
+
+        private static void padRight(StringBuilder sb, int v, int width) {
+            int digits = v < 0 ? stringSize(-(long) v) + 1 : stringSize(v);
+            for (int k = digits; k < width; k++) sb.append(' ');
+            sb.append(v);
+        }
+
+        private static int stringSize(long v) {
+            int d = 1;
+            while (v >= 10) { v /= 10; d++; }
+            return d;
+        }
+    }
+
+    /** One row per stop: route,stop,customer,arrival,ready,due,demand,wait,status. */
+    private static final class CsvSink extends Sink {
+        int position;
+
+        CsvSink(Appendable out) { super(out); }
+
+        @Override void begin() throws IOException {
+            out.append("route,stop,customer,arrival,ready,due,demand,wait,status\n");
+        }
+
+        @Override void beginRoute(int idx) { position = 0; }
+
+        @Override
+        void writeStop(int idx, Node n, int start, int wait, boolean late, boolean waitLong, int winLen) throws IOException {
+            out.append(Integer.toString(idx)).append(',').append(Integer.toString(++position)).append(',')
+               .append(Integer.toString(n.ID)).append(',').append(Integer.toString(start)).append(',')
+               .append(Integer.toString(n.ready)).append(',').append(Integer.toString(n.due)).append(',')
+               .append(Integer.toString(n.demand)).append(',').append(Integer.toString(wait)).append(',')
+               .append(status(late, waitLong)).append('\n');
+        }
+
+        @Override void endRoute(int idx, int load, double dist, boolean bad) {}
+        @Override void end(int routes, double dist, int load, boolean anyBad) {}
+    }
+
+    /** {"routes": [{"route", "stops": [...], "load", "distance", "feasible"}], "totals": {...}}. */
+    private static final class JsonSink extends Sink {
+        boolean firstStop;
+
+        JsonSink(Appendable out) { super(out); }
+
+        @Override void begin() throws IOException { out.append("{\n  \"routes\": ["); }
+
+        @Override
+        void beginRoute(int idx) throws IOException {
+            out.append(idx == 1 ? "\n" : ",\n").append("    {\"route\": ").append(Integer.toString(idx))
+               .append(", \"stops\": [");
+            firstStop = true;
+        }
+
+        @Override
+        void writeStop(int idx, Node n, int start, int wait, boolean late, boolean waitLong, int winLen) throws IOException {
+            out.append(firstStop ? "\n" : ",\n").append("      {\"customer\": ").append(Integer.toString(n.ID))
+               .append(", \"arrival\": ").append(Integer.toString(start))
+               .append(", \"ready\": ").append(Integer.toString(n.ready))
+               .append(", \"due\": ").append(Integer.toString(n.due))
+               .append(", \"demand\": ").append(Integer.toString(n.demand))
+               .append(", \"wait\": ").append(Integer.toString(wait))
+               .append(", \"status\": \"").append(status(late, waitLong)).append("\"}");
+            firstStop = false;
+        }
+
+        @Override
+        void endRoute(int idx, int load, double dist, boolean bad) throws IOException {
+            out.append(firstStop ? "]" : "\n    ]").append(", \"load\": ").append(Integer.toString(load))
+               .append(", \"distance\": ").append(num(dist))
+               .append(", \"feasible\": ").append(Boolean.toString(!bad)).append('}');
+        }
+
+        @Override
+        void end(int routes, double dist, int load, boolean anyBad) throws IOException {
+            out.append(routes == 0 ? "],\n" : "\n  ],\n")
+               .append("  \"totals\": {\"routes\": ").append(Integer.toString(routes))
+               .append(", \"distance\": ").append(num(dist))
+               .append(", \"load\": ").append(Integer.toString(load))
+               .append(", \"feasible\": ").append(Boolean.toString(!anyBad)).append("}\n}\n");
+        }
+
+        private static String num(double v) {
+            return String.format(Locale.ROOT, "%.3f", v);
+        }
+    }
+
+    private static String status(boolean late, boolean waitLong) {
+        return waitLong ? "wait-exceeds-window" : late ? "late" : "ok";
+    }
+
+    private RouteReportWriter() {}  // utility
+}
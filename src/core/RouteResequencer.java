@@ -0,0 +1,240 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exact single-route resequencing (TSP with time windows) by Held–Karp dynamic programming.
+ *  • State = (visited subset, last stop); each state keeps up to {@value #LABELS} Pareto labels
+ *    (distance, departure time), so a cheaper-but-later partial path is not lost.
+ *  • A label dies as soon as its stop is served late or some unvisited stop becomes unreachable.
+ *  • Tables are primitive arrays, allocated once per thread and grown to the largest route seen.
+ *  • Optimal orders are memoised by customer set, so routes already solved cost one lookup.
+ * A stop is on time unless {@link SolutionEvaluator#late} (the {@link Incumbent#score} convention). The result is
+ * optimal unless a state's Pareto front outgrows the label budget, which only happens on
+ * very loose windows (see {@link #truncations()}).
+ */
+public final class RouteResequencer {
+
+    /** Longest route handled; longer ones are left alone (2^15 · 15 states). */
+    public static final int MAX_STOPS = 15;
+
+    private static final int LABELS = 3;
+    private static final int MEMO_CAPACITY = 4096;
+    private static final int[] NO_ORDER = new int[0];
+
+    private final VRPInstance inst;
+    private final DistanceStore basis;
+    private final ThreadLocal<Tables> tables = ThreadLocal.withInitial(Tables::new);
+    private final Map<Key, int[]> memo = new LinkedHashMap<Key, int[]>(256, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<Key, int[]> e) { return size() > MEMO_CAPACITY; }
+    };
+
+    private long solved, memoHits, truncations;
+
+    public RouteResequencer(VRPInstance inst) {
+        this.inst = inst;
+        this.basis = inst.durations != null ? inst.durations : inst.distances;
+    }
+
+    /** Resequences every route in place; returns how many changed. */
+    public int improveAll(List<Route> routes) {
+        int changed = 0;
+        for (Route r : routes) if (improve(r)) changed++;
+        return changed;
+    }
+
+    /**
+     * Replaces {@code r}'s order by the optimal one when that scores better (shorter and no
+     * later, or on time where the current order is late). Returns true if the route changed.
+     */
+    public boolean improve(Route r) {
+        int k = r.customers.size();
+        if (k < 3 || k > MAX_STOPS) return false;
+        for (Node c : r.customers) if (c.ID <= 0 || c.ID >= inst.size()) return false;   // dynamic stops
+
+        int[] ids = new int[k];
+        for (int i = 0; i < k; i++) ids[i] = r.customers.get(i).ID;
+        Key key = new Key(ids);
+
+        int[] order;
+        synchronized (memo) { order = memo.get(key); }
+        if (order != null) {
+            synchronized (memo) { memoHits++; }
+        } else {
+            Tables tb = tables.get();
+            order = tb.solve(key.sorted);
+            synchronized (memo) {
+                memo.put(key, order);
+                solved++;
+                truncations += tb.truncated;
+            }
+        }
+        if (order.length == 0 || Arrays.equals(order, ids)) return false;
+
+        List<Route> single = Collections.singletonList(r);
+        double before = Incumbent.score(single, inst);
+        ArrayList<Node> old = r.customers;
+        ArrayList<Node> next = new ArrayList<>(k);
+        for (int id : order) next.add(inst.customers.get(id - 1));
+        r.customers = next;
+        if (Incumbent.score(single, inst) < before - 1e-9) {
+            r.updateArrivals(inst);
+            return true;
+        }
+        r.customers = old;
+        return false;
+    }
+
+    /* ---------- statistics ---------- */
+    public long solved()      { synchronized (memo) { return solved; } }
+    public long memoHits()    { synchronized (memo) { return memoHits; } }
+    /** Label sets that overflowed (results possibly not optimal for those routes). */
+    public long truncations() { synchronized (memo) { return truncations; } }
+
+    /** Whether this resequencer was built for the given travel-time store. */
+    boolean builtFrom(DistanceStore travel) { return basis == travel; }
+
+    /* ---------- DP ---------- */
+    /** Per-thread scratch: distance/time matrices of the route plus the label tables. */
+    private final class Tables {
+        int cap = 0;                       // stops the label tables are sized for
+        final double[] d = new double[(MAX_STOPS + 1) * (MAX_STOPS + 1)];
+        final double[] t = new double[(MAX_STOPS + 1) * (MAX_STOPS + 1)];
+        final double[] ready = new double[MAX_STOPS], service = new double[MAX_STOPS];
+        final int[] due = new int[MAX_STOPS];
+        double[] cost, time;
+        int[] prev;                        // (prevLast · LABELS + prevLabel), −1 = from depot
+        byte[] count;
+        long truncated;                    // label overflows during the last solve
+
+        /** Optimal order of {@code ids} (IDs), or an empty array if no order is on time. */
+        int[] solve(int[] ids) {
+            int k = ids.length, depot = k, w = k + 1;
+            ensure(k);
+            for (int a = 0; a <= k; a++) {
+                Node na = a == k ? inst.depot : inst.customers.get(ids[a] - 1);
+                if (a < k) { ready[a] = na.ready; due[a] = na.due; service[a] = na.service; }
+                for (int b = 0; b <= k; b++) {
+                    Node nb = b == k ? inst.depot : inst.customers.get(ids[b] - 1);
+                    d[a * w + b] = a == b ? 0 : inst.dist(na, nb);
+                    t[a * w + b] = a == b ? 0 : inst.travel(na, nb);
+                }
+            }
+
+            int full = (1 << k) - 1;
+            Arrays.fill(count, 0, (full + 1) * k, (byte) 0);
+            truncated = 0;
+
+            for (int j = 0; j < k; j++) {
+                double start = Math.max(t[depot * w + j], ready[j]);
+                if (!SolutionEvaluator.late(start, due[j])) add(1 << j, j, d[depot * w + j], start + service[j], -1, k);
+            }
+
+            for (int mask = 1; mask <= full; mask++) {
+                for (int last = 0; last < k; last++) {
+                    int s = mask * k + last;
+                    int n = count[s];
+                    for (int l = 0; l < n; l++) {
+                        int at = s * LABELS + l;
+                        double c = cost[at], dep = time[at];
+                        if (!reachable(mask, last, dep, k, w)) continue;
+                        for (int j = 0; j < k; j++) {
+                            if ((mask & 1 << j) != 0) continue;
+                            double start = Math.max(dep + t[last * w + j], ready[j]);
+                            if (SolutionEvaluator.late(start, due[j])) continue;
+                            add(mask | 1 << j, j, c + d[last * w + j], start + service[j], last * LABELS + l, k);
+                        }
+                    }
+                }
+            }
+
+            double best = Double.POSITIVE_INFINITY;
+            int bestAt = -1;
+            for (int last = 0; last < k; last++) {
+                int s = full * k + last;
+                for (int l = 0; l < count[s]; l++) {
+                    double c = cost[s * LABELS + l] + d[last * w + depot];
+                    if (c < best) { best = c; bestAt = s * LABELS + l; }
+                }
+            }
+            if (bestAt < 0) return NO_ORDER;
+
+            int[] order = new int[k];
+            int mask = full, at = bestAt;
+            for (int pos = k - 1; pos >= 0; pos--) {
+                int last = (at / LABELS) % k;
+                order[pos] = ids[last];
+                int p = prev[at];
+                mask &= ~(1 << last);
+                if (p < 0) break;
+                at = (mask * k + p / LABELS) * LABELS + p % LABELS;
+            }
+            return order;
+        }
+
+        /** False if some unvisited stop can no longer be served on time from here. */
+        private boolean reachable(int mask, int last, double dep, int k, int w) {
+            for (int u = 0; u < k; u++)
+                if ((mask & 1 << u) == 0 && SolutionEvaluator.late(dep + t[last * w + u], due[u])) return false;
+            return true;
+        }
+
+        /** Inserts (c, dep) into the Pareto set of (mask, j) unless an existing label dominates it. */
+        private void add(int mask, int j, double c, double dep, int from, int k) {
+            int s = mask * k + j, base = s * LABELS, n = count[s];
+            for (int l = 0; l < n; l++)
+                if (cost[base + l] <= c && time[base + l] <= dep) return;
+
+            int m = 0;                     // drop labels the newcomer dominates
+            for (int l = 0; l < n; l++) {
+                if (c <= cost[base + l] && dep <= time[base + l]) continue;
+                cost[base + m] = cost[base + l]; time[base + m] = time[base + l]; prev[base + m] = prev[base + l];
+                m++;
+            }
+            if (m == LABELS) {             // full front: evict the most expensive if we are cheaper
+                int worst = 0;
+                for (int l = 1; l < LABELS; l++) if (cost[base + l] > cost[base + worst]) worst = l;
+                truncated++;
+                if (cost[base + worst] <= c) { count[s] = (byte) m; return; }
+                m = worst;
+                cost[base + m] = c; time[base + m] = dep; prev[base + m] = from;
+                count[s] = (byte) LABELS;
+                return;
+            }
+            cost[base + m] = c; time[base + m] = dep; prev[base + m] = from;
+            count[s] = (byte) (m + 1);
+        }
+
+        private void ensure(int k) {
+            if (k <= cap) return;
+            int states = (1 << k) * k;
+            cost  = new double[states * LABELS];
+            time  = new double[states * LABELS];
+            prev  = new int[states * LABELS];
+            count = new byte[states];
+            cap = k;
+        }
+    }
+
+    /* ---------- memo key: the route's customer set ---------- */
+    private static final class Key {
+        final int[] sorted;
+        final int hash;
+
+        Key(int[] ids) {
+            sorted = ids.clone();
+            Arrays.sort(sorted);
+            hash = Arrays.hashCode(sorted);
+        }
+
+        @Override public int hashCode() { return hash; }
+        @Override public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(sorted, ((Key) o).sorted);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Discrete-event execution of a dispatched plan. Every vehicle leaves the depot at time 0,
+ * drives each leg with the instance's travel time (optionally scaled by log-normal noise),
+ * waits for the window to open, serves, and returns to the depot. Events come off a
+ * primitive binary-heap calendar ordered by time, then vehicle, so runs are reproducible.
+ * <p>
+ * Lateness is judged by {@link SolutionEvaluator#late}: service starting more than
+ * {@value SolutionEvaluator#EPS} minute after {@code due}, as the evaluator counts late customers.
+ * Delay is the arrival time minus the planned (noise-free) arrival.
+ * <p>
+ * {@link #run()} executes the whole plan, as fast as possible or paced by
+ * {@link #timeScale(double)}; {@link #advanceTo(double)} lets a caller (e.g. an animation
+ * timer) pull the simulation forward step by step. Not thread-safe.
+ */
+public final class RouteSimulator {
+
+    public enum EventType {
+        /** Vehicle reaches a customer; value = delay against the plan (may be negative). */
+        ARRIVAL,
+        /** Arrival later than planned; value = minutes of delay. */
+        DELAY,
+        /** Service starts; value = minutes spent waiting for the window to open. */
+        SERVICE_START,
+        /** Service started after the window closed; value = minutes late. */
+        WINDOW_VIOLATION,
+        /** Vehicle leaves a customer; value = service time. */
+        DEPARTURE,
+        /** Vehicle is back at the depot; value = route duration. */
+        RETURN
+    }
+
+    /**
+     * Receives events in simulated-time order, on the simulating thread. {@code stop} is the
+     * position in the route ({@code -1} for the depot) and {@code customer} the node, or the
+     * depot on {@link EventType#RETURN}.
+     */
+    public interface Listener {
+        void onEvent(EventType type, int route, int stop, Node customer, double time, double value);
+    }
+
+    /** Totals of one run. */
+    public static final class Result {
+        public long   events;
+        public int    arrivals, delayed, lateCustomers;
+        public double totalDelay, totalLateness, maxLateness, totalWait, totalTravel, makespan;
+        public long   elapsedNs;
+        /** Return time per route; NaN for routes still on the road. */
+        public double[] finish;
+
+        public double eventsPerSecond() {
+            return elapsedNs == 0 ? 0 : events * 1e9 / elapsedNs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d events, %d/%d late (%.1f min, max %.1f), %d delayed (%.1f min), "
+                            + "makespan %.1f, %.0f events/s",
+                    events, lateCustomers, arrivals, totalLateness, maxLateness, delayed, totalDelay,
+                    makespan, eventsPerSecond());
+        }
+    }
+
+    private static final int ARRIVE = 0, START = 1, DEPART = 2, KINDS = 3;
+    private static final double EPS = 1e-9;
+
+    /* ---------- plan, flattened: route r owns stops [offset[r], offset[r + 1]) ---------- */
+    private final Node depot;
+    private final Node[] stops;
+    private final int[] offset;
+    private final double[] leg;          // leg[i + r]: travel into stop i of route r; leg[offset[r + 1] + r]: the way home
+    private final double[] ready, due, service, planned;
+
+    /* ---------- per-run state ---------- */
+    private final int[] pos;
+    private final double[] arrived;      // when each vehicle reached its current stop
+    private final double[] heapTime;
+    private final int[] heapCode;        // route * KINDS + kind
+    private int heapSize;
+    private double now;
+    private Result result;
+
+    private Listener listener;
+    private double noiseSigma;
+    private long noiseSeed;
+    private final Random random = new Random();
+    private double minutesPerSecond;
+    private volatile boolean stopped;
+
+    public RouteSimulator(VRPInstance inst, List<Route> routes) {
+        depot = inst.depot;
+        int nRoutes = routes.size(), total = 0;
+        for (Route r : routes) total += r.customers.size();
+
+        stops   = new Node[total];
+        offset  = new int[nRoutes + 1];
+        leg     = new double[total + nRoutes];
+        ready   = new double[total];
+        due     = new double[total];
+        service = new double[total];
+        planned = new double[total];
+
+        int i = 0;
+        for (int r = 0; r < nRoutes; r++) {
+            offset[r] = i;
+            Node prev = depot;
+            double t = 0;
+            for (Node c : routes.get(r).customers) {
+                stops[i] = c;
+                leg[i + r] = inst.travel(prev, c);
+                ready[i] = c.ready; due[i] = c.due; service[i] = c.service;
+                t += leg[i + r];
+                planned[i] = t;
+                t = Math.max(t, c.ready) + c.service;
+                prev = c;
+                i++;
+            }
+            leg[i + r] = inst.travel(prev, depot);
+        }
+        offset[nRoutes] = i;
+
+        pos      = new int[nRoutes];
+        arrived  = new double[nRoutes];
+        heapTime = new double[nRoutes];
+        heapCode = new int[nRoutes];
+        reset();
+    }
+
+    /* ---------- configuration ---------- */
+    public RouteSimulator listener(Listener l) { this.listener = l; return this; }
+
+    /**
+     * Multiplies every leg by a log-normal factor with mean 1 and coefficient of variation
+     * {@code cv}; 0 turns noise off. Takes effect from the next {@link #reset()}, which re-seeds
+     * with {@code seed}: every run with the same seed is the same, so replications need their own.
+     */
+    public RouteSimulator noise(double cv, long seed) {
+        noiseSigma = cv > 0 ? Math.sqrt(Math.log1p(cv * cv)) : 0;
+        noiseSeed = seed;
+        return this;
+    }
+
+    /** Paces {@link #run()} at that many simulated minutes per wall-clock second; 0 = unthrottled. */
+    public RouteSimulator timeScale(double minutesPerSecond) {
+        this.minutesPerSecond = Math.max(0, minutesPerSecond);
+        return this;
+    }
+
+    /** Ends a paced {@link #run()} early, from any thread. */
+    public void stop() { stopped = true; }
+
+    /* ---------- execution ---------- */
+    /** Puts every vehicle back at the depot at time 0 and clears the totals. */
+    public void reset() {
+        heapSize = 0;
+        now = 0;
+        random.setSeed(noiseSeed);
+        result = new Result();
+        result.finish = new double[pos.length];
+        Arrays.fill(result.finish, Double.NaN);
+        for (int r = 0; r < pos.length; r++) {
+            pos[r] = -1;
+            depart(r, 0);
+        }
+    }
+
+    /** Runs from the start to the last return and returns the totals. */
+    public Result run() {
+        reset();
+        stopped = false;
+        long t0 = System.nanoTime();
+        if (minutesPerSecond <= 0) {
+            advanceTo(Double.POSITIVE_INFINITY);
+        } else {
+            while (heapSize > 0 && !stopped) {
+                long at = t0 + (long) (heapTime[0] / minutesPerSecond * 1e9);
+                long wait = at - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                else advanceTo(heapTime[0]);
+            }
+        }
+        result.elapsedNs = System.nanoTime() - t0;
+        return result;
+    }
+
+    /** Processes every event up to and including simulated time {@code t}; returns false once all routes are done. */
+    public boolean advanceTo(double t) {
+        long events = 0;
+        while (heapSize > 0 && heapTime[0] <= t) {
+            double time = heapTime[0];
+            int code = heapCode[0];
+            pop();
+            now = time;
+            events++;
+            int r = code / KINDS;
+            switch (code - r * KINDS) {
+                case ARRIVE: arrive(r, time); break;
+                case START:  start(r, time);  break;
+                default:     depart(r, time); break;
+            }
+        }
+        if (t > now && t != Double.POSITIVE_INFINITY) now = t;
+        result.events += events;
+        return heapSize > 0;
+    }
+
+    /** Current simulated time. */
+    public double now() { return now; }
+
+    /** Totals so far. */
+    public Result result() { return result; }
+
+    /**
+     * Where vehicle {@code route} is: the position of the stop it is at or heading to
+     * ({@code -1} = leaving the depot, route length = heading home).
+     */
+    public int position(int route) { return pos[route]; }
+
+    /* ---------- event handlers ---------- */
+    private void arrive(int r, double time) {
+        int k = pos[r], n = offset[r + 1] - offset[r];
+        if (k == n) {
+            result.finish[r] = time;
+            result.makespan = Math.max(result.makespan, time);
+            emit(EventType.RETURN, r, k, depot, time, time);
+            return;
+        }
+        int i = offset[r] + k;
+        arrived[r] = time;
+        result.arrivals++;
+        double delay = time - planned[i];
+        emit(EventType.ARRIVAL, r, k, stops[i], time, delay);
+        if (delay > EPS) {
+            result.delayed++;
+            result.totalDelay += delay;
+            emit(EventType.DELAY, r, k, stops[i], time, delay);
+        }
+        if (time < ready[i]) push(ready[i], r * KINDS + START);
+        else start(r, time);
+    }
+
+    private void start(int r, double time) {
+        int k = pos[r], i = offset[r] + k;
+        double wait = time - arrived[r];
+        result.totalWait += wait;
+        emit(EventType.SERVICE_START, r, k, stops[i], time, wait);
+        if (SolutionEvaluator.late(time, (int) due[i])) {          // due[] holds the nodes' int windows
+            double late = time - due[i];
+            result.lateCustomers++;
+            result.totalLateness += late;
+            result.maxLateness = Math.max(result.maxLateness, late);
+            emit(EventType.WINDOW_VIOLATION, r, k, stops[i], time, late);
+        }
+        push(time + service[i], r * KINDS + DEPART);
+    }
+
+    private void depart(int r, double time) {
+        int k = pos[r], n = offset[r + 1] - offset[r];
+        if (k >= 0) emit(EventType.DEPARTURE, r, k, stops[offset[r] + k], time, service[offset[r] + k]);
+        pos[r] = ++k;
+        if (n == 0) { result.finish[r] = 0; return; }      // empty route never leaves
+        double d = leg[offset[r] + k + r];
+        if (noiseSigma > 0) d *= Math.exp(noiseSigma * random.nextGaussian() - 0.5 * noiseSigma * noiseSigma);
+        result.totalTravel += d;
+        push(time + d, r * KINDS + ARRIVE);
+    }
+
+    private void emit(EventType type, int r, int k, Node c, double time, double value) {
+        if (listener != null) listener.onEvent(type, r, k == offset[r + 1] - offset[r] ? -1 : k, c, time, value);
+    }
+
+    /* ---------- calendar: binary min-heap on (time, code) ---------- */
+    private void push(double time, int code) {
+        int i = heapSize++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (!before(time, code, heapTime[p], heapCode[p])) break;
+            heapTime[i] = heapTime[p]; heapCode[i] = heapCode[p];
+            i = p;
+        }
+        heapTime[i] = time; heapCode[i] = code;
+    }
+
+    private void pop() {
+        double time = heapTime[--heapSize];
+        int code = heapCode[heapSize];
+        int i = 0, half = heapSize >>> 1;
+        while (i < half) {
+            int c = 2 * i + 1;
+            if (c + 1 < heapSize && before(heapTime[c + 1], heapCode[c + 1], heapTime[c], heapCode[c])) c++;
+            if (!before(heapTime[c], heapCode[c], time, code)) break;
+            heapTime[i] = heapTime[c]; heapCode[i] = heapCode[c];
+            i = c;
+        }
+        heapTime[i] = time; heapCode[i] = code;
+    }
+
+    private static boolean before(double t1, int c1, double t2, int c2) {
+        return t1 < t2 || (t1 == t2 && c1 < c2);
+    }
+}
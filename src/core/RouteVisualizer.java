@@ -4,12 +4,25 @@ import javax.imageio.ImageIO;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.awt.geom.*;
+import java.awt.geom.Path2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-
+import java.util.Arrays;
+
+/**
+ * Route map with animated trucks. Routes, customers and the depot are drawn once into a
+ * cached image by a {@link RoutePainter}, re-rendered only when the routes, view or panel size
+ * change; animation frames repaint just the rectangles the trucks left and entered.
+ * <p>
+ * Wheel zooms around the cursor, dragging pans, double-click resets the view. Hover lookups
+ * go through a uniform grid over the customers.
+ * <p>
+ * {@link #showLive} opens the window while the solver is still running: every frame takes the
+ * newest {@link SolutionStream} snapshot, if any, and adds it to a cost-versus-time chart;
+ * {@link #showFinal} then swaps in the dispatched plan and starts the trucks.
+ */
 public class RouteVisualizer extends JPanel {
 
     /* ---------- immutable data ---------- */
@@ -17,168 +30,277 @@ public class RouteVisualizer extends JPanel {
     private final ArrayList<Route> routes;
     private final String summary;
 
+    /* live convergence: set until showFinal */
+    private SolutionStream stream;
+    private VRPInstance liveInst;
+    private int liveCapacity;
+    private CostChart chart;
+    private JTextArea summaryArea;
+    private JComponent legend;
+
     /* ---------- rendering state ---------- */
-    private int SCALE;
+    private final RoutePainter painter;
     private BufferedImage truckImg;
     private Node   hoveredNode = null;
     private String hoverText   = null;
+    private HitGrid hitGrid;
+
+    /* cached static layer and the view it was rendered for; null = needs rendering */
+    private BufferedImage staticLayer;
+    private double layerPanX, layerPanY;
+    private Point dragFrom;
 
     /* animation */
     private final java.util.List<TruckState> truckStates = new ArrayList<>();
     private final Timer animationTimer;
 
     /* ---------- constants ---------- */
-    private static final int NODE_RADIUS = 10;
+    private static final int NODE_RADIUS = RoutePainter.NODE_RADIUS;
     private static final int LEGEND_W    = 180;
     private static final int GAP_X       = 20;
     private static final int GAP_Y       = 20;
-    private static final Color[] COLORS = {
-            new Color(0xe6194b), new Color(0x3cb44b), new Color(0x0082c8),
-            new Color(0xf58231), new Color(0x911eb4), new Color(0x46f0f0),
-            new Color(0xf032e6), new Color(0xd2f53c), new Color(0xfabebe),
-            new Color(0x008080), new Color(0xe6beff), new Color(0xaa6e28)
-    };
+    private static final Stroke HOVER_STROKE = new BasicStroke(2f);
+    private static final Font   LABEL_FONT   = new Font("SansSerif", Font.BOLD, 11);
+    /* truck sprite plus label, relative to the truck position; generous so antialiasing stays inside */
+    private static final int TRUCK_LEFT = 14, TRUCK_TOP = 30, TRUCK_W = 90, TRUCK_H = 36;
+    private static final double MIN_ZOOM = 0.2, MAX_ZOOM = 500;
 
     /* ---------- ctor ---------- */
     public RouteVisualizer(Node depot, ArrayList<Route> routes, String summary) {
         this.depot   = depot;
         this.routes  = routes;
         this.summary = summary;
-        this.SCALE   = calcScale();
+        this.painter = new RoutePainter(depot, routes, LEGEND_W + GAP_X, GAP_Y).fit(500);
+        this.hitGrid = new HitGrid(routes);
 
         setPreferredSize(new Dimension(1200, 800));
         setBackground(Color.WHITE);
+        setOpaque(true);
 
         try { truckImg = ImageIO.read(new File("resources/truck.png")); }
         catch (IOException e) { truckImg = null; }
 
         setToolTipText("");
-        addMouseMotionListener(new MouseMotionAdapter() {
-            @Override public void mouseMoved(MouseEvent e) { updateHover(e); }
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override public void mouseMoved(MouseEvent e)        { updateHover(e); }
+            @Override public void mousePressed(MouseEvent e)      { dragFrom = e.getPoint(); }
+            @Override public void mouseDragged(MouseEvent e)      { drag(e); }
+            @Override public void mouseReleased(MouseEvent e)     { endDrag(); }
+            @Override public void mouseWheelMoved(MouseWheelEvent e) { zoomAt(e.getX(), e.getY(), e.getPreciseWheelRotation()); }
+            @Override public void mouseClicked(MouseEvent e)      { if (e.getClickCount() == 2) resetView(); }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+        addComponentListener(new ComponentAdapter() {
+            @Override public void componentResized(ComponentEvent e) { staticLayer = null; }
         });
 
         /* trucks & timer */
         for (int i = 0; i < routes.size(); i++)
             truckStates.add(new TruckState(routes.get(i), "DA" + (i+1)));
 
-        animationTimer = new Timer(30, e -> {
-            truckStates.forEach(TruckState::tick);
-            repaint();
-        });
+        animationTimer = new Timer(30, e -> animate());
         animationTimer.start();
     }
 
-    /* ---------- helpers ---------- */
-    private int calcScale() {
-        int max = Math.max(depot.x, depot.y);
-        for (Route r : routes)
-            for (Node n : r.customers)
-                max = Math.max(max, Math.max(n.x, n.y));
-        return Math.max(1, 500 / Math.max(max, 1));
+    /** Call after the route list or its stops changed: refits, re-indexes and redraws the static layer. */
+    public void routesChanged() {
+        painter.fit(500);
+        hitGrid = new HitGrid(routes);
+        staticLayer = null;
+        repaint();
     }
 
+
+    /* ---------- helpers ---------- */
+    private double sx(double x) { return painter.sx(x); }
+    private double sy(double y) { return painter.sy(y); }
+
     private void updateHover(MouseEvent e) {
-        int mx = e.getX() - (LEGEND_W + GAP_X);
-        int my = e.getY() - GAP_Y;
+        Node before = hoveredNode;
         hoveredNode = null; hoverText = null;
 
-        outer:
-        for (Route r : routes) {
-            for (int i = 0; i < r.customers.size(); i++) {
-                Node n = r.customers.get(i);
-                int nx = n.x * SCALE, ny = n.y * SCALE;
-                if (Math.hypot(mx - nx, my - ny) <= NODE_RADIUS) {
-                    hoveredNode = n;
-                    int arr = r.arrival.get(i);
-                    hoverText = String.format(
-                            "C%d  Demand:%d  Arrival:%d  TW:%d-%d",
-                            n.ID, n.demand, arr, n.ready, n.due);
-                    break outer;
-                }
-            }
+        long hit = hitGrid.nearest(routes, painter.worldX(e.getX()), painter.worldY(e.getY()),
+                                   NODE_RADIUS / painter.scale());
+        if (hit >= 0) {
+            Route r = routes.get((int) (hit >>> 32));
+            int i = (int) hit;
+            Node n = r.customers.get(i);
+            hoveredNode = n;
+            String arr = i < r.arrival.size() ? Integer.toString(r.arrival.get(i)) : "?";
+            hoverText = String.format(
+                    "C%d  Demand:%d  Arrival:%s  TW:%d-%d",
+                    n.ID, n.demand, arr, n.ready, n.due);
         }
         setToolTipText(hoverText);
+        if (hoveredNode != before) {
+            repaintRing(before);
+            repaintRing(hoveredNode);
+        }
+    }
+
+    private void repaintRing(Node n) {
+        if (n == null) return;
+        int r = NODE_RADIUS + 6;
+        repaint((int) sx(n.x) - r, (int) sy(n.y) - r, 2*r, 2*r);
+    }
+
+    /* ---------- zoom & pan ---------- */
+    private void zoomAt(int mx, int my, double wheel) {
+        double z = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, painter.zoom * Math.pow(1.15, -wheel)));
+        if (z == painter.zoom) return;
+        /* keep the world point under the cursor in place */
+        double wx = painter.worldX(mx), wy = painter.worldY(my);
+        painter.zoom = z;
+        painter.panX += mx - sx(wx);
+        painter.panY += my - sy(wy);
+        viewChanged();
+    }
+
+    /* while dragging, the cached layer is just shifted; it is re-rendered on release */
+    private void drag(MouseEvent e) {
+        if (dragFrom == null) return;
+        painter.panX += e.getX() - dragFrom.x;
+        painter.panY += e.getY() - dragFrom.y;
+        dragFrom = e.getPoint();
+        for (TruckState ts : truckStates) ts.bounds = truckBounds(ts);
         repaint();
     }
 
+    private void endDrag() {
+        if (dragFrom != null && (painter.panX != layerPanX || painter.panY != layerPanY)) viewChanged();
+        dragFrom = null;
+    }
+
+    private void resetView() {
+        painter.zoom = 1; painter.panX = 0; painter.panY = 0;
+        viewChanged();
+    }
+
+    private void viewChanged() {
+        staticLayer = null;
+        for (TruckState ts : truckStates) ts.bounds = truckBounds(ts);
+        repaint();
+    }
+
+    /* ---------- animation ---------- */
+    /** Advances the trucks and repaints only where they were and are; stops once all are home. */
+    private void animate() {
+        boolean moving = false;
+        for (TruckState ts : truckStates) {
+            Rectangle before = ts.bounds;
+            ts.tick();
+            ts.bounds = truckBounds(ts);
+            if (before != null) repaint(before);
+            if (ts.bounds != null) { repaint(ts.bounds); moving = true; }
+        }
+        if (stream != null) pollStream();
+        else if (!moving) animationTimer.stop();
+    }
+
+    /** Shows the newest published solution, if one arrived since the last frame. */
+    private void pollStream() {
+        SolutionStream.Frame f = stream.poll();
+        if (f == null) return;
+        routes.clear();
+        routes.addAll(f.solution.toRoutes(liveInst, liveCapacity));
+        routesChanged();
+        chart.add(f.elapsedMs, f.cost);
+        summaryArea.setText(String.format("Solving… best %.2f (%s) after %.1f s, %d routes",
+                f.cost, f.source, f.elapsedMs / 1000.0, f.solution.routeCount()));
+        legend.repaint();
+    }
+
+    /** Ends live mode: shows {@code plan} and its summary and sets the trucks off. */
+    public void showFinal(ArrayList<Route> plan, String summaryText) {
+        if (stream != null) {                      // the dispatched plan's frame closes the chart
+            SolutionStream.Frame f = stream.poll();
+            if (f != null) chart.add(f.elapsedMs, f.cost);
+        }
+        stream = null;
+        routes.clear();
+        routes.addAll(plan);
+        routesChanged();
+        truckStates.clear();
+        for (int i = 0; i < routes.size(); i++)
+            truckStates.add(new TruckState(routes.get(i), "DA" + (i+1)));
+        if (summaryArea != null) summaryArea.setText(summaryText);
+        if (legend != null) legend.repaint();
+        animationTimer.restart();
+    }
+
+    /** Panel-space rectangle the truck covers, or null once it is back at the depot. */
+    private Rectangle truckBounds(TruckState ts) {
+        if (ts.progress >= 1.0 || truckImg == null) return null;
+        Point p = truckPosition(ts);
+        return new Rectangle(p.x - TRUCK_LEFT, p.y - TRUCK_TOP, TRUCK_W, TRUCK_H);
+    }
+
     /* ---------- painting ---------- */
     @Override protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        if (staticLayer == null || staticLayer.getWidth() != getWidth() || staticLayer.getHeight() != getHeight())
+            staticLayer = renderStaticLayer();
+        int dx = (int) Math.round(painter.panX - layerPanX), dy = (int) Math.round(painter.panY - layerPanY);
+        if (dx != 0 || dy != 0) {                        // mid-drag: shifted layer, background behind it
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+        g.drawImage(staticLayer, dx, dy, null);           // the clip limits this to the dirty region
+
         Graphics2D g2 = (Graphics2D) g;
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2.translate(LEGEND_W + GAP_X, GAP_Y);
-
-        /* draw static routes & customers (unchanged look) */
-        for (int idx = 0; idx < routes.size(); idx++) {
-            Route r = routes.get(idx);
-            g2.setColor(COLORS[idx % COLORS.length]);
-            g2.setStroke(new BasicStroke(3f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-
-            Node prev = depot;
-            for (Node n : r.customers) {
-                int x1 = prev.x*SCALE, y1 = prev.y*SCALE;
-                int x2 = n.x*SCALE,     y2 = n.y*SCALE;
-                int cx = (x1+x2)/2 + (idx - routes.size()/2)*5;
-                int cy = (y1+y2)/2 + 20;
-                g2.draw(new QuadCurve2D.Float(x1,y1,cx,cy,x2,y2));
-                prev = n;
-            }
-            g2.draw(new QuadCurve2D.Float(
-                    prev.x*SCALE, prev.y*SCALE,
-                    (prev.x+depot.x)*SCALE/2, (prev.y+depot.y)*SCALE/2+20,
-                    depot.x*SCALE, depot.y*SCALE));
-
-            /* customers – original white halos */
-            for (Node n : r.customers) {
-                int cx = n.x*SCALE, cy = n.y*SCALE, rad = NODE_RADIUS;
-                for (int layer = 0; layer < 5 && rad > 0; layer++, rad -= 2) {
-                    float alpha = 0.25f + 0.1f*layer;
-                    g2.setColor(new Color(1f,1f,1f,alpha));
-                    g2.fillOval(cx - rad, cy - rad, rad*2, rad*2);
-                    g2.setColor(new Color(0f,0f,0f,alpha));
-                    g2.drawOval(cx - rad, cy - rad, rad*2, rad*2);
-                }
-            }
-        }
+        Rectangle clip = g2.getClipBounds();
 
         /* animated trucks */
-        for (TruckState ts : truckStates) drawTruck(g2, ts);
-
-        /* depot */
-        g2.setColor(Color.BLACK);
-        int dx = depot.x*SCALE - NODE_RADIUS;
-        int dy = depot.y*SCALE - NODE_RADIUS;
-        g2.fillRect(dx, dy, NODE_RADIUS*2, NODE_RADIUS*2);
-        g2.drawString("Depot", dx - 4, dy - 4);
+        for (TruckState ts : truckStates)
+            if (ts.bounds != null && (clip == null || clip.intersects(ts.bounds))) drawTruck(g2, ts);
 
         /* hover ring */
         if (hoveredNode != null) {
             g2.setColor(Color.YELLOW);
-            int hx = hoveredNode.x*SCALE, hy = hoveredNode.y*SCALE;
-            g2.setStroke(new BasicStroke(2f));
+            int hx = (int) sx(hoveredNode.x), hy = (int) sy(hoveredNode.y);
+            g2.setStroke(HOVER_STROKE);
             g2.drawOval(hx - NODE_RADIUS - 4, hy - NODE_RADIUS - 4,
                         (NODE_RADIUS + 4)*2, (NODE_RADIUS + 4)*2);
         }
     }
 
-    private void drawTruck(Graphics2D g2, TruckState ts) {
-        if (ts.progress >= 1.0) return;
+    /** Background, routes, customers and depot: everything that does not move. */
+    private BufferedImage renderStaticLayer() {
+        int w = Math.max(1, getWidth()), h = Math.max(1, getHeight());
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        BufferedImage img = gc != null ? gc.createCompatibleImage(w, h, Transparency.OPAQUE)
+                                       : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        layerPanX = painter.panX; layerPanY = painter.panY;
+        painter.background = getBackground();
+
+        Graphics2D g2 = img.createGraphics();
+        try {
+            painter.paint(g2, w, h);
+        } finally {
+            g2.dispose();
+        }
+        return img;
+    }
 
+    private Point truckPosition(TruckState ts) {
         double scaled = ts.progress * (ts.path.size()-1);
         int from = (int) Math.floor(scaled);
         int to   = Math.min(from + 1, ts.path.size() - 1);
         double t = scaled - from;
 
         Node a = ts.path.get(from), b = ts.path.get(to);
-        int x = (int)((1 - t)*a.x + t*b.x)*SCALE;
-        int y = (int)((1 - t)*a.y + t*b.y)*SCALE;
-
-        if (truckImg != null) {
-            g2.drawImage(truckImg, x - 12, y - 28, 24, 24, null);
-            g2.setFont(new Font("SansSerif", Font.BOLD, 11));
-            g2.setColor(Color.WHITE); g2.drawString(ts.label, x + 14, y - 5);
-            g2.setColor(Color.BLACK); g2.drawString(ts.label, x + 13, y - 6);
-        }
+        return new Point((int) sx((1 - t)*a.x + t*b.x), (int) sy((1 - t)*a.y + t*b.y));
+    }
+
+    private void drawTruck(Graphics2D g2, TruckState ts) {
+        Point p = truckPosition(ts);
+        int x = p.x, y = p.y;
+        g2.drawImage(truckImg, x - 12, y - 28, 24, 24, null);
+        g2.setFont(LABEL_FONT);
+        g2.setColor(Color.WHITE); g2.drawString(ts.label, x + 14, y - 5);
+        g2.setColor(Color.BLACK); g2.drawString(ts.label, x + 13, y - 6);
     }
 
     /* ---------- inner class for animation ---------- */
@@ -187,6 +309,7 @@ public class RouteVisualizer extends JPanel {
         final String label;
         double progress = 0.0;
         final double speed;
+        Rectangle bounds;                          // last painted area, panel space
 
         TruckState(Route route, String label) {
             this.label = label;
@@ -198,10 +321,143 @@ public class RouteVisualizer extends JPanel {
         void tick() { progress = Math.min(progress + speed, 1.0); }
     }
 
+    /* ---------- hover index ---------- */
+    /**
+     * Uniform grid over customer coordinates (world units), about two customers per cell.
+     * Entries {@code (route << 32) | index} are bucketed by cell in one flat array.
+     */
+    private static final class HitGrid {
+        final int minX, minY, cols, rows;
+        final double cell;
+        final int[] start;                         // cell c holds entries[start[c] .. start[c + 1])
+        final long[] entries;
+
+        HitGrid(ArrayList<Route> routes) {
+            int n = 0, x0 = Integer.MAX_VALUE, y0 = Integer.MAX_VALUE, x1 = Integer.MIN_VALUE, y1 = Integer.MIN_VALUE;
+            for (Route r : routes)
+                for (Node c : r.customers) {
+                    n++;
+                    x0 = Math.min(x0, c.x); y0 = Math.min(y0, c.y);
+                    x1 = Math.max(x1, c.x); y1 = Math.max(y1, c.y);
+                }
+            if (n == 0) { x0 = y0 = 0; x1 = y1 = 1; }
+            minX = x0; minY = y0;
+            double w = x1 - x0 + 1, h = y1 - y0 + 1;
+            cell  = Math.max(1, Math.sqrt(w * h * 2 / Math.max(1, n)));
+            cols  = (int) (w / cell) + 1;
+            rows  = (int) (h / cell) + 1;
+
+            start = new int[cols * rows + 1];
+            for (Route r : routes)
+                for (Node c : r.customers) start[cellOf(c.x, c.y) + 1]++;
+            for (int i = 0; i < cols * rows; i++) start[i + 1] += start[i];
+            entries = new long[n];
+            int[] fill = Arrays.copyOf(start, cols * rows);
+            for (int ri = 0; ri < routes.size(); ri++) {
+                ArrayList<Node> cs = routes.get(ri).customers;
+                for (int i = 0; i < cs.size(); i++)
+                    entries[fill[cellOf(cs.get(i).x, cs.get(i).y)]++] = ((long) ri << 32) | i;
+            }
+        }
+
+        private int cellOf(int x, int y) {
+            return (int) ((y - minY) / cell) * cols + (int) ((x - minX) / cell);
+        }
+
+        /** Closest customer within {@code radius} of (x, y), or -1. */
+        long nearest(ArrayList<Route> routes, double x, double y, double radius) {
+            int cx0 = Math.max(0, (int) Math.floor((x - radius - minX) / cell));
+            int cy0 = Math.max(0, (int) Math.floor((y - radius - minY) / cell));
+            int cx1 = Math.min(cols - 1, (int) Math.floor((x + radius - minX) / cell));
+            int cy1 = Math.min(rows - 1, (int) Math.floor((y + radius - minY) / cell));
+            long best = -1;
+            double bestD2 = radius * radius;
+            for (int cy = cy0; cy <= cy1; cy++)
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    int c = cy * cols + cx;
+                    for (int k = start[c]; k < start[c + 1]; k++) {
+                        long e = entries[k];
+                        int ri = (int) (e >>> 32), i = (int) e;
+                        if (ri >= routes.size() || i >= routes.get(ri).customers.size()) continue;   // stale until routesChanged()
+                        Node n = routes.get(ri).customers.get(i);
+                        double dx = n.x - x, dy = n.y - y, d2 = dx * dx + dy * dy;
+                        if (d2 <= bestD2) { bestD2 = d2; best = e; }
+                    }
+                }
+            return best;
+        }
+    }
+
+    /* ---------- cost chart ---------- */
+    /** Best cost over solve time, one point per streamed frame. */
+    private static final class CostChart extends JPanel {
+        private double[] t = new double[64], c = new double[64];
+        private int n;
+
+        CostChart() {
+            setPreferredSize(new Dimension(420, 160));
+            setBackground(Color.WHITE);
+        }
+
+        void add(long elapsedMs, double cost) {
+            if (n == t.length) { t = Arrays.copyOf(t, 2 * n); c = Arrays.copyOf(c, 2 * n); }
+            t[n] = elapsedMs / 1000.0; c[n] = cost; n++;
+            repaint();
+        }
+
+        @Override protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int left = 60, top = 10, w = getWidth() - left - 10, h = getHeight() - top - 25;
+            g2.setColor(Color.GRAY);
+            g2.drawRect(left, top, w, h);
+            g2.setFont(LABEL_FONT);
+            if (n == 0) { g2.drawString("waiting for the first solution…", left + 10, top + 20); return; }
+
+            double tMax = Math.max(t[n - 1], 1e-3), cMin = c[n - 1], cMax = c[0];
+            if (cMax - cMin < 1e-9) cMax = cMin + 1;
+            g2.drawString(String.format("%.0f", cMax), 4, top + 10);
+            g2.drawString(String.format("%.0f", cMin), 4, top + h);
+            g2.drawString("0 s", left, top + h + 15);
+            g2.drawString(String.format("%.1f s", tMax), left + w - 40, top + h + 15);
+
+            /* best cost only falls: a step line */
+            Path2D.Double line = new Path2D.Double();
+            for (int i = 0; i < n; i++) {
+                double x = left + w * t[i] / tMax, y = top + h * (cMax - c[i]) / (cMax - cMin);
+                if (i == 0) line.moveTo(x, y);
+                else { line.lineTo(x, line.getCurrentPoint().getY()); line.lineTo(x, y); }
+            }
+            g2.setColor(RoutePainter.COLORS[2]);
+            g2.setStroke(HOVER_STROKE);
+            g2.draw(line);
+        }
+    }
+
     /* ---------- launcher ---------- */
     public static void showGUI(Node depot, ArrayList<Route> routes,
                                String summary, String algorithmName) {
-        RouteVisualizer map = new RouteVisualizer(depot, routes, summary);
+        open(new RouteVisualizer(depot, routes, summary), summary, algorithmName);
+    }
+
+    /**
+     * Opens the window before the plan exists and follows {@code stream}; call on the EDT.
+     * Finish with {@link #showFinal} on the returned map.
+     */
+    public static RouteVisualizer showLive(VRPInstance inst, int capacity, SolutionStream stream,
+                                           String algorithmName) {
+        RouteVisualizer map = new RouteVisualizer(inst.depot, new ArrayList<>(), "Solving…");
+        map.stream       = stream;
+        map.liveInst     = inst;
+        map.liveCapacity = capacity;
+        map.chart        = new CostChart();
+        open(map, map.summary, algorithmName);
+        return map;
+    }
+
+    private static void open(RouteVisualizer map, String summary, String algorithmName) {
+        ArrayList<Route> routes = map.routes;
 
         /* legend panel */
         JPanel legend = new JPanel() {
@@ -216,7 +472,7 @@ public class RouteVisualizer extends JPanel {
                 g2.setFont(new Font("SansSerif", Font.PLAIN, 12));
                 int y = 52;
                 for (int i = 0; i < routes.size(); i++) {
-                    g2.setColor(COLORS[i % COLORS.length]);
+                    g2.setColor(RoutePainter.COLORS[i % RoutePainter.COLORS.length]);
                     g2.fillRect(20, y - 11, 16, 16);
                     g2.setColor(Color.BLACK);
                     g2.drawRect(20, y - 11, 16, 16);
@@ -226,6 +482,7 @@ public class RouteVisualizer extends JPanel {
             }
             @Override public Dimension getPreferredSize() { return new Dimension(LEGEND_W, 800); }
         };
+        map.legend = legend;
 
         /* top bar with pause button */
         JToggleButton pauseBtn = new JToggleButton("⏸ Pause");
@@ -246,15 +503,22 @@ public class RouteVisualizer extends JPanel {
         ta.setEditable(false);
         ta.setFont(new Font("Monospaced", Font.PLAIN, 12));
         ta.setLineWrap(true); ta.setWrapStyleWord(true);
+        map.summaryArea = ta;
 
         /* layout */
         JPanel horiz = new JPanel(new BorderLayout());
         horiz.add(legend, BorderLayout.WEST);
         horiz.add(map,    BorderLayout.CENTER);
 
+        JComponent bottom = new JScrollPane(ta);
+        if (map.chart != null) {
+            JSplitPane lower = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, bottom, map.chart);
+            lower.setResizeWeight(0.6);
+            bottom = lower;
+        }
         JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
                                           new JScrollPane(horiz),
-                                          new JScrollPane(ta));
+                                          bottom);
         split.setResizeWeight(0.85);
         split.setDividerLocation(650);
 
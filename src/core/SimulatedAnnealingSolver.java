@@ -2,13 +2,20 @@ package core;
 
 import java.util.*;
 
-public class SimulatedAnnealingSolver {
-    private final VRPInstance inst;
-    private final int capacity;
-    private final Random rnd;
+public class SimulatedAnnealingSolver implements Solver {
+    private VRPInstance inst;
+    private int capacity;
+    private Random rnd;
     private double startTemp;
     private double endTemp;
     private int steps;
+
+    // Budget, cancellation, warm start and progress sinks (unbounded unless run through the SPI)
+    private SolverContext ctx = new SolverContext();
+
+    // Instrumentation (null unless SolverMetrics is enabled); lastMove = neighbourhood of the last applied move
+    private SolverMetrics.Operator[] operators;
+    private int lastMove = -1;
     
     // Adaptive SA 
     private static final int BASE_RESTARTS = 100;
@@ -33,6 +40,7 @@ public class SimulatedAnnealingSolver {
     private static final int NEIGHBORHOOD_RELOCATE = 3;
     private static final int NEIGHBORHOOD_CROSS = 4;
     private static final int NUM_NEIGHBORHOODS = 5;
+    private static final String[] NEIGHBORHOOD_NAMES = { "2-opt", "or-opt", "exchange", "relocate", "cross" };
 
     public SimulatedAnnealingSolver(VRPInstance inst, int capacity, 
                                   double startTemp, double endTemp, int steps) {
@@ -66,16 +74,49 @@ public class SimulatedAnnealingSolver {
         this(inst, capacity, 1000, 1, 10_000);
     }
 
+    /** Unbound solver for the {@link Solver} SPI; instance and capacity arrive with {@link #solve(VRPInstance, int, SolverContext)}. */
+    public SimulatedAnnealingSolver(double startTemp, double endTemp, int steps) {
+        this.startTemp = startTemp;
+        this.endTemp = endTemp;
+        this.steps = steps;
+        this.rnd = new Random();
+    }
+
+    @Override public String name() { return Algorithms.SIMULATED_ANNEALING; }
+
+    /**
+     * SPI entry point. Iterations are counted across restarts; the context's
+     * incumbent (if any) warm-starts every third restart and receives improvements.
+     */
+    @Override
+    public ArrayList<Route> solve(VRPInstance inst, int capacity, SolverContext ctx) {
+        this.inst = inst;
+        this.capacity = capacity;
+        this.ctx = ctx;
+        this.rnd = ctx.random();
+        return solve();
+    }
+
     // Generate a neighbor solution 
     private ArrayList<Route> generateNeighbor(ArrayList<Route> solution) {
         ArrayList<Route> neighbor = deepCopy(solution);
         
         // Select neighborhood structure based on instance size
         int neighborhoodType = rnd.nextInt(NUM_NEIGHBORHOODS);
-        boolean success = false;
+        boolean success = tryMove(neighborhoodType, neighbor);
         
-        // Try the selected neighborhood structure
-        switch (neighborhoodType) {
+        // If the selected neighborhood didn't produce a valid move, try others
+        for (int i = 0; i < NUM_NEIGHBORHOODS && !success; i++) {
+            if (i == neighborhoodType) continue;
+            success = tryMove(i, neighbor);
+        }
+        
+        return neighbor;
+    }
+
+    private boolean tryMove(int type, ArrayList<Route> neighbor) {
+        boolean success = false;
+        switch (type) {
             case NEIGHBORHOOD_2OPT:
                 success = apply2Opt(neighbor);
                 break;
@@ -92,33 +133,12 @@ public class SimulatedAnnealingSolver {
                 success = applyCrossExchange(neighbor);
                 break;
         }
-        
-        // If the selected neighborhood didn't produce a valid move, try others
-        if (!success) {
-            for (int i = 0; i < NUM_NEIGHBORHOODS && !success; i++) {
-                if (i == neighborhoodType) continue;
-                
-                switch (i) {
-                    case NEIGHBORHOOD_2OPT:
-                        success = apply2Opt(neighbor);
-                        break;
-                    case NEIGHBORHOOD_OROPT:
-                        success = applyOrOpt(neighbor);
-                        break;
-                    case NEIGHBORHOOD_EXCHANGE:
-                        success = applyExchange(neighbor);
-                        break;
-                    case NEIGHBORHOOD_RELOCATE:
-                        success = applyRelocate(neighbor);
-                        break;
-                    case NEIGHBORHOOD_CROSS:
-                        success = applyCrossExchange(neighbor);
-                        break;
-                }
-            }
+        if (operators != null) {
+            operators[type].attempt();
+            if (success) operators[type].success();
         }
-        
-        return neighbor;
+        if (success) lastMove = type;
+        return success;
     }
     
     // Apply 2-opt intra-route optimization
@@ -172,6 +192,13 @@ public class SimulatedAnnealingSolver {
             rnd.nextInt(solution.get(r2).customers.size() + 1) : 
             rnd.nextInt(solution.get(r2).customers.size() + 1);
         
+        // Reject placements whose new arcs can never be on time
+        List<Node> target = solution.get(r2).customers;
+        if (!fits(target, insertPos, sequence.get(0), sequence.get(sequence.size() - 1))) {
+            solution.get(r1).customers.addAll(start, sequence);
+            return false;
+        }
+        
         // Update loads
         solution.get(r1).load -= seqDemand;
         solution.get(r2).load += seqDemand;
@@ -203,6 +230,11 @@ public class SimulatedAnnealingSolver {
         Node c1 = solution.get(r1).customers.get(i1);
         Node c2 = solution.get(r2).customers.get(i2);
         
+        // Each customer must be able to sit between the other's neighbours
+        if (!fitsAt(solution.get(r1).customers, i1, c2) || !fitsAt(solution.get(r2).customers, i2, c1)) {
+            return false;
+        }
+        
         // Check capacity constraints
         if (solution.get(r1).load - c1.demand + c2.demand <= capacity &&
             solution.get(r2).load - c2.demand + c1.demand <= capacity) {
@@ -254,17 +286,18 @@ public class SimulatedAnnealingSolver {
             return false;
         }
         
+        // Pick the target position; skip it if the new arcs can never be on time
+        int insertPos = toRoute.customers.isEmpty() ? 0 : rnd.nextInt(toRoute.customers.size() + 1);
+        if (!fits(toRoute.customers, insertPos, customer, customer)) {
+            return false;
+        }
+        
         // Remove from original route
         fromRoute.customers.remove(custIdx);
         fromRoute.load -= customer.demand;
         
-        // Add to new route at random position
-        if (toRoute.customers.isEmpty()) {
-            toRoute.customers.add(customer);
-        } else {
-            int insertPos = rnd.nextInt(toRoute.customers.size() + 1);
-            toRoute.customers.add(insertPos, customer);
-        }
+        // Add to new route at the chosen position
+        toRoute.customers.add(insertPos, customer);
         toRoute.load += customer.demand;
         
         // Remove empty routes (except the last one)
@@ -328,17 +361,35 @@ public class SimulatedAnnealingSolver {
         ArrayList<Route> overallBest = null;
         double overallBestFit = Double.POSITIVE_INFINITY;
         
+        SolverMetrics.Run metrics = SolverMetrics.start(name());
+        operators = null;
+        if (metrics != null) {
+            operators = new SolverMetrics.Operator[NUM_NEIGHBORHOODS];
+            for (int i = 0; i < NUM_NEIGHBORHOODS; i++) operators[i] = metrics.operator(NEIGHBORHOOD_NAMES[i]);
+        }
+
         int numRestarts = getNumRestarts();
         System.out.println("Using " + numRestarts + " restarts for " + inst.customers.size() + " customers");
         
         // Track restart statistics
+        long iteration = 0, evaluations = 0;
+        Incumbent incumbent = ctx.incumbent();
         int[] improvements = new int[numRestarts];
         double[] bestFits = new double[numRestarts];
         
         for (int restart = 0; restart < numRestarts; restart++) {
+            if (restart > 0 && ctx.shouldStop(iteration)) break;
+
             // Initialize with a mix of random and NN solutions
             ArrayList<Route> current;
-            if (restart % 3 == 0) {
+            ArrayList<Route> warm = restart % 3 == 1 && incumbent != null ? incumbent.snapshot() : null;
+            if (warm != null) {
+                // Warm start: perturb the best solution any portfolio member has found
+                current = warm;
+                for (int i = 0; i < 5; i++) {
+                    current = generateNeighbor(current);
+                }
+            } else if (restart % 3 == 0) {
                 // Every 3rd restart, use a completely random solution
                 current = generateRandomSolution();
             } else {
@@ -364,7 +415,8 @@ public class SimulatedAnnealingSolver {
             int totalMoves = 0;
 
             // Main SA loop
-            while (noImproveIter < MAX_NO_IMPROVE) {
+            while (noImproveIter < MAX_NO_IMPROVE && !ctx.shouldStop(iteration)) {
+                iteration++;
                 // Generate multiple neighbors using the improved neighborhood structures
                 int neighborsToTry = (int)(1 + (temperature / MAX_TEMP) * 4);
                 ArrayList<Route> bestCandidate = null;
@@ -372,8 +424,11 @@ public class SimulatedAnnealingSolver {
                 
                 // Evaluate multiple neighbors, pick the best
                 for (int n = 0; n < neighborsToTry; n++) {
+                    lastMove = -1;
                     ArrayList<Route> candidate = generateNeighbor(current);
                     double candFit = fitness(candidate);
+                    evaluations++;
+                    if (operators != null && lastMove >= 0 && candFit < currFit) operators[lastMove].improvement();
                     
                     if (candFit < bestCandidateFit) {
                         bestCandidate = candidate;
@@ -387,7 +442,12 @@ public class SimulatedAnnealingSolver {
                 double acceptProb = Math.exp(-delta / temperature);
                 
                 // Accept if better or with probability based on temperature
-                if (delta < 0 || rnd.nextDouble() < acceptProb) {
+                boolean accept = delta < 0 || rnd.nextDouble() < acceptProb;
+                if (metrics != null) {
+                    metrics.evaluations(neighborsToTry);
+                    metrics.proposal(accept);
+                }
+                if (accept) {
                     current = bestCandidate;
                     currFit = bestCandidateFit;
                     accepted++;
@@ -396,6 +456,8 @@ public class SimulatedAnnealingSolver {
                     if (currFit < bestFit) {
                         best = deepCopy(current);
                         bestFit = currFit;
+                        if (ctx.wantsSnapshot()) ctx.publish(best, name());
+                        if (metrics != null) metrics.best(Incumbent.score(best, inst));   // shared scale, not SA fitness
                         noImproveIter = 0;
                         improvements[restart]++;
                     }
@@ -414,6 +476,7 @@ public class SimulatedAnnealingSolver {
                 }
                 
                 temperature = Math.max(MIN_TEMP, Math.min(MAX_TEMP, temperature));
+                if (metrics != null) metrics.iteration();
                 
                 // Early restart if temperature gets too low
                 if (temperature <= MIN_TEMP * 1.1) {
@@ -425,8 +488,10 @@ public class SimulatedAnnealingSolver {
             if (bestFit < overallBestFit) {
                 overallBest = deepCopy(best);
                 overallBestFit = bestFit;
+                if (incumbent != null) incumbent.offer(overallBest, name());
             }
             bestFits[restart] = bestFit;
+            ctx.progress(name(), iteration, overallBestFit, evaluations);
 
             // Print progress
             if ((restart + 1) % 10 == 0) {
@@ -444,6 +509,7 @@ public class SimulatedAnnealingSolver {
         System.out.printf("Average improvement per restart: %.2f\n", 
             Arrays.stream(improvements).average().orElse(0));
 
+        if (metrics != null) metrics.end();
         return overallBest;
     }
 
@@ -507,48 +573,52 @@ public class SimulatedAnnealingSolver {
         }
     }
 
+    // Time-window precedence: can [first..last] be inserted at pos (between pos-1 and pos)?
+    private boolean fits(List<Node> route, int pos, Node first, Node last) {
+        TimeWindowCompatibility tw = inst.compatibility();
+        Node pred = pos > 0 ? route.get(pos - 1) : inst.depot;
+        Node succ = pos < route.size() ? route.get(pos) : inst.depot;
+        return tw.compatible(pred, first) && tw.compatible(last, succ);
+    }
+
+    // Can c replace the customer at idx (between its current neighbours)?
+    private boolean fitsAt(List<Node> route, int idx, Node c) {
+        TimeWindowCompatibility tw = inst.compatibility();
+        Node pred = idx > 0 ? route.get(idx - 1) : inst.depot;
+        Node succ = idx < route.size() - 1 ? route.get(idx + 1) : inst.depot;
+        return tw.compatible(pred, c) && tw.compatible(c, succ);
+    }
+
     // Calculate the cost of inserting a customer at a specific position
     private double calculateInsertionCost(Route route, Node customer, int position) {
         if (position == 0) {
-            return inst.depot.distanceTo(customer) + 
-                   (route.customers.isEmpty() ? 0 : customer.distanceTo(route.customers.get(0)));
+            return inst.dist(inst.depot, customer) + 
+                   (route.customers.isEmpty() ? 0 : inst.dist(customer, route.customers.get(0)));
         } else if (position == route.customers.size()) {
-            return route.customers.get(position-1).distanceTo(customer) + 
-                   customer.distanceTo(inst.depot);
+            return inst.dist(route.customers.get(position-1), customer) + 
+                   inst.dist(customer, inst.depot);
         } else {
             Node prev = route.customers.get(position-1);
             Node next = route.customers.get(position);
-            return prev.distanceTo(customer) + customer.distanceTo(next) - prev.distanceTo(next);
+            return inst.dist(prev, customer) + inst.dist(customer, next) - inst.dist(prev, next);
         }
     }
 
-    // Fitness function for SA 
-    private double fitness(ArrayList<Route> sol) {
-        double dist = 0;
-        double twPenalty = 0;
+    // Fitness function for SA (package-private for the JMH benchmarks):
+    // the shared score plus penalties that steer towards fewer, evenly loaded routes.
+    // Lateness is weighted as in the shared score, 1000 per late customer plus 10 per minute
+    // (SA used to charge 100 per minute and nothing per customer)
+    double fitness(ArrayList<Route> sol) {
         double loadPenalty = 0;
         double routePenalty = sol.size() * 1000; // Penalty for number of routes
 
-        // Distance and time window penalties
         for (Route r : sol) {
-            dist += r.calculateTotalDistance(inst.depot);
-            Node prev = inst.depot;
-            double t = 0;
-
-            for (Node n : r.customers) {
-                t += prev.distanceTo(n);
-                t = Math.max(t, n.ready);
-                if (t > n.due) twPenalty += (t - n.due);  // Penalize lateness
-                t += n.service;
-                prev = n;
-
-                // Add a small penalty for load imbalance
-                loadPenalty += Math.pow(r.load / (double)r.capacity, 2);
-            }
+            // Small penalty for load imbalance, once per customer on the route
+            loadPenalty += r.customers.size() * Math.pow(r.load / (double) r.capacity, 2);
         }
-        
+
         // Weighted sum of objectives
-        return dist + 100 * twPenalty + 10 * loadPenalty + routePenalty;
+        return SolutionEvaluator.cost(sol, inst, inst.depot) + 10 * loadPenalty + routePenalty;
     }
 
     private ArrayList<Route> deepCopy(ArrayList<Route> sol) {
@@ -0,0 +1,250 @@
+package core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Versioned little-endian binary snapshots of instances (.vrpi) and solutions (.vrps).
+ * <pre>
+ * instance : "VRPI" version flags n vehicleCount vehicleCapacity nameLen name pad8
+ *            int[n] x, y, demand, ready, due, service  pad8
+ *            [double scale  distances]  [double scale  durations]   (v2; v1: bare double[n*n])
+ * solution : "VRPS" version routeCount stopCount  double cost  long createdMillis
+ *            metaLen meta pad8  int[routeCount] routeLengths  int[stopCount] stops
+ * </pre>
+ * The matrices are stored in any {@link PackedDistanceStore} layout and encoding (flags bit 1 =
+ * upper triangle, bits 2–3 = encoding, bit 4 = durations follow, bit 5 = asymmetric) and the
+ * reader maps them in place as the instance's {@link DistanceStore}s, so even multi-gigabyte
+ * matrices open without being read. The other
+ * sections are bulk-copied into primitive arrays; no object is created per element (only the
+ * Node list an instance needs for the solvers).
+ */
+public final class SnapshotIO {
+
+    public static final int INSTANCE_MAGIC = 0x49505256;   // "VRPI" little-endian
+    public static final int SOLUTION_MAGIC = 0x53505256;   // "VRPS" little-endian
+    public static final int INSTANCE_VERSION = 2;
+    public static final int SOLUTION_VERSION = 1;
+
+    private static final int FLAG_MATRIX   = 1;
+    private static final int FLAG_TRIANGLE = 2;
+    private static final int ENCODING_SHIFT = 2;
+    private static final int FLAG_DURATIONS = 16;
+    private static final int FLAG_ASYMMETRIC = 32;
+
+    /* ---------- instances ---------- */
+    /** Full double matrices when {@code withMatrix}; exact and valid for asymmetric instances. */
+    public static void writeInstance(Path file, VRPInstance inst, boolean withMatrix) throws IOException {
+        if (withMatrix) writeInstance(file, inst, PackedDistanceStore.Layout.FULL, PackedDistanceStore.Encoding.FLOAT64);
+        else            writeInstance(file, inst, null, null);
+    }
+
+    /**
+     * Stores the instance's distances (and durations, if any) with the given layout and encoding,
+     * or no matrix at all if {@code layout} is null.
+     */
+    public static void writeInstance(Path file, VRPInstance inst, PackedDistanceStore.Layout layout,
+                                     PackedDistanceStore.Encoding encoding) throws IOException {
+        int n = inst.size();
+        byte[] name = inst.name.getBytes(StandardCharsets.UTF_8);
+        boolean matrix = layout != null && inst.distances != null;
+
+        int flags = inst.symmetric ? 0 : FLAG_ASYMMETRIC;
+        if (matrix) {
+            if (!inst.symmetric && layout == PackedDistanceStore.Layout.UPPER_TRIANGLE)
+                throw new IllegalArgumentException("Asymmetric instance " + inst.name + " needs the FULL layout");
+            flags |= FLAG_MATRIX | encoding.ordinal() << ENCODING_SHIFT;
+            if (layout == PackedDistanceStore.Layout.UPPER_TRIANGLE) flags |= FLAG_TRIANGLE;
+            if (inst.durations != null) flags |= FLAG_DURATIONS;
+        }
+
+        int header = align8(4 * 7 + name.length);
+        ByteBuffer head = le(ByteBuffer.allocate(header + align8(6 * 4 * n)));
+        head.putInt(INSTANCE_MAGIC).putInt(INSTANCE_VERSION).putInt(flags).putInt(n)
+            .putInt(inst.vehicleCount).putInt(inst.vehicleCapacity).putInt(name.length).put(name);
+        head.position(header);
+        IntBuffer ints = head.asIntBuffer();
+        ints.put(inst.x, 0, n).put(inst.y, 0, n).put(inst.demand, 0, n)
+            .put(inst.ready, 0, n).put(inst.due, 0, n).put(inst.service, 0, n);
+        head.rewind();
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(ch, head);
+            if (matrix) {
+                writeMatrix(ch, inst.distances, n, layout, encoding);
+                if (inst.durations != null) writeMatrix(ch, inst.durations, n, layout, encoding);
+            }
+        }
+    }
+
+    /** Writes {@code double scale} followed by the encoded entries, unpadded. */
+    static void writeMatrix(FileChannel ch, DistanceStore d, int n, PackedDistanceStore.Layout layout,
+                            PackedDistanceStore.Encoding encoding) throws IOException {
+        boolean full = layout == PackedDistanceStore.Layout.FULL;
+        double scale = 1;
+        if (encoding == PackedDistanceStore.Encoding.FIXED16) {
+            double max = 0;
+            for (int i = 0; i < n; i++)
+                for (int j = full ? 0 : i + 1; j < n; j++) max = Math.max(max, d.get(i, j));
+            scale = Math.max(max, 1e-9) / 0xFFFF;
+        }
+
+        ByteBuffer buf = le(ByteBuffer.allocateDirect(1 << 16));
+        buf.putDouble(scale);
+        for (int i = 0; i < n; i++) {
+            for (int j = full ? 0 : i + 1; j < n; j++) {
+                if (buf.remaining() < 8) { buf.flip(); writeFully(ch, buf); buf.clear(); }
+                double v = d.get(i, j);
+                switch (encoding) {
+                    case FLOAT64: buf.putDouble(v); break;
+                    case FLOAT32: buf.putFloat((float) v); break;
+                    default:      buf.putShort((short) Math.max(0, Math.min(0xFFFF, Math.round(v / scale))));
+                }
+            }
+        }
+        buf.flip();
+        writeFully(ch, buf);
+    }
+
+    public static VRPInstance readInstance(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            /* everything up to the matrix is far below 2 GB; the matrix is mapped separately */
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(ch.size(), Integer.MAX_VALUE));
+            le(buf);
+            check(buf.getInt(), INSTANCE_MAGIC, file);
+            int version = buf.getInt();
+            if (version < 1 || version > INSTANCE_VERSION)
+                throw new IOException("Unsupported instance version " + version + ": " + file);
+            int flags = buf.getInt();
+            int n     = buf.getInt();
+
+            VRPInstance inst = new VRPInstance();
+            inst.vehicleCount    = buf.getInt();
+            inst.vehicleCapacity = buf.getInt();
+            inst.name = string(buf);
+            buf.position(align8(buf.position()));
+
+            IntBuffer ints = buf.asIntBuffer();
+            inst.x = new int[n]; inst.y = new int[n]; inst.demand = new int[n];
+            inst.ready = new int[n]; inst.due = new int[n]; inst.service = new int[n];
+            ints.get(inst.x).get(inst.y).get(inst.demand).get(inst.ready).get(inst.due).get(inst.service);
+            buf.position(buf.position() + align8(6 * 4 * n));
+            inst.buildNodes(n);
+
+            if ((flags & FLAG_MATRIX) != 0) {
+                PackedDistanceStore.Layout layout = (flags & FLAG_TRIANGLE) != 0
+                        ? PackedDistanceStore.Layout.UPPER_TRIANGLE : PackedDistanceStore.Layout.FULL;
+                PackedDistanceStore.Encoding encoding =
+                        PackedDistanceStore.Encoding.values()[(flags >>> ENCODING_SHIFT) & 3];
+                long offset = buf.position();
+                double scale = 1;
+                if (version >= 2) { scale = buf.getDouble(); offset += 8; }
+                inst.distances = PackedDistanceStore.map(ch, offset, n, layout, encoding, scale,
+                        FileChannel.MapMode.READ_ONLY);
+                if ((flags & FLAG_DURATIONS) != 0) {
+                    offset += PackedDistanceStore.byteSize(n, layout, encoding);
+                    inst.durations = PackedDistanceStore.map(ch, offset + 8, n, layout, encoding,
+                            readDouble(ch, offset), FileChannel.MapMode.READ_ONLY);
+                }
+                inst.symmetric = (flags & FLAG_ASYMMETRIC) == 0;
+            } else {
+                inst.computeDistanceMatrix();
+            }
+            return inst;
+        }
+    }
+
+    /* ---------- solutions ---------- */
+    public static void writeSolution(Path file, List<Route> routes, double cost, String meta) throws IOException {
+        int stops = 0;
+        for (Route r : routes) stops += r.customers.size();
+        byte[] m = (meta == null ? "" : meta).getBytes(StandardCharsets.UTF_8);
+
+        int header = align8(4 * 4 + 8 + 8 + 4 + m.length);
+        ByteBuffer buf = le(ByteBuffer.allocate(header + 4 * (routes.size() + stops)));
+        buf.putInt(SOLUTION_MAGIC).putInt(SOLUTION_VERSION).putInt(routes.size()).putInt(stops)
+           .putDouble(cost).putLong(System.currentTimeMillis()).putInt(m.length).put(m);
+        buf.position(header);
+        for (Route r : routes) buf.putInt(r.customers.size());
+        for (Route r : routes)
+            for (Node n : r.customers) buf.putInt(n.ID);
+        buf.rewind();
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(ch, buf);
+        }
+    }
+
+    public static SolutionSnapshot readSolution(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = map(ch);
+            le(buf);
+            check(buf.getInt(), SOLUTION_MAGIC, file);
+            int version = buf.getInt();
+            if (version != SOLUTION_VERSION) throw new IOException("Unsupported solution version " + version + ": " + file);
+            int routes = buf.getInt();
+            int stops  = buf.getInt();
+            double cost = buf.getDouble();
+            long created = buf.getLong();
+            String meta = string(buf);
+            buf.position(align8(buf.position()));
+
+            int[] lengths = new int[routes];
+            int[] ids     = new int[stops];
+            buf.asIntBuffer().get(lengths).get(ids);
+
+            int[] offsets = new int[routes + 1];
+            for (int r = 0; r < routes; r++) offsets[r + 1] = offsets[r] + lengths[r];
+            return new SolutionSnapshot(offsets, ids, cost, created, meta);
+        }
+    }
+
+    /* ---------- helpers ---------- */
+    private static MappedByteBuffer map(FileChannel ch) throws IOException {
+        if (ch.size() > Integer.MAX_VALUE)
+            throw new IOException("Solution snapshot larger than 2 GB");
+        return ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+    }
+
+    /** Little-endian double at an absolute file offset (which may lie beyond the first 2 GB). */
+    static double readDouble(FileChannel ch, long offset) throws IOException {
+        ByteBuffer b = le(ByteBuffer.allocate(8));
+        while (b.hasRemaining())
+            if (ch.read(b, offset + b.position()) < 0) throw new IOException("Unexpected end of file at " + offset);
+        return b.getDouble(0);
+    }
+
+    static <B extends ByteBuffer> B le(B b) {
+        b.order(ByteOrder.LITTLE_ENDIAN);
+        return b;
+    }
+
+    private static String string(ByteBuffer buf) {
+        byte[] b = new byte[buf.getInt()];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void check(int magic, int expected, Path file) throws IOException {
+        if (magic != expected) throw new IOException("Not a " + (expected == INSTANCE_MAGIC
+                ? "VRPI instance" : "VRPS solution") + " snapshot: " + file);
+    }
+
+    static void writeFully(FileChannel ch, ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) ch.write(b);
+    }
+
+    static int align8(int v) { return (v + 7) & ~7; }
+
+    private SnapshotIO() {}  // utility
+}
@@ -0,0 +1,146 @@
+package core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Loads Solomon (25–100 customers) and Gehring–Homberger (200–1000) VRPTW files:
+ * <pre>
+ *   C101
+ *
+ *   VEHICLE
+ *   NUMBER     CAPACITY
+ *     25         200
+ *
+ *   CUSTOMER
+ *   CUST NO.  XCOORD.   YCOORD.    DEMAND   READY TIME  DUE DATE   SERVICE TIME
+ *       0      40         50          0          0       1236          0
+ *       1      45         68         10        912        967         90
+ * </pre>
+ * The file is memory-mapped and scanned byte by byte; numeric rows go straight into
+ * the instance's primitive arrays and only header lines ever become Strings.
+ * Row order defines node IDs (row 0 = depot), matching the CUST NO. column of the standard sets.
+ */
+public final class SolomonReader {
+
+    public static VRPInstance read(String path) throws IOException {
+        return read(Paths.get(path));
+    }
+
+    public static VRPInstance read(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("Instance file too large: " + path);
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return parse(buf, path.getFileName().toString());
+        }
+    }
+
+    /** Parses from the buffer's position to its limit. */
+    public static VRPInstance parse(ByteBuffer buf, String fallbackName) throws IOException {
+        VRPInstance inst = new VRPInstance();
+        int cap = 128;
+        inst.x = new int[cap]; inst.y = new int[cap]; inst.demand = new int[cap];
+        inst.ready = new int[cap]; inst.due = new int[cap]; inst.service = new int[cap];
+
+        String name = null;
+        boolean inVehicle = false, inCustomer = false, vehicleRead = false;
+        double[] row = new double[7];
+        int n = 0, lineNo = 0;
+
+        while (buf.hasRemaining()) {
+            int start = buf.position(), end = start;
+            while (end < buf.limit() && buf.get(end) != '\n') end++;
+            buf.position(Math.min(end + 1, buf.limit()));
+            lineNo++;
+
+            int p = start;
+            while (p < end && isBlank(buf.get(p))) p++;
+            if (p == end) continue;
+
+            byte c = buf.get(p);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '.') {
+                int k = parseRow(buf, p, end, row);
+                if (inVehicle && !vehicleRead && k >= 2) {
+                    inst.vehicleCount    = (int) row[0];
+                    inst.vehicleCapacity = (int) row[1];
+                    vehicleRead = true;
+                } else if (inCustomer) {
+                    if (k < 7) throw new IOException("Line " + lineNo + ": expected 7 columns, found " + k);
+                    if (n == cap) {
+                        cap *= 2;
+                        inst.x = Arrays.copyOf(inst.x, cap);         inst.y = Arrays.copyOf(inst.y, cap);
+                        inst.demand = Arrays.copyOf(inst.demand, cap); inst.ready = Arrays.copyOf(inst.ready, cap);
+                        inst.due = Arrays.copyOf(inst.due, cap);     inst.service = Arrays.copyOf(inst.service, cap);
+                    }
+                    inst.x[n]       = (int) Math.round(row[1]);
+                    inst.y[n]       = (int) Math.round(row[2]);
+                    inst.demand[n]  = (int) Math.round(row[3]);
+                    inst.ready[n]   = (int) Math.round(row[4]);
+                    inst.due[n]     = (int) Math.round(row[5]);
+                    inst.service[n] = (int) Math.round(row[6]);
+                    n++;
+                }
+                continue;
+            }
+
+            /* header / text line */
+            String text = text(buf, p, end);
+            if (name == null) name = text;
+            if (text.startsWith("VEHICLE"))       { inVehicle = true;  inCustomer = false; }
+            else if (text.startsWith("CUSTOMER")) { inCustomer = true; inVehicle = false;  }
+        }
+
+        if (n == 0) throw new IOException("No customer rows found in " + fallbackName);
+
+        inst.x = Arrays.copyOf(inst.x, n);           inst.y = Arrays.copyOf(inst.y, n);
+        inst.demand = Arrays.copyOf(inst.demand, n); inst.ready = Arrays.copyOf(inst.ready, n);
+        inst.due = Arrays.copyOf(inst.due, n);       inst.service = Arrays.copyOf(inst.service, n);
+        inst.name = name != null ? name : fallbackName;
+        inst.buildNodes(n);
+        inst.computeDistanceMatrix();
+        return inst;
+    }
+
+    /** Parses up to {@code out.length} whitespace-separated numbers in [from, to); returns the count. */
+    private static int parseRow(ByteBuffer buf, int from, int to, double[] out) {
+        int k = 0, p = from;
+        while (p < to && k < out.length) {
+            while (p < to && isBlank(buf.get(p))) p++;
+            if (p >= to) break;
+
+            boolean neg = false;
+            if (buf.get(p) == '-') { neg = true; p++; }
+            long whole = 0; double frac = 0, scale = 0.1;
+            while (p < to && buf.get(p) >= '0' && buf.get(p) <= '9') whole = whole * 10 + (buf.get(p++) - '0');
+            if (p < to && buf.get(p) == '.') {
+                p++;
+                while (p < to && buf.get(p) >= '0' && buf.get(p) <= '9') { frac += (buf.get(p++) - '0') * scale; scale /= 10; }
+            }
+            out[k++] = neg ? -(whole + frac) : whole + frac;
+            while (p < to && !isBlank(buf.get(p))) p++;   // skip any trailing garbage in the token
+        }
+        return k;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static String text(ByteBuffer buf, int from, int to) {
+        while (to > from && isBlank(buf.get(to - 1))) to--;
+        byte[] b = new byte[to - from];
+        for (int i = 0; i < b.length; i++) b[i] = buf.get(from + i);
+        return new String(b, StandardCharsets.US_ASCII);
+    }
+
+    private SolomonReader() {}  // utility
+}
@@ -0,0 +1,187 @@
+package core;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The one schedule evaluation every component scores with: solvers, {@link Incumbent},
+ * the report writer and the agents. A single pass over the routes yields distance,
+ * lateness, waiting, capacity excess and missing or duplicate customers, so costs are
+ * comparable everywhere and a solution never needs a second walk to be judged.
+ * <p>
+ * Vehicles leave the depot at 0, wait for {@code ready} and serve for {@code service}.
+ * A stop is late when {@link #late} says so: service starts more than {@value #EPS} minute
+ * after {@code due}. That one test drives both the cost ({@link Evaluation#cost()}) and the
+ * feasibility verdict, and every component that checks windows (optimisers, planner,
+ * simulator) calls it, so "on time" means the same everywhere.
+ * <p>
+ * Route lists are walked through their {@link Node}s (customers added at runtime need not
+ * be in the instance arrays); {@link #routeCost(int[], int)} is the allocation-free variant
+ * over node IDs and the instance's primitive arrays, for array-based searches.
+ */
+public final class SolutionEvaluator {
+
+    /** Minutes a stop may start after {@code due} (or wait beyond its window) and still count as feasible. */
+    public static final double EPS = 1.0;
+
+    /** Cost per late customer and per minute late. */
+    public static final double LATE_PENALTY = 1000, LATE_MINUTE_PENALTY = 10;
+
+    /** Totals of one evaluation. */
+    public static final class Evaluation {
+        public int    routes, stops;
+        public double distance, wait;
+        /** Stops judged {@link SolutionEvaluator#late}, and by how many minutes after {@code due} in total / at worst. */
+        public int    lateCustomers;
+        public double lateness, maxLateness;
+        /** Stops waiting longer than their window is wide. */
+        public int    longWaits;
+        /** Routes loaded beyond {@link Route#capacity}, and the summed overflow. */
+        public int    overloadedRoutes, capacityExcess;
+        /** Instance customers on no route, and extra visits of customers already routed. */
+        public int    missing, duplicates;
+
+        /** Distance plus 1000 per late customer and 10 per minute late. */
+        public double cost() {
+            return distance + LATE_PENALTY * lateCustomers + LATE_MINUTE_PENALTY * lateness;
+        }
+
+        /** No late stop, no overload, every customer exactly once; long waits are legal. */
+        public boolean feasible() {
+            return lateCustomers == 0 && capacityExcess == 0 && missing == 0 && duplicates == 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("cost %.1f (distance %.1f, %d late, %.1f min), %d routes, %d stops, "
+                            + "%d long waits, capacity excess %d, %d missing, %d duplicates",
+                    cost(), distance, lateCustomers, lateness, routes, stops,
+                    longWaits, capacityExcess, missing, duplicates);
+        }
+    }
+
+    /** Per-stop schedule, in route order; used to stream reports from the evaluating pass. */
+    public interface StopVisitor {
+        void stop(int route, Node n, double start, double wait, boolean late, boolean waitLong) throws IOException;
+        void route(int route, Route r, double distance, boolean feasible) throws IOException;
+    }
+
+    /* ---------- shared verdicts ---------- */
+    /** Service starting at {@code start} is too late for {@code due}, beyond the {@link #EPS} slack. */
+    public static boolean late(double start, int due) {
+        return start - EPS > due;
+    }
+
+    /** Waiting {@code wait} minutes is longer than the window {@code [ready, due]} is wide, beyond the slack. */
+    public static boolean waitExceeds(double wait, int ready, int due) {
+        return wait - EPS > due - ready;
+    }
+
+    /* ---------- route lists ---------- */
+    /** Everything, including coverage of {@code inst.customers}. */
+    public static Evaluation evaluate(List<Route> routes, VRPInstance inst) {
+        try {
+            return evaluate(routes, inst, inst.depot, true, null);
+        } catch (IOException e) {
+            throw new AssertionError(e);                   // no visitor, nothing to write
+        }
+    }
+
+    /** {@link Evaluation#cost()} of {@code routes}; {@code inst} may be null (Euclidean from the nodes). */
+    public static double cost(List<Route> routes, VRPInstance inst, Node depot) {
+        try {
+            return evaluate(routes, inst, depot, false, null).cost();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * One pass over {@code routes}. Coverage (missing / duplicates) needs {@code inst} and is only
+     * counted when asked for; {@code visitor}, if any, sees every stop and route as it is judged.
+     */
+    static Evaluation evaluate(List<Route> routes, VRPInstance inst, Node depot, boolean coverage,
+                               StopVisitor visitor) throws IOException {
+        Evaluation e = new Evaluation();
+        BitSet seen = coverage && inst != null ? new BitSet(inst.size()) : null;
+        int idx = 0;
+        for (Route r : routes) {
+            idx++;
+            double t = 0, dist = 0; Node prev = depot;
+            int load = 0, before = e.lateCustomers + e.longWaits;
+            for (Node n : r.customers) {
+                double travel = inst != null ? inst.travel(prev, n) : prev.distanceTo(n);
+                dist += inst != null ? inst.dist(prev, n) : prev.distanceTo(n);
+                double arrive = t + travel;
+                double wait   = Math.max(0, n.ready - arrive);
+                double start  = arrive + wait;
+                e.wait += wait;
+                boolean late = late(start, n.due), waitLong = waitExceeds(wait, n.ready, n.due);
+                if (late) {
+                    e.lateCustomers++;
+                    e.lateness += start - n.due;
+                    if (start - n.due > e.maxLateness) e.maxLateness = start - n.due;
+                }
+                if (waitLong) e.longWaits++;
+                if (visitor != null) visitor.stop(idx, n, start, wait, late, waitLong);
+
+                load += n.demand;
+                if (seen != null && n.ID >= 0) {
+                    if (seen.get(n.ID)) e.duplicates++;
+                    else seen.set(n.ID);
+                }
+                t = start + n.service;
+                prev = n;
+            }
+            dist += inst != null ? inst.dist(prev, depot) : prev.distanceTo(depot);
+            if (load > r.capacity) { e.overloadedRoutes++; e.capacityExcess += load - r.capacity; }
+            if (visitor != null) visitor.route(idx, r, dist, e.lateCustomers + e.longWaits == before);
+            e.distance += dist;
+            e.stops += r.customers.size();
+        }
+        e.routes = idx;
+        if (seen != null)
+            for (Node c : inst.customers) if (!seen.get(c.ID)) e.missing++;
+        return e;
+    }
+
+    /** Distance and lateness of one route ({@link Evaluation#cost()} of it alone). */
+    static Evaluation route(Route r, VRPInstance inst, Node depot) {
+        try {
+            return evaluate(Collections.singletonList(r), inst, depot, false, null);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /* ---------- node IDs over the instance arrays ---------- */
+    private final DistanceStore dist, time;
+    private final int[] ready, due, service;
+
+    /** Bound to the instance's matrices and primitive arrays as they are now. */
+    public SolutionEvaluator(VRPInstance inst) {
+        this.dist    = inst.distances;
+        this.time    = inst.durations != null ? inst.durations : inst.distances;
+        this.ready   = inst.ready;
+        this.due     = inst.due;
+        this.service = inst.service;
+    }
+
+    /** {@link Evaluation#cost()} of the route visiting {@code ids[0..len)} from and back to the depot (ID 0). */
+    public double routeCost(int[] ids, int len) {
+        if (len == 0) return 0;
+        double cost = 0, late = 0, t = 0;
+        int lateCount = 0, prev = 0;
+        for (int k = 0; k < len; k++) {
+            int c = ids[k];
+            cost += dist.get(prev, c);
+            t = Math.max(t + time.get(prev, c), ready[c]);
+            if (late(t, due[c])) { lateCount++; late += t - due[c]; }
+            t += service[c];
+            prev = c;
+        }
+        return cost + dist.get(prev, 0) + LATE_PENALTY * lateCount + LATE_MINUTE_PENALTY * late;
+    }
+}
@@ -0,0 +1,90 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flat, immutable view of an archived solution: route {@code r} visits
+ * {@code stops[offsets[r] .. offsets[r+1])}. Produced by {@link SnapshotIO#readSolution}
+ * and, for live progress, by {@link SolutionStream}.
+ */
+public final class SolutionSnapshot {
+
+    public final int[] offsets;
+    public final int[] stops;
+    public final double cost;
+    public final long createdMillis;
+    public final String meta;
+
+    SolutionSnapshot(int[] offsets, int[] stops, double cost, long createdMillis, String meta) {
+        this.offsets = offsets;
+        this.stops = stops;
+        this.cost = cost;
+        this.createdMillis = createdMillis;
+        this.meta = meta;
+    }
+
+    /** Flattens {@code routes} (node IDs), skipping empty ones. */
+    public static SolutionSnapshot of(List<Route> routes, double cost, String meta) {
+        int n = 0, used = 0;
+        for (Route r : routes) if (!r.customers.isEmpty()) { n += r.customers.size(); used++; }
+        int[] offsets = new int[used + 1], stops = new int[n];
+        int k = 0, ri = 0;
+        for (Route r : routes) {
+            if (r.customers.isEmpty()) continue;
+            for (Node c : r.customers) stops[k++] = c.ID;
+            offsets[++ri] = k;
+        }
+        return new SolutionSnapshot(offsets, stops, cost, System.currentTimeMillis(), meta);
+    }
+
+    public int routeCount() { return offsets.length - 1; }
+
+    /** Rebuilds mutable routes against {@code inst} (IDs index the instance's nodes). */
+    public ArrayList<Route> toRoutes(VRPInstance inst, int capacity) {
+        ArrayList<Route> out = new ArrayList<>(routeCount());
+        for (int r = 0; r < routeCount(); r++) {
+            Route route = new Route();
+            route.capacity = capacity;
+            for (int k = offsets[r]; k < offsets[r + 1]; k++)
+                route.addCustomer(inst.customers.get(stops[k] - 1));
+            route.updateArrivals(inst);
+            out.add(route);
+        }
+        return out;
+    }
+
+    /**
+     * Number of customers whose predecessor (another customer or the depot, as 0)
+     * differs between the two solutions — 0 means the same set of routes.
+     */
+    public int diff(SolutionSnapshot other) {
+        int max = 0;
+        for (int id : stops) max = Math.max(max, id);
+        for (int id : other.stops) max = Math.max(max, id);
+
+        int[] mine = predecessors(max), theirs = other.predecessors(max);
+        int changed = 0;
+        for (int id = 1; id <= max; id++) if (mine[id] != theirs[id]) changed++;
+        return changed;
+    }
+
+    private int[] predecessors(int max) {
+        int[] pred = new int[max + 1];
+        Arrays.fill(pred, -1);
+        for (int r = 0; r < routeCount(); r++) {
+            int prev = 0;
+            for (int k = offsets[r]; k < offsets[r + 1]; k++) {
+                pred[stops[k]] = prev;
+                prev = stops[k];
+            }
+        }
+        return pred;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d routes, %d stops, cost %.2f (%s)", routeCount(), stops.length, cost, meta);
+    }
+}
@@ -0,0 +1,97 @@
+package core;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latest-value channel from running solvers to a display. Solvers ask {@link #ready()} (one
+ * clock read) and only then build a snapshot; at most {@code framesPerSecond} are taken, and
+ * one is kept only if it beats everything published so far, so a portfolio of engines
+ * still streams a monotone curve; only the closing frame ({@link #publishFinal}) skips that
+ * filter. The single slot is overwritten, never queued: a slow consumer just sees the newest frame.
+ * <p>
+ * Costs are re-scored with {@link Incumbent#score} so every engine is on the same scale.
+ */
+public final class SolutionStream {
+
+    /** One published solution. */
+    public static final class Frame {
+        public final SolutionSnapshot solution;
+        public final double cost;
+        public final long   elapsedMs;             // since the stream was created
+        public final String source;
+
+        Frame(SolutionSnapshot solution, double cost, long elapsedMs, String source) {
+            this.solution  = solution;
+            this.cost      = cost;
+            this.elapsedMs = elapsedMs;
+            this.source    = source;
+        }
+    }
+
+    private final VRPInstance inst;
+    private final long intervalNanos;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong nextDue = new AtomicLong(startNanos);
+    private final AtomicReference<Frame> slot = new AtomicReference<>();
+    private double bestCost = Double.POSITIVE_INFINITY;   // guarded by this
+
+    public SolutionStream(VRPInstance inst, int framesPerSecond) {
+        this.inst = inst;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, framesPerSecond);
+    }
+
+    /** True when a snapshot would be taken now; cheap enough for inner loops. */
+    public boolean ready() {
+        return System.nanoTime() - nextDue.get() >= 0;
+    }
+
+    /**
+     * Offers {@code routes}; copies them only if this call wins the current frame and they
+     * improve on the best published cost. Returns true when a frame was published.
+     */
+    public boolean publish(List<Route> routes, String source) {
+        long now = System.nanoTime(), due = nextDue.get();
+        if (now - due < 0 || !nextDue.compareAndSet(due, now + intervalNanos)) return false;
+        return offer(routes, source, now);
+    }
+
+    /** Publishes regardless of the frame rate (e.g. a solver's final answer), still only if better. */
+    public boolean publishNow(List<Route> routes, String source) {
+        return offer(routes, source, System.nanoTime());
+    }
+
+    /**
+     * Publishes the closing frame (e.g. the plan as dispatched) even if it does not beat the best
+     * so far, so a display ends on the solution actually used.
+     */
+    public void publishFinal(List<Route> routes, String source) {
+        double cost = Incumbent.score(routes, inst);
+        synchronized (this) {
+            bestCost = Math.min(bestCost, cost);
+            slot.set(frame(routes, cost, source, System.nanoTime()));
+        }
+    }
+
+    private boolean offer(List<Route> routes, String source, long now) {
+        double cost = Incumbent.score(routes, inst);
+        synchronized (this) {                      // so a worse frame never overwrites a better one
+            if (cost >= bestCost) return false;
+            bestCost = cost;
+            slot.set(frame(routes, cost, source, now));
+        }
+        return true;
+    }
+
+    private Frame frame(List<Route> routes, double cost, String source, long now) {
+        return new Frame(SolutionSnapshot.of(routes, cost, source), cost,
+                TimeUnit.NANOSECONDS.toMillis(now - startNanos), source);
+    }
+
+    /** Newest frame not yet taken, or null. */
+    public Frame poll() {
+        return slot.getAndSet(null);
+    }
+}
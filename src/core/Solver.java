@@ -0,0 +1,20 @@
+package core;
+
+import java.util.ArrayList;
+
+/**
+ * Common entry point for every construction heuristic, local search and metaheuristic.
+ * Budgets, cancellation, seeding, warm starts and progress reporting all travel in the
+ * {@link SolverContext}, so orchestration code can drive any solver the same way.
+ */
+public interface Solver {
+
+    /** Display name, matching {@link Algorithms} where the solver is listed there. */
+    String name();
+
+    /**
+     * Solves {@code inst} for vehicles of {@code capacity}. Implementations poll
+     * {@link SolverContext#shouldStop(long)} and return their best routes when it says so.
+     */
+    ArrayList<Route> solve(VRPInstance inst, int capacity, SolverContext ctx);
+}
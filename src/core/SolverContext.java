@@ -0,0 +1,123 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Budget, cancellation, seed, warm start and progress sinks (listeners and a live
+ * {@link SolutionStream}) for one {@link Solver} run.
+ * A context may be shared by solvers running concurrently (see {@link PortfolioSolver}).
+ */
+public class SolverContext {
+
+    private final long startNanos = System.nanoTime();
+
+    private boolean hasDeadline = false;
+    private long deadline;                         // System.nanoTime() based
+    private long maxIterations = Long.MAX_VALUE;
+    private boolean seeded = false;
+    private long seed;
+
+    private CancellationToken cancellation = new CancellationToken();
+    private final List<ProgressListener> listeners = new CopyOnWriteArrayList<>();
+    private List<Route> initial;
+    private Incumbent incumbent;
+    private SolutionStream stream;
+
+    /* ---------- configuration ---------- */
+    public SolverContext timeLimit(long ms) {
+        return deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+    public SolverContext deadline(long nanoTime) {
+        this.deadline = nanoTime;
+        this.hasDeadline = true;
+        return this;
+    }
+    public SolverContext maxIterations(long n)               { this.maxIterations = n; return this; }
+    public SolverContext seed(long s)                        { this.seed = s; this.seeded = true; return this; }
+    public SolverContext cancellation(CancellationToken t)   { this.cancellation = t; return this; }
+    public SolverContext listener(ProgressListener l)        { listeners.add(l); return this; }
+    /** Warm start for improvement heuristics; copied on use, never modified. */
+    public SolverContext initial(List<Route> routes)         { this.initial = routes; return this; }
+    public SolverContext incumbent(Incumbent i)              { this.incumbent = i; return this; }
+    /** Live snapshots for a display; null detaches. */
+    public SolverContext stream(SolutionStream s)            { this.stream = s; return this; }
+
+    /**
+     * New context with the same seed, iteration budget, deadline, listeners and stream but its own
+     * cancellation token, warm start and incumbent — for orchestrators that run sub-solvers.
+     */
+    public SolverContext fork() {
+        SolverContext c = new SolverContext();
+        c.hasDeadline   = hasDeadline;
+        c.deadline      = deadline;
+        c.maxIterations = maxIterations;
+        c.seeded        = seeded;
+        c.seed          = seed;
+        c.listeners.addAll(listeners);
+        c.stream        = stream;
+        return c;
+    }
+
+    /**
+     * Copy for the {@code k}-th of several engines racing on this context: same budget, cancellation,
+     * incumbent and warm start, but a seed of its own so the engines do not draw one identical stream.
+     */
+    public SolverContext sibling(int k) {
+        SolverContext c = fork();
+        c.cancellation = cancellation;
+        c.incumbent    = incumbent;
+        c.initial      = initial;
+        c.seed         = seed + k * 0x9E3779B97F4A7C15L;      // golden-ratio stride spreads the seeds
+        return c;
+    }
+
+    /* ---------- queries used by solvers ---------- */
+    /** True once cancelled, past the deadline, or {@code iteration} has reached the budget. */
+    public boolean shouldStop(long iteration) {
+        return iteration >= maxIterations
+            || cancellation.isCancelled()
+            || (hasDeadline && System.nanoTime() - deadline >= 0);
+    }
+
+    /** Fresh generator per call so concurrent solvers never share one. */
+    public Random random() {
+        return seeded ? new Random(seed) : new Random();
+    }
+
+    public ArrayList<Route> initialCopy() {
+        return initial == null ? null : Incumbent.copy(initial);
+    }
+
+    public Incumbent incumbent()            { return incumbent; }
+    public CancellationToken cancellation() { return cancellation; }
+    public boolean hasDeadline()            { return hasDeadline; }
+    public long deadline()                  { return deadline; }
+
+    /* ---------- progress ---------- */
+    public boolean hasListeners() { return !listeners.isEmpty(); }
+
+    /** True when a display is attached and would take a snapshot now; check before building routes to publish. */
+    public boolean wantsSnapshot() { return stream != null && stream.ready(); }
+
+    /** Offers the solver's current best to the stream, if any (see {@link SolutionStream#publish}). */
+    public void publish(List<Route> routes, String solver) {
+        if (stream != null) stream.publish(routes, solver);
+    }
+
+    /** As {@link #publish}, ignoring the frame rate: for one-shot results. */
+    public void publishNow(List<Route> routes, String solver) {
+        if (stream != null) stream.publishNow(routes, solver);
+    }
+
+    public void progress(String solver, long iteration, double bestCost, long evaluations) {
+        if (listeners.isEmpty()) return;
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        ProgressListener.Progress p =
+                new ProgressListener.Progress(solver, iteration, bestCost, evaluations, elapsedMs);
+        for (ProgressListener l : listeners) l.onProgress(p);
+    }
+}
@@ -0,0 +1,369 @@
+package core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Solver instrumentation: per solver, striped {@link LongAdder} counters (iterations,
+ * move evaluations, proposals and acceptances, cache hits, per-operator attempts / successes /
+ * improvements), {@link Histogram}s of iteration time and time-to-target, and bytes allocated
+ * per iteration. Read through {@link #snapshot()}, {@link #every} or JMX
+ * ({@code core:type=SolverMetrics} plus one bean per solver).
+ * <p>
+ * Off unless {@code -Dvrp.metrics=true}: {@link #start} then returns null and solvers skip
+ * every probe behind one null check. {@code -Dvrp.metrics.target=COST} sets the cost whose
+ * first attainment per run feeds the time-to-target histogram (also settable over JMX).
+ * <p>
+ * A solver run calls {@link #start}, reports on the returned {@link Run} and {@link Run#end}s it.
+ * Counters may be bumped from any thread; {@link Run#iteration()} and {@link Run#end()} belong
+ * to the thread that started the run, whose allocations are the ones measured.
+ */
+public final class SolverMetrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("vrp.metrics");
+
+    private static final ConcurrentMap<String, Stats> STATS = new ConcurrentHashMap<>();
+    private static volatile double target = parseTarget(System.getProperty("vrp.metrics.target"));
+    private static volatile ScheduledExecutorService scheduler;
+
+    static {
+        if (ENABLED) register("core:type=SolverMetrics", new Control());
+    }
+
+    /** A new run of {@code solver}, or null when instrumentation is off. */
+    public static Run start(String solver) {
+        return ENABLED ? new Run(stats(solver)) : null;
+    }
+
+    /** Cost whose first attainment in a run is timed; NaN = none. */
+    public static double target()              { return target; }
+    public static void target(double cost)     { target = cost; }
+
+    /** Current totals of every solver seen so far, by name. */
+    public static Snapshot snapshot() {
+        Map<String, SolverSnapshot> out = new TreeMap<>();
+        for (Stats s : STATS.values()) out.put(s.solver, s.snapshot());
+        return new Snapshot(System.currentTimeMillis(), out);
+    }
+
+    /** Delivers a {@link #snapshot()} every {@code periodMs} on a daemon thread until the future is cancelled. */
+    public static ScheduledFuture<?> every(long periodMs, Consumer<Snapshot> sink) {
+        return scheduler().scheduleAtFixedRate(() -> sink.accept(snapshot()), periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Zeroes every counter and histogram. */
+    public static void reset() {
+        for (Stats s : STATS.values()) s.reset();
+    }
+
+    /* ---------- one solver run ---------- */
+    public static final class Run {
+        final Stats stats;
+        private final long startNanos, startAlloc;
+        private long lastIteration, iterations;
+        private boolean reachedTarget;
+
+        Run(Stats stats) {
+            this.stats = stats;
+            stats.runs.increment();
+            startNanos = lastIteration = System.nanoTime();
+            startAlloc = allocatedBytes();
+        }
+
+        /** Handle for a named move operator; look it up once per run, not per move. */
+        public Operator operator(String name) { return stats.operator(name); }
+
+        /** One outer iteration done (e.g. a temperature step, generation or pass); times it. */
+        public void iteration() {
+            long now = System.nanoTime(), d = now - lastIteration;
+            lastIteration = now;
+            iterations++;
+            stats.iterations.increment();
+            stats.iterationNanos.record(d);
+            stats.busyNanos.add(d);
+        }
+
+        public void evaluations(long n)  { stats.evaluations.add(n); }
+
+        /** A candidate was put to the acceptance test, and whether it passed. */
+        public void proposal(boolean accepted) {
+            stats.proposals.increment();
+            if (accepted) stats.accepted.increment();
+        }
+
+        public void cache(boolean hit)   { (hit ? stats.cacheHits : stats.cacheMisses).increment(); }
+
+        /** The run's best cost so far; the first one at or below {@link #target()} is timed. */
+        public void best(double cost) {
+            stats.bestCost.accumulate(cost);
+            if (!reachedTarget && cost <= target) {
+                reachedTarget = true;
+                stats.timeToTarget.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            }
+        }
+
+        public void end() {
+            stats.busyNanos.add(System.nanoTime() - lastIteration);
+            long alloc = allocatedBytes();
+            if (alloc >= 0 && startAlloc >= 0) {
+                stats.allocatedBytes.add(alloc - startAlloc);
+                stats.measuredIterations.add(iterations);
+            }
+        }
+    }
+
+    /** Attempt / success / improvement counts of one move type. */
+    public static final class Operator {
+        public final String name;
+        final LongAdder attempts = new LongAdder(), successes = new LongAdder(), improvements = new LongAdder();
+
+        Operator(String name) { this.name = name; }
+
+        public void attempt()          { attempts.increment(); }
+        public void attempts(long n)   { attempts.add(n); }
+        /** The move was feasible / taken. */
+        public void success()          { successes.increment(); }
+        public void successes(long n)  { successes.add(n); }
+        /** The move improved the cost it was judged against. */
+        public void improvement()      { improvements.increment(); }
+        public void improvements(long n) { improvements.add(n); }
+
+        void reset() { attempts.reset(); successes.reset(); improvements.reset(); }
+    }
+
+    /* ---------- snapshots ---------- */
+    /** Every solver's totals at one instant. */
+    public static final class Snapshot {
+        public final long takenAtMs;
+        public final Map<String, SolverSnapshot> solvers;
+
+        Snapshot(long takenAtMs, Map<String, SolverSnapshot> solvers) {
+            this.takenAtMs = takenAtMs;
+            this.solvers = Collections.unmodifiableMap(solvers);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (SolverSnapshot s : solvers.values()) sb.append(s).append('\n');
+            return sb.toString();
+        }
+    }
+
+    /** One solver's totals; rates are NaN where nothing has been counted yet. */
+    public static final class SolverSnapshot {
+        public final String solver;
+        public final long runs, iterations, evaluations, proposals, accepted, cacheHits, cacheMisses;
+        public final double evaluationsPerSecond, acceptanceRate, cacheHitRate, allocatedBytesPerIteration, bestCost;
+        public final double iterationMicrosP50, iterationMicrosP99;
+        public final long targetHits, timeToTargetMsP50;
+        /** Operator → {attempts, successes, improvements}. */
+        public final Map<String, long[]> operators;
+
+        SolverSnapshot(Stats s) {
+            solver      = s.solver;
+            runs        = s.runs.sum();
+            iterations  = s.iterations.sum();
+            evaluations = s.evaluations.sum();
+            proposals   = s.proposals.sum();
+            accepted    = s.accepted.sum();
+            cacheHits   = s.cacheHits.sum();
+            cacheMisses = s.cacheMisses.sum();
+            long busy = s.busyNanos.sum(), measured = s.measuredIterations.sum();
+            evaluationsPerSecond       = busy == 0 ? Double.NaN : evaluations * 1e9 / busy;
+            acceptanceRate             = ratio(accepted, proposals);
+            cacheHitRate               = ratio(cacheHits, cacheHits + cacheMisses);
+            allocatedBytesPerIteration = ratio(s.allocatedBytes.sum(), measured);
+            double best = s.bestCost.get();
+            bestCost            = best == Double.POSITIVE_INFINITY ? Double.NaN : best;
+            iterationMicrosP50  = s.iterationNanos.percentile(0.50) / 1_000.0;
+            iterationMicrosP99  = s.iterationNanos.percentile(0.99) / 1_000.0;
+            targetHits          = s.timeToTarget.count();
+            timeToTargetMsP50   = s.timeToTarget.percentile(0.50);
+            Map<String, long[]> ops = new TreeMap<>();
+            for (Operator o : s.operators.values())
+                ops.put(o.name, new long[]{ o.attempts.sum(), o.successes.sum(), o.improvements.sum() });
+            operators = Collections.unmodifiableMap(ops);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format(
+                    "%s: runs=%d it=%d evals=%d (%.0f/s) accept=%.3f cache=%.3f alloc/it=%.0fB best=%.2f "
+                            + "it p50/p99=%.1f/%.1fus target hits=%d p50=%dms",
+                    solver, runs, iterations, evaluations, evaluationsPerSecond, acceptanceRate, cacheHitRate,
+                    allocatedBytesPerIteration, bestCost, iterationMicrosP50, iterationMicrosP99,
+                    targetHits, timeToTargetMsP50));
+            for (Map.Entry<String, long[]> e : operators.entrySet()) {
+                long[] v = e.getValue();
+                sb.append(String.format("%n  %-12s attempts=%d successes=%d improvements=%d", e.getKey(), v[0], v[1], v[2]));
+            }
+            return sb.toString();
+        }
+    }
+
+    /* ---------- JMX ---------- */
+    /** Global bean: the time-to-target cost, solver names, a text dump and reset. */
+    public interface ControlMXBean {
+        double getTarget();
+        void setTarget(double cost);
+        String[] getSolvers();
+        String getSummary();
+        void reset();
+    }
+
+    /** Per-solver bean ({@code core:type=SolverMetrics,solver=<name>}). */
+    public interface StatsMXBean {
+        long getRuns();
+        long getIterations();
+        long getEvaluations();
+        double getEvaluationsPerSecond();
+        double getAcceptanceRate();
+        double getCacheHitRate();
+        double getAllocatedBytesPerIteration();
+        double getBestCost();
+        double getIterationMicrosP50();
+        double getIterationMicrosP99();
+        long getTargetHits();
+        long getTimeToTargetMsP50();
+        /** "name attempts successes improvements" per operator. */
+        String[] getOperators();
+        void reset();
+    }
+
+    private static final class Control implements ControlMXBean {
+        @Override public double getTarget()           { return target; }
+        @Override public void setTarget(double cost)  { target = cost; }
+        @Override public String[] getSolvers()        { return STATS.keySet().toArray(new String[0]); }
+        @Override public String getSummary()          { return snapshot().toString(); }
+        @Override public void reset()                 { SolverMetrics.reset(); }
+    }
+
+    static final class Stats implements StatsMXBean {
+        final String solver;
+        final LongAdder runs = new LongAdder(), iterations = new LongAdder(), evaluations = new LongAdder();
+        final LongAdder proposals = new LongAdder(), accepted = new LongAdder();
+        final LongAdder cacheHits = new LongAdder(), cacheMisses = new LongAdder();
+        final LongAdder busyNanos = new LongAdder(), allocatedBytes = new LongAdder(), measuredIterations = new LongAdder();
+        final DoubleAccumulator bestCost = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        final Histogram iterationNanos = new Histogram(), timeToTarget = new Histogram();
+        final ConcurrentMap<String, Operator> operators = new ConcurrentHashMap<>();
+
+        Stats(String solver) { this.solver = solver; }
+
+        Operator operator(String name) { return operators.computeIfAbsent(name, Operator::new); }
+
+        SolverSnapshot snapshot() { return new SolverSnapshot(this); }
+
+        @Override public long getRuns()                          { return runs.sum(); }
+        @Override public long getIterations()                    { return iterations.sum(); }
+        @Override public long getEvaluations()                   { return evaluations.sum(); }
+        @Override public double getEvaluationsPerSecond()        { return snapshot().evaluationsPerSecond; }
+        @Override public double getAcceptanceRate()              { return ratio(accepted.sum(), proposals.sum()); }
+        @Override public double getCacheHitRate()                { return snapshot().cacheHitRate; }
+        @Override public double getAllocatedBytesPerIteration() { return snapshot().allocatedBytesPerIteration; }
+        @Override public double getBestCost()                    { return snapshot().bestCost; }
+        @Override public double getIterationMicrosP50()          { return iterationNanos.percentile(0.50) / 1_000.0; }
+        @Override public double getIterationMicrosP99()          { return iterationNanos.percentile(0.99) / 1_000.0; }
+        @Override public long getTargetHits()                    { return timeToTarget.count(); }
+        @Override public long getTimeToTargetMsP50()             { return timeToTarget.percentile(0.50); }
+
+        @Override
+        public String[] getOperators() {
+            List<String> out = new ArrayList<>();
+            for (Operator o : operators.values())
+                out.add(o.name + " " + o.attempts.sum() + " " + o.successes.sum() + " " + o.improvements.sum());
+            return out.toArray(new String[0]);
+        }
+
+        @Override
+        public void reset() {
+            for (LongAdder a : new LongAdder[]{ runs, iterations, evaluations, proposals, accepted, cacheHits,
+                    cacheMisses, busyNanos, allocatedBytes, measuredIterations })
+                a.reset();
+            bestCost.reset();
+            iterationNanos.reset();
+            timeToTarget.reset();
+            for (Operator o : operators.values()) o.reset();
+        }
+    }
+
+    /* ---------- helpers ---------- */
+    private static Stats stats(String solver) {
+        Stats s = STATS.get(solver);
+        if (s != null) return s;
+        Stats created = new Stats(solver);
+        s = STATS.putIfAbsent(solver, created);
+        if (s != null) return s;
+        register("core:type=SolverMetrics,solver=" + ObjectName.quote(solver), created);
+        return created;
+    }
+
+    private static void register(String name, Object bean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName on = new ObjectName(name);
+            if (!server.isRegistered(on)) server.registerMBean(bean, on);
+        } catch (JMException | SecurityException e) {
+            System.err.println("[METRICS] JMX registration of " + name + " failed: " + e);
+        }
+    }
+
+    /** Bytes allocated so far by the current thread, or -1 where the JVM cannot tell. */
+    private static long allocatedBytes() {
+        ThreadMXBean t = ManagementFactory.getThreadMXBean();
+        if (t instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hs = (com.sun.management.ThreadMXBean) t;
+            if (hs.isThreadAllocatedMemorySupported() && hs.isThreadAllocatedMemoryEnabled())
+                return hs.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static ScheduledExecutorService scheduler() {
+        ScheduledExecutorService s = scheduler;
+        if (s == null) {
+            synchronized (SolverMetrics.class) {
+                if ((s = scheduler) == null) {
+                    scheduler = s = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread t = new Thread(r, "solver-metrics");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+            }
+        }
+        return s;
+    }
+
+    private static double ratio(long a, long b) { return b == 0 ? Double.NaN : (double) a / b; }
+
+    private static double parseTarget(String s) {
+        if (s == null || s.isEmpty()) return Double.NaN;
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            System.err.println("[METRICS] Ignoring vrp.metrics.target=" + s);
+            return Double.NaN;
+        }
+    }
+
+    private SolverMetrics() {}  // utility
+}
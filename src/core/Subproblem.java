@@ -0,0 +1,140 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A cluster of customers shipped to a remote solver, and the routes that come back, as plain
+ * text (ACL message content). Nodes travel with their data and the receiver rebuilds Euclidean
+ * distances, so only instances without imported matrices should be shipped.
+ * <pre>
+ * job algorithm capacity k
+ * id x y demand ready due service        k + 1 lines, depot first; id = ID in the sender's instance
+ * </pre>
+ * Routes come back one per line as blank-separated sender IDs.
+ */
+public final class Subproblem {
+
+    public final String job, algorithm;
+    public final int capacity;
+    /** Sender IDs: local ID i is {@code ids[i - 1]}. */
+    public final int[] ids;
+    /** Local instance, renumbered 1..k. */
+    public final VRPInstance instance;
+
+    private Subproblem(String job, String algorithm, int capacity, int[] ids, VRPInstance instance) {
+        this.job = job;
+        this.algorithm = algorithm;
+        this.capacity = capacity;
+        this.ids = ids;
+        this.instance = instance;
+    }
+
+    /** Wire form of the customers {@code ids} of {@code inst}. */
+    public static String format(String job, String algorithm, VRPInstance inst, int[] ids, int capacity) {
+        StringBuilder sb = new StringBuilder(32 * (ids.length + 2));
+        sb.append(job).append(' ').append(algorithm.replace(' ', '_')).append(' ')
+          .append(capacity).append(' ').append(ids.length).append('\n');
+        appendNode(sb, inst, 0);
+        for (int id : ids) appendNode(sb, inst, id);
+        return sb.toString();
+    }
+
+    /** Wire form of explicit stops (e.g. one route, including customers added at run time), in order. */
+    public static String format(String job, String algorithm, Node depot, List<Node> stops, int capacity) {
+        StringBuilder sb = new StringBuilder(32 * (stops.size() + 2));
+        sb.append(job).append(' ').append(algorithm.replace(' ', '_')).append(' ')
+          .append(capacity).append(' ').append(stops.size()).append('\n');
+        appendNode(sb, depot);
+        for (Node c : stops) appendNode(sb, c);
+        return sb.toString();
+    }
+
+    private static void appendNode(StringBuilder sb, VRPInstance inst, int i) {
+        appendNode(sb, i, inst.x[i], inst.y[i], inst.demand[i], inst.ready[i], inst.due[i], inst.service[i]);
+    }
+
+    private static void appendNode(StringBuilder sb, Node n) {
+        appendNode(sb, n.ID, n.x, n.y, n.demand, n.ready, n.due, n.service);
+    }
+
+    private static void appendNode(StringBuilder sb, int id, int x, int y, int demand, int ready, int due, int service) {
+        sb.append(id).append(' ').append(x).append(' ').append(y).append(' ')
+          .append(demand).append(' ').append(ready).append(' ')
+          .append(due).append(' ').append(service).append('\n');
+    }
+
+    /** Parses {@link #format} output; throws IllegalArgumentException on malformed input. */
+    public static Subproblem parse(String text) {
+        String[] lines = text.split("\n");
+        String[] head = lines[0].trim().split("\\s+");
+        if (head.length != 4) throw new IllegalArgumentException("Bad subproblem header: " + lines[0]);
+        int capacity = Integer.parseInt(head[2]), k = Integer.parseInt(head[3]);
+        if (lines.length < k + 2) throw new IllegalArgumentException("Subproblem truncated: " + k + " customers announced");
+
+        int n = k + 1;
+        VRPInstance inst = new VRPInstance();
+        inst.x = new int[n]; inst.y = new int[n]; inst.demand = new int[n];
+        inst.ready = new int[n]; inst.due = new int[n]; inst.service = new int[n];
+        int[] ids = new int[k];
+        for (int i = 0; i < n; i++) {
+            String[] f = lines[i + 1].trim().split("\\s+");
+            if (f.length != 7) throw new IllegalArgumentException("Bad node line: " + lines[i + 1]);
+            if (i > 0) ids[i - 1] = Integer.parseInt(f[0]);
+            inst.x[i] = Integer.parseInt(f[1]); inst.y[i] = Integer.parseInt(f[2]);
+            inst.demand[i] = Integer.parseInt(f[3]); inst.ready[i] = Integer.parseInt(f[4]);
+            inst.due[i] = Integer.parseInt(f[5]); inst.service[i] = Integer.parseInt(f[6]);
+        }
+        inst.name = head[0];
+        inst.vehicleCapacity = capacity;
+        inst.buildNodes(n);
+        inst.computeDistanceMatrix();
+        return new Subproblem(head[0], head[1].replace('_', ' '), capacity, ids, inst);
+    }
+
+    /** Wire form of routes over {@link #instance}, in sender IDs. */
+    public String formatRoutes(List<Route> routes) {
+        StringBuilder sb = new StringBuilder(8 * (ids.length + routes.size()));
+        for (Route r : routes) {
+            if (r.customers.isEmpty()) continue;
+            for (int i = 0; i < r.customers.size(); i++) {
+                if (i > 0) sb.append(' ');
+                sb.append(ids[r.customers.get(i).ID - 1]);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Routes over {@code inst}'s nodes from {@link #formatRoutes} output. Returns null unless
+     * they visit exactly the customers {@code ids}, each once, within {@code capacity}.
+     */
+    public static ArrayList<Route> parseRoutes(String text, VRPInstance inst, int[] ids, int capacity) {
+        boolean[] expected = new boolean[inst.size()];
+        for (int id : ids) expected[id] = true;
+        int seen = 0;
+
+        ArrayList<Route> out = new ArrayList<>();
+        try {
+            for (String line : text.split("\n")) {
+                if (line.trim().isEmpty()) continue;
+                Route r = new Route();
+                r.capacity = capacity;
+                for (String tok : line.trim().split("\\s+")) {
+                    int id = Integer.parseInt(tok);
+                    if (id <= 0 || id >= inst.size() || !expected[id]) return null;   // unknown or repeated
+                    expected[id] = false;
+                    seen++;
+                    r.addCustomer(inst.customers.get(id - 1));
+                }
+                if (r.load > capacity) return null;
+                r.updateArrivals(inst);
+                out.add(r);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return seen == ids.length ? out : null;
+    }
+}
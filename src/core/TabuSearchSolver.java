@@ -0,0 +1,494 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Granular tabu search over inter-route relocate, swap and 2-opt* moves, best-admissible selection.
+ *  • Candidates come from each customer's {@value #NEIGHBORS} nearest customers, plus a move
+ *    into an empty vehicle, so an iteration costs O(n·K) route evaluations rather than O(n²).
+ *  • Tabu attributes are (customer, route) pairs in a primitive array holding the iteration
+ *    until which the customer may not re-enter the route it just left. Aspiration admits any
+ *    move that beats the best solution.
+ *  • Solutions are Zobrist-hashed over their arcs. Each arc (i → j) has a pseudo-random 64-bit
+ *    key, and a move XORs its removed and added arcs into the hash in O(1). A move that leads
+ *    back to a visited hash is treated as tabu (cycle).
+ *  • Each iteration's neighbourhood is evaluated in parallel chunks of customers.
+ * The objective is {@link Incumbent#score} (distance + lateness penalties); capacity is hard.
+ */
+public class TabuSearchSolver implements Solver {
+
+    public static final int NEIGHBORS = 15;
+    private static final int PARALLEL_MIN = 200;        // customers below which one thread is faster
+    private static final int CHUNK = 64;                // customers per parallel task
+
+    private static final int RELOCATE = 0, SWAP = 1, TWO_OPT_STAR = 2, TO_EMPTY = 3;
+    private static final String[] MOVE_NAMES = { "relocate", "swap", "2-opt*", "to-empty" };
+
+    private final int maxIterations, patience;
+
+    /** @param patience iterations without a new best before giving up */
+    public TabuSearchSolver(int maxIterations, int patience) {
+        this.maxIterations = maxIterations;
+        this.patience = patience;
+    }
+
+    @Override public String name() { return Algorithms.TABU_SEARCH; }
+
+    /** Starts from {@code ctx.initial()}, else the context's incumbent, else nearest neighbour. */
+    @Override
+    public ArrayList<Route> solve(VRPInstance inst, int capacity, SolverContext ctx) {
+        List<Route> start = ctx.initialCopy();
+        if (start == null && ctx.incumbent() != null) start = ctx.incumbent().snapshot();
+        if (start == null) start = new NearestNeighborSolver().generateRoutes(inst, capacity);
+        return new Search(inst, capacity, ctx).run(start);
+    }
+
+    /* ---------- one run ---------- */
+    private final class Search {
+
+        final VRPInstance inst;
+        final int cap, n;                              // n = nodes incl. depot
+        final SolverContext ctx;
+        final DistanceStore dist, time;
+        final int[] demand;
+        final SolutionEvaluator evaluator;
+        final int[] nbr;
+        final SolverMetrics.Run metrics;               // null unless instrumented
+        final SolverMetrics.Operator[] ops;
+
+        int slots;                                     // route slots (some may be empty)
+        int[][] seq;
+        int[] len, load, routeOf, posOf;
+        TabuTable tabu;
+        double[] score;
+        double current;
+        long hash;
+        final LongSet visited = new LongSet();
+        final Random rnd;
+        long iter;
+
+        final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+        Search(VRPInstance inst, int cap, SolverContext ctx) {
+            this.inst = inst;
+            this.cap = cap;
+            this.ctx = ctx;
+            this.n = inst.size();
+            this.dist = inst.distances;
+            this.time = inst.durations != null ? inst.durations : inst.distances;
+            this.demand = inst.demand;
+            this.evaluator = new SolutionEvaluator(inst);
+            this.metrics = SolverMetrics.start(name());
+            this.ops = metrics == null ? null : new SolverMetrics.Operator[MOVE_NAMES.length];
+            for (int t = 0; ops != null && t < ops.length; t++) ops[t] = metrics.operator(MOVE_NAMES[t]);
+            this.rnd = ctx.random();
+            this.nbr = neighbours();
+        }
+
+        ArrayList<Route> run(List<Route> start) {
+            load(start);
+            double best = current;
+            int[][] bestSeq = copySeq();
+            long lastImprovement = 0;
+
+            for (iter = 1; iter <= maxIterations && iter - lastImprovement <= patience && !ctx.shouldStop(iter); iter++) {
+                Move m = bestMove(best);
+                if (m == null) break;                  // everything tabu and nothing aspirates
+                apply(m);
+                if (ops != null) ops[m.type].success();
+                if (current < best - 1e-9) {
+                    best = current;
+                    bestSeq = copySeq();
+                    lastImprovement = iter;
+                    if (metrics != null) { ops[m.type].improvement(); metrics.best(best); }
+                    if (ctx.incumbent() != null) ctx.incumbent().offer(toRoutes(bestSeq), name());
+                    if (ctx.wantsSnapshot()) ctx.publish(toRoutes(bestSeq), name());
+                }
+                if (ctx.hasListeners() && iter % 50 == 0) ctx.progress(name(), iter, best, iter * (long) n * NEIGHBORS);
+                if (metrics != null) metrics.iteration();
+            }
+            if (metrics != null) metrics.end();
+            return toRoutes(bestSeq);
+        }
+
+        /* ---------- state ---------- */
+        void load(List<Route> start) {
+            int used = 0;
+            for (Route r : start) if (!r.customers.isEmpty()) used++;
+            slots = Math.min(Math.max(1, n - 1), used + Math.max(2, used / 5));
+            seq = new int[slots][];
+            len = new int[slots]; load = new int[slots]; score = new double[slots];
+            routeOf = new int[n]; posOf = new int[n];
+            tabu = new TabuTable(n, slots);
+
+            int r = 0;
+            for (Route route : start) {
+                if (route.customers.isEmpty()) continue;
+                seq[r] = new int[Math.max(16, route.customers.size() * 2)];
+                for (Node c : route.customers) seq[r][len[r]++] = c.ID;
+                r++;
+            }
+            for (; r < slots; r++) seq[r] = new int[16];
+
+            current = 0; hash = 0;
+            for (r = 0; r < slots; r++) { reindex(r); current += score[r]; hash ^= routeHash(seq[r], len[r]); }
+            visited.add(hash);
+        }
+
+        void reindex(int r) {
+            int l = 0;
+            for (int k = 0; k < len[r]; k++) { int c = seq[r][k]; routeOf[c] = r; posOf[c] = k; l += demand[c]; }
+            load[r] = l;
+            score[r] = evaluate(seq[r], len[r]);
+        }
+
+        /** {@link Incumbent#score} of one route given as node IDs. */
+        double evaluate(int[] s, int l) {
+            return evaluator.routeCost(s, l);
+        }
+
+        long routeHash(int[] s, int l) {
+            if (l == 0) return 0;
+            long h = 0;
+            int prev = 0;
+            for (int k = 0; k < l; k++) { h ^= arc(prev, s[k]); prev = s[k]; }
+            return h ^ arc(prev, 0);
+        }
+
+        /** Zobrist key of arc i → j (SplitMix64 of the pair instead of an n² table); 0 → 0 is no arc. */
+        long arc(int i, int j) {
+            if (i == 0 && j == 0) return 0;
+            long z = (long) i * n + j + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        int[][] copySeq() {
+            int[][] c = new int[slots][];
+            for (int r = 0; r < slots; r++) c[r] = Arrays.copyOf(seq[r], len[r]);
+            return c;
+        }
+
+        ArrayList<Route> toRoutes(int[][] s) {
+            ArrayList<Route> out = new ArrayList<>();
+            for (int[] ids : s) {
+                if (ids.length == 0) continue;
+                Route r = new Route();
+                r.capacity = cap;
+                for (int id : ids) r.addCustomer(inst.customers.get(id - 1));
+                r.updateArrivals(inst);
+                out.add(r);
+            }
+            return out;
+        }
+
+        int[] neighbours() {
+            int[] out = new int[n * NEIGHBORS];
+            Arrays.fill(out, -1);
+            IntStream.range(1, n).parallel().forEach(c -> {
+                double[] best = new double[NEIGHBORS];
+                int base = c * NEIGHBORS, found = 0;
+                for (int b = 1; b < n; b++) {
+                    if (b == c) continue;
+                    double v = dist.get(c, b);
+                    if (found == NEIGHBORS && v >= best[NEIGHBORS - 1]) continue;
+                    int k = found < NEIGHBORS ? found++ : NEIGHBORS - 1;
+                    while (k > 0 && best[k - 1] > v) { best[k] = best[k - 1]; out[base + k] = out[base + k - 1]; k--; }
+                    best[k] = v; out[base + k] = b;
+                }
+            });
+            return out;
+        }
+
+        /* ---------- neighbourhood ---------- */
+        Move bestMove(double best) {
+            int emptySlot = -1;
+            for (int r = 0; r < slots && emptySlot < 0; r++) if (len[r] == 0) emptySlot = r;
+            final int empty = emptySlot;
+
+            int chunks = (n - 1 + CHUNK - 1) / CHUNK;
+            IntStream range = IntStream.range(0, chunks);
+            if (n >= PARALLEL_MIN) range = range.parallel();
+            return range.mapToObj(ch -> {
+                        Worker w = workers.get();
+                        w.reset();
+                        int from = 1 + ch * CHUNK, to = Math.min(n, from + CHUNK);
+                        for (int c = from; c < to; c++) w.scan(c, empty, best);
+                        if (ops != null) w.flush();
+                        return w.best.type < 0 ? null : w.best.copy();
+                    })
+                    .reduce(null, (a, b) -> a == null ? b : b == null ? a : a.better(b) ? a : b);
+        }
+
+        void apply(Move m) {
+            Worker w = workers.get();
+            w.build(m);                                // rebuild the two new sequences on this thread
+            int ra = m.ra, rb = m.rb;
+            int[] leftA = Arrays.copyOf(seq[ra], len[ra]), leftB = Arrays.copyOf(seq[rb], len[rb]);
+
+            current -= score[ra] + score[rb];
+            seq[ra] = fit(seq[ra], w.a, w.la); len[ra] = w.la;
+            seq[rb] = fit(seq[rb], w.b, w.lb); len[rb] = w.lb;
+            reindex(ra); reindex(rb);
+            current += score[ra] + score[rb];
+            hash = m.hash;
+            visited.add(hash);
+
+            /* customers that changed route may not return to the old one for a while */
+            int until = (int) iter + 7 + rnd.nextInt(Math.max(1, Math.min(30, n / 10)));
+            for (int c : leftA) if (routeOf[c] != ra) tabu.put(c, ra, until);
+            for (int c : leftB) if (routeOf[c] != rb) tabu.put(c, rb, until);
+        }
+
+        int[] fit(int[] dst, int[] src, int l) {
+            if (dst.length < l) dst = new int[Math.max(l, dst.length * 2)];
+            System.arraycopy(src, 0, dst, 0, l);
+            return dst;
+        }
+
+        /** Node at position p of route r, or 0 (depot) beyond either end. */
+        int at(int r, int p) { return p < 0 || p >= len[r] ? 0 : seq[r][p]; }
+
+        boolean isTabu(int c, int r) { return tabu.until(c, r) > iter; }
+
+        /* ---------- per-thread evaluation ---------- */
+        final class Worker {
+            int[] a = new int[16], b = new int[16];
+            int la, lb;
+            final Move best = new Move(), cand = new Move();
+            final long[] evaluated = new long[MOVE_NAMES.length];   // since the last flush, when instrumented
+
+            void reset() { best.type = -1; best.delta = Double.POSITIVE_INFINITY; }
+
+            /** Hands the per-thread move counts to the shared counters, once per chunk rather than per move. */
+            void flush() {
+                long total = 0;
+                for (int t = 0; t < evaluated.length; t++) {
+                    if (evaluated[t] == 0) continue;
+                    ops[t].attempts(evaluated[t]);
+                    total += evaluated[t];
+                    evaluated[t] = 0;
+                }
+                metrics.evaluations(total);
+            }
+
+            void scan(int c, int empty, double bestScore) {
+                int rc = routeOf[c];
+                for (int k = 0; k < NEIGHBORS; k++) {
+                    int b = nbr[c * NEIGHBORS + k];
+                    if (b < 0) break;
+                    int rb = routeOf[b];
+                    if (rb == rc) continue;
+                    consider(RELOCATE, c, b, rc, rb, posOf[b] + 1, bestScore);
+                    consider(RELOCATE, c, b, rc, rb, posOf[b], bestScore);
+                    if (c < b) consider(SWAP, c, b, rc, rb, 0, bestScore);
+                    consider(TWO_OPT_STAR, c, b, rc, rb, 0, bestScore);   // c → b
+                    consider(TWO_OPT_STAR, b, c, rb, rc, 0, bestScore);   // b → c
+                }
+                if (empty >= 0 && len[rc] > 1) consider(TO_EMPTY, c, -1, rc, empty, 0, bestScore);
+            }
+
+            void consider(int type, int c, int b, int ra, int rb, int at, double bestScore) {
+                Move m = cand;
+                m.type = type; m.c = c; m.b = b; m.ra = ra; m.rb = rb; m.at = at;
+                if (!feasibleLoad(m)) return;
+                if (!build(m)) return;
+                double delta = evaluate(this.a, la) + evaluate(this.b, lb) - score[ra] - score[rb];
+                if (ops != null) evaluated[type]++;
+                if (delta >= best.delta) return;
+                boolean aspires = current + delta < bestScore - 1e-9;
+                if (!aspires && entersTabu(m)) return;
+                m.hash = hash ^ hashDelta(m);
+                if (!aspires && visited.contains(m.hash)) return;
+                m.delta = delta;
+                best.set(m);
+            }
+
+            boolean feasibleLoad(Move m) {
+                switch (m.type) {
+                    case RELOCATE: case TO_EMPTY:
+                        return load[m.rb] + demand[m.c] <= cap;
+                    case SWAP:
+                        return load[m.ra] - demand[m.c] + demand[m.b] <= cap
+                            && load[m.rb] - demand[m.b] + demand[m.c] <= cap;
+                    default: {
+                        int headA = 0, headB = 0;
+                        for (int k = 0; k <= posOf[m.c]; k++) headA += demand[seq[m.ra][k]];
+                        for (int k = 0; k < posOf[m.b]; k++)  headB += demand[seq[m.rb][k]];
+                        int tailA = load[m.ra] - headA, tailB = load[m.rb] - headB;
+                        return headA + tailB <= cap && headB + tailA <= cap;
+                    }
+                }
+            }
+
+            /** Removed and added arcs of {@code m} XOR-ed together: O(1) whatever the route lengths. */
+            long hashDelta(Move m) {
+                int c = m.c, b = m.b, pc = posOf[c];
+                int cPred = at(m.ra, pc - 1), cSucc = at(m.ra, pc + 1);
+                switch (m.type) {
+                    case RELOCATE: case TO_EMPTY: {
+                        int x = m.type == TO_EMPTY ? 0 : at(m.rb, m.at - 1), y = m.type == TO_EMPTY ? 0 : at(m.rb, m.at);
+                        return arc(cPred, c) ^ arc(c, cSucc) ^ arc(x, y)
+                             ^ arc(cPred, cSucc) ^ arc(x, c) ^ arc(c, y);
+                    }
+                    case SWAP: {
+                        int pb = posOf[b], bPred = at(m.rb, pb - 1), bSucc = at(m.rb, pb + 1);
+                        return arc(cPred, c) ^ arc(c, cSucc) ^ arc(bPred, b) ^ arc(b, bSucc)
+                             ^ arc(cPred, b) ^ arc(b, cSucc) ^ arc(bPred, c) ^ arc(c, bSucc);
+                    }
+                    default: {
+                        int bPred = at(m.rb, posOf[b] - 1);
+                        return arc(c, cSucc) ^ arc(bPred, b) ^ arc(c, b) ^ arc(bPred, cSucc);
+                    }
+                }
+            }
+
+            /** True if a customer would re-enter a route it is tabu for. */
+            boolean entersTabu(Move m) {
+                switch (m.type) {
+                    case RELOCATE: case TO_EMPTY: return isTabu(m.c, m.rb);
+                    case SWAP:                    return isTabu(m.c, m.rb) || isTabu(m.b, m.ra);
+                    default: {
+                        int pa = posOf[m.c];
+                        boolean t = isTabu(m.b, m.ra);
+                        if (pa + 1 < len[m.ra]) t |= isTabu(seq[m.ra][pa + 1], m.rb);
+                        return t;
+                    }
+                }
+            }
+
+            /** Writes the two new sequences into a / b; false if the move is degenerate. */
+            boolean build(Move m) {
+                int ra = m.ra, rb = m.rb;
+                int[] sa = seq[ra], sb = seq[rb];
+                int na = len[ra], nb = len[rb];
+                grow(na + nb + 1);
+                la = 0; lb = 0;
+                switch (m.type) {
+                    case RELOCATE: case TO_EMPTY: {
+                        int pc = posOf[m.c];
+                        for (int k = 0; k < na; k++) if (k != pc) a[la++] = sa[k];
+                        int at = m.type == TO_EMPTY ? 0 : m.at;
+                        for (int k = 0; k < at; k++) b[lb++] = sb[k];
+                        b[lb++] = m.c;
+                        for (int k = at; k < nb; k++) b[lb++] = sb[k];
+                        return true;
+                    }
+                    case SWAP: {
+                        int pc = posOf[m.c], pb = posOf[m.b];
+                        System.arraycopy(sa, 0, a, 0, na); la = na; a[pc] = m.b;
+                        System.arraycopy(sb, 0, b, 0, nb); lb = nb; b[pb] = m.c;
+                        return true;
+                    }
+                    default: {                                          // 2-opt*: ra[..c] + rb[b..], rb[..b) + ra(c..]
+                        int pc = posOf[m.c], pb = posOf[m.b];
+                        if (pc == na - 1 && pb == 0) return false;       // would just swap whole routes
+                        for (int k = 0; k <= pc; k++) a[la++] = sa[k];
+                        for (int k = pb; k < nb; k++) a[la++] = sb[k];
+                        for (int k = 0; k < pb; k++)  b[lb++] = sb[k];
+                        for (int k = pc + 1; k < na; k++) b[lb++] = sa[k];
+                        return true;
+                    }
+                }
+            }
+
+            void grow(int size) {
+                if (a.length < size) { a = new int[size * 2]; b = new int[size * 2]; }
+            }
+        }
+    }
+
+    /* ---------- move record ---------- */
+    private static final class Move {
+        int type = -1, c, b, ra, rb, at;
+        double delta = Double.POSITIVE_INFINITY;
+        long hash;
+
+        void set(Move o) { type = o.type; c = o.c; b = o.b; ra = o.ra; rb = o.rb; at = o.at; delta = o.delta; hash = o.hash; }
+        Move copy() { Move m = new Move(); m.set(this); return m; }
+
+        /** Lower delta wins; ties broken deterministically so parallel runs stay reproducible. */
+        boolean better(Move o) {
+            if (delta != o.delta) return delta < o.delta;
+            if (c != o.c) return c < o.c;
+            if (type != o.type) return type < o.type;
+            if (b != o.b) return b < o.b;
+            return at < o.at;
+        }
+    }
+
+    /* ---------- tabu list: bounded (customer, route) expiry table ---------- */
+    /**
+     * Tabu expiry per (customer, route slot) in a fixed direct-mapped table of O(n) entries
+     * rather than a dense n × slots array. A collision overwrites the older entry, which at
+     * worst ends one tabu early; live entries (tenure × customers moved) are far fewer than slots.
+     */
+    private static final class TabuTable {
+        private static final int MAX_CAPACITY = 1 << 20;
+        private final long[] keys;                     // (c · slots + r) + 1; 0 = empty
+        private final int[] until;
+        private final int slots, shift;
+
+        TabuTable(int n, int slots) {
+            int cap = Math.min(MAX_CAPACITY, Math.max(1 << 10, Integer.highestOneBit(Math.max(1, 4 * n - 1)) << 1));
+            keys  = new long[cap];
+            until = new int[cap];
+            this.slots = slots;
+            this.shift = 64 - Integer.numberOfTrailingZeros(cap);
+        }
+
+        void put(int c, int r, int expires) {
+            long k = (long) c * slots + r + 1;
+            int i = index(k);
+            keys[i] = k;
+            until[i] = expires;
+        }
+
+        /** Iteration at which (c, r) stops being tabu; 0 if it is not recorded. */
+        int until(int c, int r) {
+            long k = (long) c * slots + r + 1;
+            int i = index(k);
+            return keys[i] == k ? until[i] : 0;
+        }
+
+        private int index(long k) { return (int) (k * 0x9E3779B97F4A7C15L >>> shift); }
+    }
+
+    /* ---------- open-addressing set of visited solution hashes ---------- */
+    private static final class LongSet {
+        private long[] keys = new long[1 << 12];
+        private boolean hasZero;
+        private int size;
+
+        boolean contains(long k) {
+            if (k == 0) return hasZero;
+            int mask = keys.length - 1;
+            for (int i = (int) (k ^ k >>> 32) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == k) return true;
+                if (keys[i] == 0) return false;
+            }
+        }
+
+        void add(long k) {
+            if (k == 0) { hasZero = true; return; }
+            if (size * 2 >= keys.length) rehash();
+            int mask = keys.length - 1;
+            for (int i = (int) (k ^ k >>> 32) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == k) return;
+                if (keys[i] == 0) { keys[i] = k; size++; return; }
+            }
+        }
+
+        private void rehash() {
+            long[] old = keys;
+            keys = new long[old.length * 2];
+            size = 0;
+            for (long k : old) if (k != 0) add(k);
+        }
+    }
+}
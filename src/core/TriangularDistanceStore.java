@@ -0,0 +1,41 @@
+package core;
+
+/**
+ * Symmetric distances as a packed upper triangle of floats: n·(n−1)/2 entries, the
+ * diagonal is implicitly 0. One eighth of the dense matrix — 20 000 nodes fit in 800 MB.
+ */
+public final class TriangularDistanceStore implements DistanceStore {
+
+    private final int n;
+    private final float[] d;
+
+    public TriangularDistanceStore(int n) {
+        long len = DistanceStores.triangleLength(n);
+        if (len > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException(n + " nodes exceed a heap triangle; use an off-heap store");
+        this.n = n;
+        this.d = new float[(int) len];
+    }
+
+    public static TriangularDistanceStore euclidean(int[] x, int[] y, int n) {
+        TriangularDistanceStore s = new TriangularDistanceStore(n);
+        int k = 0;
+        for (int i = 0; i < n; i++)
+            for (int j = i + 1; j < n; j++)
+                s.d[k++] = (float) DistanceStores.euclid(x, y, i, j);
+        return s;
+    }
+
+    public void set(int i, int j, double v) {
+        if (i != j) d[(int) DistanceStores.triangleIndex(n, i, j)] = (float) v;
+    }
+
+    @Override public int size() { return n; }
+
+    @Override
+    public double get(int from, int to) {
+        return from == to ? 0 : d[(int) DistanceStores.triangleIndex(n, from, to)];
+    }
+
+    @Override public long footprintBytes() { return 4L * d.length; }
+}
@@ -3,12 +3,27 @@ package core;
 import java.util.ArrayList;
 import java.util.Random;
 
-/** Generates a synthetic VRP / VRPTW instance. */
+/** Generates a synthetic VRP / VRPTW instance, or holds one loaded by {@link SolomonReader}. */
 public class VRPInstance {
 
     public Node depot;
     public ArrayList<Node> customers = new ArrayList<>();
-    public double[][] distanceMatrix;
+    /** Pairwise distances by node ID; see {@link #dist}. */
+    public DistanceStore distances;
+    /** Travel times by node ID when they differ from distances (road networks); null = same. */
+    public DistanceStore durations;
+    /** False once an asymmetric matrix is attached: d(a, b) may differ from d(b, a). */
+    public boolean symmetric = true;
+
+    private volatile TimeWindowCompatibility compatibility;
+    private volatile RouteResequencer resequencer;
+
+    /* primitive mirror of depot + customers, indexed by node ID (0 = depot) */
+    public int[] x, y, demand, ready, due, service;
+
+    /* benchmark metadata (0 = not specified by the source) */
+    public String name = "synthetic";
+    public int vehicleCount, vehicleCapacity;
 
     public void generateInstance(int seed, int customerCount) {
         depot = new Node(0, 50, 50, 0);            // depot at centre
@@ -27,19 +42,110 @@ public class VRPInstance {
 
             customers.add(new Node(i, x, y, demand, ready, due, service));
         }
+        name = "synthetic-" + seed + "-" + customerCount;
+        mirrorNodes();
         computeDistanceMatrix();
     }
 
-    /* Pre-compute pairwise distances */
-    private void computeDistanceMatrix() {
-        int size = customers.size() + 1;
-        distanceMatrix = new double[size][size];
+    /** Number of nodes including the depot. */
+    public int size() { return customers.size() + 1; }
+
+    /**
+     * Distance from {@code a} to {@code b} via {@link #distances}. Nodes outside the store
+     * (customers added at run time by the dynamic planner) fall back to {@link Node#distanceTo}.
+     */
+    public double dist(Node a, Node b) {
+        DistanceStore d = distances;
+        if (d != null && a.ID >= 0 && b.ID >= 0 && a.ID < d.size() && b.ID < d.size())
+            return d.get(a.ID, b.ID);
+        return a.distanceTo(b);
+    }
+
+    /** Travel time from {@code a} to {@code b}: {@link #durations} if present, else {@link #dist}. */
+    public double travel(Node a, Node b) {
+        DistanceStore d = durations;
+        if (d != null && a.ID >= 0 && b.ID >= 0 && a.ID < d.size() && b.ID < d.size())
+            return d.get(a.ID, b.ID);
+        return dist(a, b);
+    }
+
+    /** Precedence-compatibility table, built on first use and again whenever the matrix changes. */
+    public TimeWindowCompatibility compatibility() {
+        TimeWindowCompatibility c = compatibility;
+        if (c == null || !c.builtFrom(durations != null ? durations : distances))
+            compatibility = c = TimeWindowCompatibility.build(this);
+        return c;
+    }
+
+    /** Shared exact route resequencer (its memo outlives single solver runs); rebuilt when the matrix changes. */
+    public RouteResequencer resequencer() {
+        RouteResequencer r = resequencer;
+        if (r == null || !r.builtFrom(durations != null ? durations : distances))
+            resequencer = r = new RouteResequencer(this);
+        return r;
+    }
+
+    /**
+     * Rebuilds {@link #distances} as Euclidean with the given layout (e.g. to trade precision
+     * for memory). Any imported road matrix and durations are dropped.
+     */
+    public void useDistanceStore(DistanceStores.Kind kind) {
+        distances = DistanceStores.euclidean(kind, x, y, size());
+        durations = null;
+        symmetric = true;
+    }
+
+    /**
+     * The depot plus the given customers (IDs here), renumbered 1..k in that order. Distances
+     * and travel times are copied from this instance, so routes cost the same in both;
+     * local ID i is {@code ids[i - 1]} here.
+     */
+    public VRPInstance subInstance(int[] ids) {
+        int k = ids.length + 1;
+        int[] nodes = new int[k];
+        System.arraycopy(ids, 0, nodes, 1, ids.length);
+
+        VRPInstance s = new VRPInstance();
+        s.name = name + "/" + ids.length;
+        s.vehicleCapacity = vehicleCapacity;
+        s.x = new int[k]; s.y = new int[k]; s.demand = new int[k];
+        s.ready = new int[k]; s.due = new int[k]; s.service = new int[k];
+        for (int i = 0; i < k; i++) {
+            int p = nodes[i];
+            s.x[i] = x[p]; s.y[i] = y[p]; s.demand[i] = demand[p];
+            s.ready[i] = ready[p]; s.due[i] = due[p]; s.service[i] = service[p];
+        }
+        s.buildNodes(k);
+        s.distances = DistanceStores.restrict(distances, nodes);
+        s.durations = durations == null ? null : DistanceStores.restrict(durations, nodes);
+        s.symmetric = symmetric;
+        return s;
+    }
 
-        ArrayList<Node> all = new ArrayList<>();
-        all.add(depot); all.addAll(customers);
+    /** Fills the primitive arrays from {@link #depot} and {@link #customers}. */
+    private void mirrorNodes() {
+        int n = size();
+        x = new int[n]; y = new int[n]; demand = new int[n];
+        ready = new int[n]; due = new int[n]; service = new int[n];
+        put(0, depot);
+        for (int i = 0; i < customers.size(); i++) put(i + 1, customers.get(i));
+    }
+
+    private void put(int i, Node n) {
+        x[i] = n.x; y[i] = n.y; demand[i] = n.demand;
+        ready[i] = n.ready; due[i] = n.due; service[i] = n.service;
+    }
+
+    /** Builds {@link #depot} / {@link #customers} from the primitive arrays (first {@code n} entries). */
+    void buildNodes(int n) {
+        depot = new Node(0, x[0], y[0], 0, ready[0], due[0], 0);
+        customers = new ArrayList<>(n - 1);
+        for (int i = 1; i < n; i++)
+            customers.add(new Node(i, x[i], y[i], demand[i], ready[i], due[i], service[i]));
+    }
 
-        for (int i = 0; i < size; i++)
-            for (int j = 0; j < size; j++)
-                distanceMatrix[i][j] = all.get(i).distanceTo(all.get(j));
+    /* Pre-compute pairwise distances in the layout that suits the instance size */
+    void computeDistanceMatrix() {
+        useDistanceStore(DistanceStores.forSize(size()));
     }
 }
@@ -0,0 +1,275 @@
+package main;
+
+import core.Algorithms;
+import core.MatrixImporter;
+import core.PackedDistanceStore;
+import core.ResultWriter;
+import core.RouteImageExporter;
+import core.RouteReportWriter;
+import core.Route;
+import core.RouteSimulator;
+import core.SnapshotIO;
+import core.SolomonReader;
+import core.SolutionEvaluator;
+import core.SolverMetrics;
+import core.VRPInstance;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Headless entry point: no Swing, no RMA, no Sniffer.
+ * <pre>
+ *   java -cp bin:lib/jade.jar main.BatchRunner --alg sa --customers 100 --seed 1234 --capacity 50
+ *        [--format json|csv] [--out results.json] [--agents N] [--fleet V [--refuse-rate R]] [--workers W]
+ *        [--simulate CV] [--image map.png|map.svg] [--report schedule.txt|.csv|.json] [--metrics MS]
+ *   java -cp bin main.BatchRunner --alg sa --instance solomon/R101.txt
+ * </pre>
+ * {@code --instance} loads a Solomon / Homberger file (or a {@code .vrpi} snapshot) instead of
+ * generating one; its vehicle capacity is used unless {@code --capacity} is given.
+ * {@code --save-instance} / {@code --save-solution} archive binary snapshots (see {@link SnapshotIO}).
+ * {@code --matrix} / {@code --durations} attach a precomputed, possibly asymmetric road-network
+ * distance / travel-time matrix (CSV or .vrpm, see {@link MatrixImporter}) to the instance.
+ * {@code -Dvrp.distances=dense|triangular|off-heap-float|off-heap-fixed16|lazy} overrides the
+ * size-based distance store (see {@link core.DistanceStores}).
+ * Without {@code --agents} the solver runs in-process; with it a GUI-less JADE
+ * platform is started and the MRA writes the JSON result itself; if none appears within
+ * {@code -Dvrp.agents.timeout} ms (default 10 min) the run exits with status 1. {@code --workers} adds that many
+ * {@link agents.SolverWorkerAgent}s in a second container, to which the MRA farms out clusters.
+ * {@code --fleet} adds that many simulated vehicles hosted by {@link agents.FleetHostAgent}s
+ * (up to {@value AgentMode#VEHICLES_PER_HOST} per host) next to the {@code --agents} DAs;
+ * {@code --refuse-rate} makes them refuse that share of routes at random.
+ * {@code --simulate} executes the solved plan in {@link RouteSimulator}: once as planned and, when
+ * {@code CV > 0}, {@value #SIM_RUNS} more times with travel-time noise of that coefficient of variation.
+ * {@code --image} draws the solution with {@link RouteImageExporter} (no window; AWT runs headless).
+ * {@code --report} streams the per-stop schedule with {@link RouteReportWriter}, format by extension.
+ * {@code --metrics} turns on {@link SolverMetrics} (also over JMX) and prints a snapshot every
+ * {@code MS} milliseconds while solving (0 = only at the end).
+ * <p>
+ * Without {@code --out} the result is the only thing written to stdout; progress, evaluation,
+ * simulation and metrics lines all go to stderr, so the output can be piped straight into a parser.
+ */
+public class BatchRunner {
+
+    private static final int SIM_RUNS = 100;
+    static final int IMAGE_W = 1200, IMAGE_H = 900;
+
+    public static void main(String[] args) throws Exception {
+        String alg = Algorithms.NEAREST_NEIGHBOR, format = "json", out = null, instance = null;
+        String saveInstance = null, saveSolution = null, matrix = null, durations = null, image = null,
+               report = null;
+        int customers = 30, seed = 1234, capacity = 50, agents = 0, workers = 0, fleet = 0;
+        double refuseRate = 0, simulate = -1;
+        long metrics = -1;
+        boolean capacityGiven = false;
+
+        for (int i = 0; i < args.length; i++) {
+            String key = args[i];
+            if (key.equals("-h") || key.equals("--help")) { usage(); return; }
+            if (i + 1 >= args.length) { usage(); System.exit(2); }
+            String val = args[++i];
+            switch (key) {
+                case "--alg":       alg       = Algorithms.resolve(val);  break;
+                case "--customers": customers = Integer.parseInt(val);    break;
+                case "--seed":      seed      = Integer.parseInt(val);    break;
+                case "--capacity":  capacity  = Integer.parseInt(val);
+                                    capacityGiven = true;                 break;
+                case "--instance":  instance  = val;                      break;
+                case "--save-instance": saveInstance = val;               break;
+                case "--save-solution": saveSolution = val;               break;
+                case "--matrix":    matrix    = val;                      break;
+                case "--durations": durations = val;                      break;
+                case "--agents":    agents    = Integer.parseInt(val);    break;
+                case "--workers":   workers   = Integer.parseInt(val);    break;
+                case "--fleet":     fleet     = Integer.parseInt(val);    break;
+                case "--refuse-rate": refuseRate = Double.parseDouble(val); break;
+                case "--simulate":  simulate  = Double.parseDouble(val);  break;
+                case "--image":     image     = val;                      break;
+                case "--report":    report    = val;                      break;
+                case "--metrics":   metrics   = Long.parseLong(val);      break;
+                case "--format":    format    = val;                      break;
+                case "--out":       out       = val;                      break;
+                default:
+                    System.err.println("Unknown option: " + key);
+                    usage();
+                    System.exit(2);
+            }
+        }
+
+        if ((agents > 0 || fleet > 0) && (instance != null || matrix != null)) {
+            System.err.println("--instance and --matrix are only supported for in-process runs");
+            System.exit(2);
+        }
+        if (System.getProperty("java.awt.headless") == null) System.setProperty("java.awt.headless", "true");
+        if (metrics >= 0) System.setProperty("vrp.metrics", "true");     // before SolverMetrics loads
+
+        /* solvers and agents print progress on System.out; the result keeps the real stdout to itself */
+        PrintStream stdout = System.out;
+        System.setOut(System.err);
+
+        if (agents > 0 || fleet > 0) {
+            AgentMode.run(alg, agents, fleet, refuseRate, workers, customers, capacity, seed, out, image, stdout);
+            return;
+        }
+
+        long t0 = System.nanoTime();
+        VRPInstance inst;
+        if (instance != null) {
+            inst = instance.endsWith(".vrpi") ? SnapshotIO.readInstance(Paths.get(instance))
+                                              : SolomonReader.read(instance);
+            if (!capacityGiven && inst.vehicleCapacity > 0) capacity = inst.vehicleCapacity;
+        } else {
+            inst = new VRPInstance();
+            inst.generateInstance(seed, customers);
+        }
+        if (matrix != null)
+            MatrixImporter.attach(inst, Paths.get(matrix), durations == null ? null : Paths.get(durations),
+                    PackedDistanceStore.Encoding.FLOAT32);
+        long t1 = System.nanoTime();
+
+        ResultWriter.RunInfo info = new ResultWriter.RunInfo();
+        info.algorithm = alg;
+        info.instance  = inst.name;
+        info.customers = inst.customers.size();
+        info.capacity  = capacity;
+        info.seed      = seed;
+
+        ScheduledFuture<?> sampler = metrics > 0
+                ? SolverMetrics.every(metrics, snap -> System.out.print(prefix("[METRICS] ", snap))) : null;
+        ArrayList<Route> routes = Algorithms.solve(alg, inst, capacity);
+        long t2 = System.nanoTime();
+        if (sampler != null) sampler.cancel(false);
+        if (metrics >= 0) System.out.print(prefix("[METRICS] ", SolverMetrics.snapshot()));
+        routes.forEach(r -> r.updateArrivals(inst));
+        SolutionEvaluator.Evaluation eval = SolutionEvaluator.evaluate(routes, inst);
+        System.out.println("[EVAL] " + (eval.feasible() ? "feasible, " : "INFEASIBLE, ") + eval);
+
+        info.instanceMs = (t1 - t0) / 1_000_000;
+        info.solveMs    = (t2 - t1) / 1_000_000;
+
+        if (saveInstance != null) SnapshotIO.writeInstance(Paths.get(saveInstance), inst, true);
+        if (saveSolution != null) {
+            SnapshotIO.writeSolution(Paths.get(saveSolution), routes, eval.distance,
+                    "algorithm=" + alg + ";instance=" + inst.name + ";seed=" + seed + ";capacity=" + capacity);
+        }
+
+        if (simulate >= 0) simulate(inst, routes, simulate, seed);
+        if (image != null) {
+            RouteImageExporter.write(Paths.get(image), inst.depot, routes, IMAGE_W, IMAGE_H,
+                    String.format("%s on %s: %d customers, %d vehicles, distance %.1f",
+                            alg, inst.name, inst.customers.size(), routes.size(), eval.distance));
+        }
+
+        if (report != null) {
+            try (Writer w = Files.newBufferedWriter(Paths.get(report), StandardCharsets.UTF_8)) {
+                RouteReportWriter.write(w, RouteReportWriter.Format.of(report), routes, inst);
+            }
+        }
+
+        try (Writer w = open(out, stdout)) {
+            if ("csv".equalsIgnoreCase(format)) ResultWriter.writeCsv(w, info, routes, inst);
+            else                                ResultWriter.writeJson(w, info, routes, inst);
+        }
+    }
+
+    /** Prints the noise-free execution and, with noise, averages over {@link #SIM_RUNS} replications. */
+    private static void simulate(VRPInstance inst, ArrayList<Route> routes, double cv, int seed) {
+        RouteSimulator sim = new RouteSimulator(inst, routes);
+        System.out.println("[SIM] as planned: " + sim.run());
+        if (cv <= 0) return;
+
+        long events = 0, ns = 0;
+        double late = 0, lateness = 0, worstMakespan = 0;
+        for (int i = 0; i < SIM_RUNS; i++) {
+            RouteSimulator.Result r = sim.noise(cv, seed + i).run();
+            events += r.events; ns += r.elapsedNs;
+            late += r.lateCustomers; lateness += r.totalLateness;
+            worstMakespan = Math.max(worstMakespan, r.makespan);
+        }
+        System.out.printf("[SIM] noise cv=%.2f over %d runs: %.1f late customers, %.1f min late on average, "
+                + "worst makespan %.1f, %.0f events/s%n",
+                cv, SIM_RUNS, late / SIM_RUNS, lateness / SIM_RUNS, worstMakespan, events * 1e9 / Math.max(1, ns));
+    }
+
+    private static Writer open(String out, PrintStream stdout) throws IOException {
+        if (out == null) {
+            return new OutputStreamWriter(stdout, StandardCharsets.UTF_8) {
+                @Override public void close() throws IOException { flush(); }
+            };
+        }
+        return Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8);
+    }
+
+    private static String prefix(String prefix, Object lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines.toString().split("\\R")) sb.append(prefix).append(line).append('\n');
+        return sb.toString();
+    }
+
+    private static void usage() {
+        System.err.println("Usage: BatchRunner --alg <nn|intra|inter|ga|sa|ts|portfolio|decomp> --customers N --seed S "
+                + "--capacity C [--instance FILE] [--format json|csv] [--out FILE] [--agents N] [--fleet V] [--refuse-rate R] [--workers W] [--simulate CV] [--image FILE.png|FILE.svg] [--report FILE.txt|.csv|.json] [--metrics MS] "
+                + "[--save-instance FILE.vrpi] [--save-solution FILE.vrps] [--matrix FILE] [--durations FILE]");
+    }
+
+    /* ---------- agents without GUI (JADE classes load only on this path) ---------- */
+    private static final class AgentMode {
+
+        static final int VEHICLES_PER_HOST = 5_000;
+        /** How long to wait for the MRA's result file: the solve budget plus a margin for JADE start-up. */
+        static final long RESULT_TIMEOUT_MS = Long.getLong("vrp.agents.timeout", 600_000);
+
+        static void run(String alg, int agents, int fleet, double refuseRate, int workers, int customers,
+                        int capacity, int seed, String out, String image, PrintStream stdout) throws Exception {
+            Path result = out != null ? Paths.get(out) : Files.createTempFile("vrp-result", ".json");
+            Files.deleteIfExists(result);
+
+            jade.core.Profile p = new jade.core.ProfileImpl();
+            p.setParameter(jade.core.Profile.GUI, "false");
+            jade.wrapper.ContainerController cc = jade.core.Runtime.instance().createMainContainer(p);
+
+            /* workers live in their own container, as they would on another machine */
+            if (workers > 0) {
+                jade.core.Profile wp = new jade.core.ProfileImpl();
+                wp.setParameter(jade.core.Profile.CONTAINER_NAME, "workers");
+                jade.wrapper.ContainerController wc = jade.core.Runtime.instance().createAgentContainer(wp);
+                for (int i = 0; i < workers; i++)
+                    wc.createNewAgent("worker" + i, "agents.SolverWorkerAgent", null).start();
+            }
+
+            Object[] mraArgs = { alg, agents + fleet, customers, capacity, seed, result.toString(), image };
+            cc.createNewAgent("mra", "agents.MasterRoutingAgent", mraArgs).start();
+            for (int i = 0; i < agents; i++)
+                cc.createNewAgent("da" + i, "agents.DeliveryAgent", new Object[]{ capacity }).start();
+            for (int i = 0, left = fleet; left > 0; i++, left -= VEHICLES_PER_HOST) {
+                Object[] hostArgs = { Math.min(left, VEHICLES_PER_HOST), capacity, refuseRate };
+                cc.createNewAgent("fleet" + i, "agents.FleetHostAgent", hostArgs).start();
+            }
+
+            long deadline = System.currentTimeMillis() + RESULT_TIMEOUT_MS;
+            while (!Files.exists(result)) {
+                if (System.currentTimeMillis() > deadline) {
+                    System.err.println("No result from the agents after " + RESULT_TIMEOUT_MS / 1000
+                            + " s (raise -Dvrp.agents.timeout=MS for longer runs)");
+                    System.exit(1);
+                }
+                Thread.sleep(20);
+            }
+
+            if (out == null) {
+                stdout.write(Files.readAllBytes(result));
+                stdout.flush();
+                Files.deleteIfExists(result);
+            }
+            System.exit(0);   // JADE's non-daemon threads would keep the JVM alive
+        }
+    }
+}
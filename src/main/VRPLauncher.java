@@ -1,5 +1,6 @@
 package main;
 
+import core.Algorithms;
 import jade.core.Profile;
 import jade.core.ProfileImpl;
 import jade.core.Runtime;
@@ -26,21 +27,18 @@ public class VRPLauncher {
         JPanel panel = new JPanel(new GridLayout(0, 2, 8, 8));
         panel.setBorder(new EmptyBorder(10, 10, 10, 10));
 
-        JComboBox<String> algorithmBox = new JComboBox<>(
-        	    new String[]{
-        	      "Nearest Neighbor",
-        	      "Local Search (Intra)",
-        	      "Local Search (Inter)",
-        	      "Genetic Algorithm",
-        	      "Simulated Annealing"
-        	    });
+        JComboBox<String> algorithmBox = new JComboBox<>(Algorithms.NAMES);
         JSpinner agentSpinner = new JSpinner(new SpinnerNumberModel(5, 1, 30, 1));
-        JSpinner customerSpinner = new JSpinner(new SpinnerNumberModel(30, 10, 300, 1));
+        JSpinner fleetSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 10_000, 100));
+        JSpinner workerSpinner = new JSpinner(new SpinnerNumberModel(0, 0, 16, 1));
+        JSpinner customerSpinner = new JSpinner(new SpinnerNumberModel(30, 10, 50_000, 10));
         JSpinner capacitySpinner = new JSpinner(new SpinnerNumberModel(50, 1, 500, 1));
         JSpinner seedSpinner = new JSpinner(new SpinnerNumberModel(1234, 1, Integer.MAX_VALUE, 1));
 
         panel.add(new JLabel("Optimisation Algorithm:")); panel.add(algorithmBox);
         panel.add(new JLabel("Delivery Agents:"));        panel.add(agentSpinner);
+        panel.add(new JLabel("Simulated Vehicles:"));    panel.add(fleetSpinner);
+        panel.add(new JLabel("Solver Workers:"));        panel.add(workerSpinner);
         panel.add(new JLabel("Customers:"));             panel.add(customerSpinner);
         panel.add(new JLabel("Vehicle Capacity:"));      panel.add(capacitySpinner);
         panel.add(new JLabel("Random Seed:"));           panel.add(seedSpinner);
@@ -55,6 +53,8 @@ public class VRPLauncher {
         runButton.addActionListener(e -> {
             String algorithm = (String) algorithmBox.getSelectedItem();
             int numAgents    = (Integer) agentSpinner.getValue();
+            int numFleet     = (Integer) fleetSpinner.getValue();
+            int numWorkers   = (Integer) workerSpinner.getValue();
             int numCustomers = (Integer) customerSpinner.getValue();
             int vehicleCap   = (Integer) capacitySpinner.getValue();
             int seed         = (Integer) seedSpinner.getValue();
@@ -79,7 +79,7 @@ public class VRPLauncher {
                 // Create the JADE platform and Sniffer first
                 try {
                     // Create but don't start the agents yet
-                    final Object[] mraArgs = { algorithm, numAgents, numCustomers, vehicleCap, seed };
+                    final Object[] mraArgs = { algorithm, numAgents + numFleet, numCustomers, vehicleCap, seed };
                     final AgentController mra = cc.createNewAgent("mra", "agents.MasterRoutingAgent", mraArgs);
                     
                     final AgentController[] deliveryAgents = new AgentController[numAgents];
@@ -87,6 +87,13 @@ public class VRPLauncher {
                         Object[] daArgs = { vehicleCap };
                         deliveryAgents[i] = cc.createNewAgent("da" + i, "agents.DeliveryAgent", daArgs);
                     }
+                    final AgentController fleetHost = numFleet > 0
+                            ? cc.createNewAgent("fleet", "agents.FleetHostAgent", new Object[]{ numFleet, vehicleCap })
+                            : null;
+                    final AgentController[] workerAgents = new AgentController[numWorkers];
+                    for (int i = 0; i < numWorkers; i++) {
+                        workerAgents[i] = cc.createNewAgent("worker" + i, "agents.SolverWorkerAgent", null);
+                    }
                     
                     // Start the Sniffer agent
                     AgentController sniffer = cc.createNewAgent("sniffer", "jade.tools.sniffer.Sniffer", null);
@@ -141,6 +148,11 @@ public class VRPLauncher {
                             // Start the MRA and DeliveryAgents
                             System.out.println("\nStarting agents now!");
                             
+                            for (int i = 0; i < numWorkers; i++) {
+                                workerAgents[i].start();     // registered with the DF before the MRA looks
+                                System.out.println("Started SolverWorkerAgent (worker" + i + ")");
+                            }
+                            
                             mra.start();
                             System.out.println("Started MasterRoutingAgent (mra)");
                             
@@ -148,6 +160,10 @@ public class VRPLauncher {
                                 deliveryAgents[i].start();
                                 System.out.println("Started DeliveryAgent (da" + i + ")");
                             }
+                            if (fleetHost != null) {
+                                fleetHost.start();
+                                System.out.println("Started FleetHostAgent (fleet, " + numFleet + " vehicles)");
+                            }
                         } catch (Exception ex) {
                             System.err.println("Error starting agents: " + ex.getMessage());
                             ex.printStackTrace();
@@ -0,0 +1,74 @@
+package agents;
+
+import core.NearestNeighborSolver;
+import core.Node;
+import core.Route;
+import core.Subproblem;
+import core.VRPInstance;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteImproverTest {
+
+    private static List<Node> stops(VRPInstance inst, int... ids) {
+        List<Node> out = new ArrayList<>();
+        for (int id : ids) out.add(inst.customers.get(id - 1));
+        return out;
+    }
+
+    private static String[] lines(String reply) {
+        String[] l = reply.split("\n");
+        assertEquals(2, l.length, reply);
+        return l;
+    }
+
+    @Test
+    void answersWithAPermutationThatIsNoWorse() {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(3, 60);
+        ArrayList<Route> routes = new NearestNeighborSolver().generateRoutes(inst, 80);
+        RouteImprover improver = new RouteImprover();
+
+        for (Route r : routes) {
+            double[] cost = new double[2];
+            String[] l = lines(improver.improve(Subproblem.format("t", "resequence", inst.depot, r.customers, r.capacity), cost));
+            assertTrue(cost[1] <= cost[0] + 1e-9);
+
+            String[] order = l[1].trim().isEmpty() ? new String[0] : l[1].trim().split(" ");
+            assertEquals(r.customers.size(), order.length);
+            boolean[] seen = new boolean[order.length];
+            for (String p : order) {
+                int i = Integer.parseInt(p);
+                assertFalse(seen[i]);
+                seen[i] = true;
+            }
+        }
+    }
+
+    @Test
+    void memoCarriesOverBetweenMessagesUntilDataChanges() {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(9, 20);
+        RouteImprover improver = new RouteImprover();
+        double[] cost = new double[2];
+
+        String a = Subproblem.format("a", "resequence", inst.depot, stops(inst, 4, 9, 2, 17, 11), 100);
+        String b = Subproblem.format("b", "resequence", inst.depot, stops(inst, 17, 2, 11, 9, 4), 100);
+        String first = lines(improver.improve(a, cost))[0];
+        lines(improver.improve(b, cost));                         // same customers, other order
+        assertEquals(1, improver.memoHits());
+        assertEquals(first.split(" ")[1], String.format(Locale.ROOT, "%.3f", cost[1]));
+
+        lines(improver.improve(a, cost));
+        assertEquals(2, improver.memoHits());
+
+        inst.customers.get(8).x += 5;                             // customer 9 moved: no stale order
+        lines(improver.improve(Subproblem.format("c", "resequence", inst.depot, stops(inst, 4, 9, 2, 17, 11), 100), cost));
+        assertEquals(0, improver.memoHits());
+    }
+}
@@ -0,0 +1,85 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicPlannerTest {
+
+    /* depot at the origin, customers 1..n on the x axis with wide windows */
+    private static VRPInstance line(int... xs) {
+        VRPInstance inst = new VRPInstance();
+        int n = xs.length + 1;
+        inst.x = new int[n]; inst.y = new int[n]; inst.demand = new int[n];
+        inst.ready = new int[n]; inst.due = new int[n]; inst.service = new int[n];
+        inst.due[0] = 1000;
+        for (int i = 1; i < n; i++) { inst.x[i] = xs[i - 1]; inst.demand[i] = 1; inst.due[i] = 1000; }
+        inst.buildNodes(n);
+        inst.computeDistanceMatrix();
+        return inst;
+    }
+
+    private static ArrayList<Route> oneRoute(VRPInstance inst, int capacity) {
+        Route r = new Route();
+        r.capacity = capacity;
+        for (Node c : inst.customers) r.addCustomer(c);
+        ArrayList<Route> routes = new ArrayList<>();
+        routes.add(r);
+        return routes;
+    }
+
+    @Test
+    void insertsAtCheapestPosition() {
+        VRPInstance inst = line(10, 20);
+        ArrayList<Route> routes = oneRoute(inst, 10);
+        DynamicPlanner planner = new DynamicPlanner(inst, routes, 10, null);
+
+        Node c = new Node(100, 15, 0, 1, 0, 1000, 0);      // beyond the matrix: Euclidean fallback
+        assertEquals(0, planner.insert(c));
+        assertSame(c, routes.get(0).customers.get(1));
+        assertEquals(3, routes.get(0).load);
+        assertEquals(1, planner.insertions());
+    }
+
+    @Test
+    void windowForcesCostlierPosition() {
+        VRPInstance inst = line(10, 20);
+        inst.customers.get(0).service = 10;
+        ArrayList<Route> routes = oneRoute(inst, 10);
+        DynamicPlanner planner = new DynamicPlanner(inst, routes, 10, null);
+
+        /* after customer 1 it would start at 25, past due 16 + slack; first it starts at 15 */
+        Node c = new Node(100, 15, 0, 1, 0, 16, 0);
+        assertEquals(0, planner.insert(c));
+        assertSame(c, routes.get(0).customers.get(0));
+        assertTrue(SolutionEvaluator.route(routes.get(0), inst, inst.depot).lateCustomers == 0);
+    }
+
+    @Test
+    void opensRouteWhenNothingFits() {
+        VRPInstance inst = line(10, 20);
+        ArrayList<Route> routes = oneRoute(inst, 2);
+        DynamicPlanner planner = new DynamicPlanner(inst, routes, 2, null);
+
+        Node c = new Node(100, 15, 0, 1, 0, 1000, 0);
+        assertEquals(1, planner.insert(c));
+        assertEquals(2, routes.size());
+        assertEquals(2, routes.get(1).capacity);
+        assertSame(c, routes.get(1).customers.get(0));
+    }
+
+    @Test
+    void leavesCommittedPrefixAlone() {
+        VRPInstance inst = line(10, 20);
+        ArrayList<Route> routes = oneRoute(inst, 10);
+        DynamicPlanner planner = new DynamicPlanner(inst, routes, 10, null);
+        planner.advanceClock(12);                          // customer 1 started at 10
+
+        Node c = new Node(100, 5, 0, 1, 0, 1000, 0);       // ties first and last; first is committed
+        planner.insert(c);
+        assertEquals(1, routes.get(0).customers.get(0).ID);
+        assertSame(c, routes.get(0).customers.get(2));
+    }
+}
@@ -0,0 +1,84 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    private static void assertInBucket(long v) {
+        int i = Histogram.index(v);
+        assertTrue(v <= Histogram.highest(i), "above bucket " + i + ": " + v);
+        if (i > 0) assertTrue(Histogram.highest(i - 1) < v, "below bucket " + i + ": " + v);
+    }
+
+    @Test
+    void bucketsCoverTheWholeRange() {
+        for (long v = 0; v < 1 << 16; v++) assertInBucket(v);
+        for (int e = 5; e < 63; e++) {
+            long p = 1L << e;
+            assertInBucket(p - 1);
+            assertInBucket(p);
+            assertInBucket(p + 1);
+        }
+        Random rnd = new Random(7);
+        for (int k = 0; k < 100_000; k++) assertInBucket(rnd.nextLong() >>> (1 + rnd.nextInt(63)));
+
+        assertInBucket(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, Histogram.highest(Histogram.index(Long.MAX_VALUE)));
+        assertEquals(32 + 58 * 32 - 1, Histogram.index(Long.MAX_VALUE));    // last counter
+    }
+
+    @Test
+    void indexIsMonotoneAndSmallValuesAreExact() {
+        for (int v = 0; v < 32; v++) {
+            assertEquals(v, Histogram.index(v));
+            assertEquals(v, Histogram.highest(v));
+        }
+        int prev = -1;
+        for (long v = 0; v < 1 << 20; v += 7) {
+            int i = Histogram.index(v);
+            assertTrue(i >= prev, "index fell at " + v);
+            prev = i;
+        }
+        for (int i = 1; i < 32 + 58 * 32; i++) assertTrue(Histogram.highest(i - 1) < Histogram.highest(i));
+    }
+
+    @Test
+    void bucketWidthStaysWithinRelativeError() {
+        for (int i = 64; i < 32 + 58 * 32; i++) {
+            long lo = Histogram.highest(i - 1) + 1, hi = Histogram.highest(i);
+            assertTrue((double) (hi - lo) / lo <= 1.0 / 32, "bucket " + i);
+        }
+    }
+
+    @Test
+    void percentilesAndMax() {
+        Histogram h = new Histogram();
+        assertEquals(0, h.percentile(0.5));
+        assertEquals(0, h.count());
+
+        for (long v = 1; v <= 1000; v++) h.record(v * 1000);
+        h.record(-5);                                                       // clamped to 0
+        assertEquals(1001, h.count());
+        assertEquals(1_000_000, h.max());
+        assertEquals(0, h.percentile(0));
+        assertEquals(1_000_000, h.percentile(1));
+
+        long median = h.percentile(0.5);
+        assertTrue(median >= 500_000 && median <= 500_000 * 1.04, "median " + median);
+        long p99 = h.percentile(0.99);
+        assertTrue(p99 >= 990_000 && p99 <= 1_000_000, "p99 " + p99);
+        assertTrue(h.percentile(0.9) <= p99);
+
+        h.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, h.percentile(1));
+
+        h.reset();
+        assertEquals(0, h.count());
+        assertEquals(0, h.max());
+        assertEquals(0, h.percentile(0.99));
+    }
+}
@@ -0,0 +1,48 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IncumbentTest {
+
+    @Test
+    void completePlansBeatCheaperPartialOrOverloadedOnes() {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(7, 30);
+        ArrayList<Route> complete = new NearestNeighborSolver().generateRoutes(inst, 50);
+
+        ArrayList<Route> partial = Incumbent.copy(complete);
+        partial.remove(partial.size() - 1);                               // cheaper, but customers are missing
+        Route all = new Route();
+        all.capacity = 50;
+        for (Node c : inst.customers) all.addCustomer(c);                 // one truck, far over capacity
+        ArrayList<Route> overloaded = new ArrayList<>(Collections.singletonList(all));
+
+        Incumbent inc = new Incumbent(inst);
+        assertTrue(inc.offer(partial, "partial"));
+        assertFalse(inc.complete());
+        assertTrue(inc.offer(complete, "complete"));
+        assertTrue(inc.complete());
+        assertEquals(Incumbent.score(complete, inst), inc.cost(), 1e-9);
+
+        assertFalse(inc.offer(partial, "partial"));
+        assertFalse(inc.offer(overloaded, "overloaded"));
+        assertEquals("complete", inc.source());
+    }
+
+    @Test
+    void siblingsShareTheRaceButNotTheRandomStream() {
+        Incumbent inc = new Incumbent(new VRPInstance());
+        SolverContext ctx = new SolverContext().seed(42).incumbent(inc);
+        SolverContext a = ctx.sibling(0), b = ctx.sibling(1);
+
+        assertSame(inc, a.incumbent());
+        assertSame(ctx.cancellation(), b.cancellation());
+        assertEquals(a.random().nextLong(), a.random().nextLong());        // reproducible per engine
+        assertNotEquals(a.random().nextLong(), b.random().nextLong());
+    }
+}
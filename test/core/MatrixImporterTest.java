@@ -0,0 +1,88 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatrixImporterTest {
+
+    private static final PackedDistanceStore.Encoding F64 = PackedDistanceStore.Encoding.FLOAT64;
+
+    @TempDir Path dir;
+
+    private Path file(String name, String text) throws IOException {
+        return Files.write(dir.resolve(name), text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void denseRowsWithMixedSeparators() throws IOException {
+        Path f = file("d.csv", "# road times\n"
+                + "0, 1.5, 2\n"
+                + "3;0;4.25\r\n"
+                + "  5 6e1\t0\n");
+        PackedDistanceStore s = MatrixImporter.read(f, 3, F64);
+
+        assertEquals(1.5,  s.get(0, 1), 0.0);
+        assertEquals(3,    s.get(1, 0), 0.0);            // direction kept
+        assertEquals(4.25, s.get(1, 2), 0.0);
+        assertEquals(60,   s.get(2, 1), 1e-9);
+        assertEquals(0,    s.get(2, 2), 0.0);
+    }
+
+    @Test
+    void triplesWithHeader() throws IOException {
+        Path f = file("t.csv", "from,to,value\n0,1,7\n1,0,9.5\n2,1,3\n");
+        PackedDistanceStore s = MatrixImporter.read(f, 3, F64);
+
+        assertEquals(7,   s.get(0, 1), 0.0);
+        assertEquals(9.5, s.get(1, 0), 0.0);
+        assertEquals(3,   s.get(2, 1), 0.0);
+        assertEquals(0,   s.get(1, 2), 0.0);             // missing pair
+    }
+
+    @Test
+    void rejectsWrongShape() throws IOException {
+        assertThrows(IOException.class, () -> MatrixImporter.read(file("a.csv", "0 1\n1 0\n"), 3, F64));
+        assertThrows(IOException.class, () -> MatrixImporter.read(file("b.csv", "0 1 2\n1 0\n2 1 0\n"), 3, F64));
+        assertThrows(IOException.class, () -> MatrixImporter.read(file("c.csv", "from,to,value\n0,3,1\n"), 3, F64));
+    }
+
+    @Test
+    void binaryRoundTrip() throws IOException {
+        PackedDistanceStore csv = MatrixImporter.read(file("d.csv", "0 1 2\n3 0 4\n5 6 0\n"), 3, F64);
+        Path bin = dir.resolve("d.vrpm");
+        MatrixImporter.writeBinary(bin, csv, PackedDistanceStore.Encoding.FLOAT32);
+        PackedDistanceStore back = MatrixImporter.read(bin, 3, F64);       // detected by magic
+
+        for (int i = 0; i < 3; i++)
+            for (int j = 0; j < 3; j++)
+                assertEquals(csv.get(i, j), back.get(i, j), 1e-6);
+    }
+
+    @Test
+    void reversalDeltaFollowsDirection() throws IOException {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(3, 4);
+        Path d = file("d.csv", "0 1 9 9 9\n"
+                             + "2 0 1 9 9\n"
+                             + "9 5 0 1 9\n"
+                             + "9 9 5 0 1\n"
+                             + "1 9 9 5 0\n");
+        MatrixImporter.attach(inst, d, null, F64);
+        assertFalse(inst.symmetric);
+
+        Route r = new Route();
+        for (Node c : inst.customers) r.addCustomer(c);
+        double before = r.calculateTotalDistance(inst);
+        double delta = r.reversalDelta(inst, 1, 2);
+        Collections.reverse(r.customers.subList(1, 3));
+        assertEquals(r.calculateTotalDistance(inst) - before, delta, 1e-9);
+    }
+}
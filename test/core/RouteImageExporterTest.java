@@ -0,0 +1,54 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteImageExporterTest {
+
+    private static final String SVG = "http://www.w3.org/2000/svg", XLINK = "http://www.w3.org/1999/xlink";
+
+    @Test
+    void svgMarkersResolveForSvg11Readers(@TempDir Path dir) throws Exception {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(8, 25);
+        ArrayList<Route> routes = new NearestNeighborSolver().generateRoutes(inst, 50);
+        Path file = dir.resolve("map.svg");
+        RouteImageExporter.write(file, inst.depot, routes, 800, 600, "nn on " + inst.name);
+
+        DocumentBuilderFactory f = DocumentBuilderFactory.newInstance();
+        f.setNamespaceAware(true);
+        Document doc = f.newDocumentBuilder().parse(file.toFile());
+        assertEquals(SVG, doc.getDocumentElement().getNamespaceURI());
+
+        NodeList uses = doc.getElementsByTagNameNS(SVG, "use");
+        assertEquals(25, uses.getLength());
+        for (int i = 0; i < uses.getLength(); i++) {
+            Element use = (Element) uses.item(i);
+            assertEquals("#halo", use.getAttributeNS(XLINK, "href"));
+            assertEquals("#halo", use.getAttribute("href"));
+        }
+    }
+
+    @Test
+    void pngHasTheRequestedSize(@TempDir Path dir) throws Exception {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(8, 25);
+        Path file = dir.resolve("map.png");
+        RouteImageExporter.write(file, inst.depot, new NearestNeighborSolver().generateRoutes(inst, 50), 640, 480);
+
+        BufferedImage img = ImageIO.read(file.toFile());
+        assertEquals(640, img.getWidth());
+        assertEquals(480, img.getHeight());
+    }
+}
@@ -0,0 +1,52 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteOptimizerTest {
+
+    @Test
+    void keepsRoutesOnTimeAndNeverLonger() {
+        int changed = 0;
+        for (int seed = 1; seed <= 20; seed++) {
+            VRPInstance inst = new VRPInstance();
+            inst.generateInstance(seed, 60);
+            ArrayList<Route> routes = new NearestNeighborSolver().generateRoutes(inst, 80);
+            RouteOptimizer opt = new RouteOptimizer(inst);
+
+            for (Route r : routes) {
+                SolutionEvaluator.Evaluation before = SolutionEvaluator.route(r, inst, inst.depot);
+                HashSet<Node> stops = new HashSet<>(r.customers);
+                if (!opt.optimize(r)) continue;
+                changed++;
+
+                SolutionEvaluator.Evaluation after = SolutionEvaluator.route(r, inst, inst.depot);
+                assertEquals(0, after.lateCustomers, "seed " + seed);
+                assertTrue(after.distance < before.distance, "seed " + seed);
+                assertEquals(stops, new HashSet<>(r.customers));
+                assertEquals(r.customers.size(), r.arrival.size());
+            }
+        }
+        assertTrue(changed > 0, "no route was improved");
+    }
+
+    @Test
+    void leavesLateRoutesAlone() {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(9, 12);
+        Route r = new Route();
+        r.capacity = 1000;
+        for (Node c : inst.customers) r.addCustomer(c);
+        Collections.sort(r.customers, (a, b) -> b.due - a.due);         // latest window first
+        assertTrue(SolutionEvaluator.route(r, inst, inst.depot).lateCustomers > 0);
+
+        ArrayList<Node> order = new ArrayList<>(r.customers);
+        assertFalse(new RouteOptimizer(inst).optimize(r));
+        assertEquals(order, r.customers);
+    }
+}
@@ -0,0 +1,157 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteReportWriterTest {
+
+    /** Strict RFC 8259 reader for the subset the writer emits; throws on anything malformed. */
+    private static final class Json {
+        private final String s;
+        private int p;
+
+        private Json(String s) { this.s = s; }
+
+        static Object parse(String text) {
+            Json j = new Json(text);
+            Object v = j.value();
+            j.ws();
+            if (j.p != text.length()) throw j.error("trailing content");
+            return v;
+        }
+
+        private Object value() {
+            ws();
+            if (p >= s.length()) throw error("unexpected end");
+            char c = s.charAt(p);
+            if (c == '{') return object();
+            if (c == '[') return array();
+            if (c == '"') return string();
+            if (s.startsWith("true", p))  { p += 4; return Boolean.TRUE; }
+            if (s.startsWith("false", p)) { p += 5; return Boolean.FALSE; }
+            if (s.startsWith("null", p))  { p += 4; return null; }
+            return number();
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            p++; ws();
+            if (peek('}')) { p++; return m; }
+            do {
+                ws();
+                String k = string();
+                ws(); expect(':');
+                if (m.put(k, value()) != null) throw error("duplicate key " + k);
+                ws();
+            } while (next(','));
+            expect('}');
+            return m;
+        }
+
+        private List<Object> array() {
+            List<Object> a = new ArrayList<>();
+            p++; ws();
+            if (peek(']')) { p++; return a; }
+            do { a.add(value()); ws(); } while (next(','));
+            expect(']');
+            return a;
+        }
+
+        private String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (p < s.length() && s.charAt(p) != '"') {
+                char c = s.charAt(p++);
+                if (c < 0x20) throw error("control character in string");
+                if (c == '\\') throw error("escapes are not expected here");
+                sb.append(c);
+            }
+            expect('"');
+            return sb.toString();
+        }
+
+        private Double number() {
+            int from = p;
+            if (peek('-')) p++;
+            if (!digits()) throw error("number expected");
+            if (peek('.')) { p++; if (!digits()) throw error("fraction digits expected"); }
+            return Double.valueOf(s.substring(from, p));
+        }
+
+        private boolean digits() {
+            int from = p;
+            while (p < s.length() && Character.isDigit(s.charAt(p))) p++;
+            return p > from;
+        }
+
+        private void ws()                { while (p < s.length() && " \t\r\n".indexOf(s.charAt(p)) >= 0) p++; }
+        private boolean peek(char c)     { return p < s.length() && s.charAt(p) == c; }
+        private boolean next(char c)     { if (peek(c)) { p++; return true; } return false; }
+        private void expect(char c)      { if (!next(c)) throw error("'" + c + "' expected"); }
+        private RuntimeException error(String what) { return new IllegalArgumentException(what + " at " + p + ": " + s); }
+    }
+
+    private static Map<?, ?> report(List<Route> routes, VRPInstance inst) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        RouteReportWriter.write(sb, RouteReportWriter.Format.JSON, routes, inst);
+        return (Map<?, ?>) Json.parse(sb.toString());
+    }
+
+    @Test
+    void solvedPlanIsValidJson() throws IOException {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(21, 40);
+        ArrayList<Route> routes = new NearestNeighborSolver().generateRoutes(inst, 50);
+
+        Map<?, ?> doc = report(routes, inst);
+        List<?> out = (List<?>) doc.get("routes");
+        assertEquals(routes.size(), out.size());
+
+        int stops = 0;
+        for (int i = 0; i < out.size(); i++) {
+            Map<?, ?> r = (Map<?, ?>) out.get(i);
+            assertEquals(i + 1, ((Double) r.get("route")).intValue());
+            List<?> s = (List<?>) r.get("stops");
+            assertEquals(routes.get(i).customers.size(), s.size());
+            assertEquals(routes.get(i).customers.get(0).ID, ((Double) ((Map<?, ?>) s.get(0)).get("customer")).intValue());
+            stops += s.size();
+        }
+        assertEquals(40, stops);
+
+        Map<?, ?> totals = (Map<?, ?>) doc.get("totals");
+        SolutionEvaluator.Evaluation e = SolutionEvaluator.evaluate(routes, inst);
+        assertEquals(routes.size(), ((Double) totals.get("routes")).intValue());
+        assertEquals(e.distance, (Double) totals.get("distance"), 1e-3);
+        assertEquals(e.lateCustomers + e.longWaits == 0, totals.get("feasible"));
+    }
+
+    @Test
+    void emptyPlansAndRoutesAreValidJson() throws IOException {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(5, 3);
+        assertEquals(0, ((List<?>) report(new ArrayList<>(), inst).get("routes")).size());
+
+        ArrayList<Route> routes = new ArrayList<>();
+        routes.add(new Route());
+        Route late = new Route();
+        for (Node c : inst.customers) late.addCustomer(c);
+        late.customers.get(0).ready = 0;
+        late.customers.get(0).due = 0;                                  // cannot be on time
+        routes.add(late);
+        routes.add(new Route());
+
+        List<?> out = (List<?>) report(routes, inst).get("routes");
+        assertEquals(3, out.size());
+        assertTrue(((List<?>) ((Map<?, ?>) out.get(0)).get("stops")).isEmpty());
+        Map<?, ?> bad = (Map<?, ?>) out.get(1);
+        assertEquals(Boolean.FALSE, bad.get("feasible"));
+        assertEquals("late", ((Map<?, ?>) ((List<?>) bad.get("stops")).get(0)).get("status"));
+    }
+}
@@ -0,0 +1,82 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteResequencerTest {
+
+    /** Shortest on-time order by trying every permutation; +∞ if none is on time. */
+    private static double bruteForce(VRPInstance inst, List<Node> stops) {
+        return permute(inst, new ArrayList<>(stops), 0);
+    }
+
+    private static double permute(VRPInstance inst, ArrayList<Node> a, int from) {
+        if (from == a.size()) return onTime(inst, a) ? distance(inst, a) : Double.POSITIVE_INFINITY;
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = from; i < a.size(); i++) {
+            Collections.swap(a, from, i);
+            best = Math.min(best, permute(inst, a, from + 1));
+            Collections.swap(a, from, i);
+        }
+        return best;
+    }
+
+    private static boolean onTime(VRPInstance inst, List<Node> order) {
+        double t = 0; Node prev = inst.depot;
+        for (Node n : order) {
+            t = Math.max(t + inst.travel(prev, n), n.ready);
+            if (SolutionEvaluator.late(t, n.due)) return false;
+            t += n.service;
+            prev = n;
+        }
+        return true;
+    }
+
+    private static double distance(VRPInstance inst, List<Node> order) {
+        double d = 0; Node prev = inst.depot;
+        for (Node n : order) { d += inst.dist(prev, n); prev = n; }
+        return d + inst.dist(prev, inst.depot);
+    }
+
+    @Test
+    void matchesBruteForceOnSmallRoutes() {
+        int checked = 0;
+        for (int seed = 1; seed <= 40; seed++) {
+            VRPInstance inst = new VRPInstance();
+            inst.generateInstance(seed, 7);
+            Route r = new Route();
+            r.capacity = 1000;
+            for (Node c : inst.customers) r.addCustomer(c);
+
+            double optimum = bruteForce(inst, r.customers);
+            RouteResequencer rs = new RouteResequencer(inst);
+            rs.improve(r);
+            if (optimum == Double.POSITIVE_INFINITY || rs.truncations() > 0) continue;
+
+            assertTrue(onTime(inst, r.customers), "seed " + seed);
+            assertEquals(optimum, distance(inst, r.customers), 1e-6, "seed " + seed);
+            checked++;
+        }
+        assertTrue(checked >= 10, "only " + checked + " instances had an untruncated on-time order");
+    }
+
+    @Test
+    void leavesOptimalRouteAndDynamicStopsAlone() {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(5, 6);
+        Route r = new Route();
+        for (Node c : inst.customers) r.addCustomer(c);
+        RouteResequencer rs = new RouteResequencer(inst);
+        rs.improve(r);
+        assertFalse(rs.improve(r));                     // already optimal: memo hit, no change
+        assertEquals(1, rs.memoHits());
+
+        r.addCustomer(new Node(inst.size(), 1, 1, 1, 0, 1000, 0));
+        assertFalse(rs.improve(r));                     // not in the matrix: skipped
+    }
+}
@@ -0,0 +1,101 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteSimulatorTest {
+
+    /* nearest-neighbour plan plus one route served latest-window-first, so some stops are late */
+    private static ArrayList<Route> plan(VRPInstance inst) {
+        ArrayList<Route> routes = new NearestNeighborSolver().generateRoutes(inst, 60);
+        Route r = routes.get(0);
+        Collections.sort(r.customers, (a, b) -> b.due - a.due);
+        routes.add(new Route());                                           // an empty route never leaves
+        return routes;
+    }
+
+    @Test
+    void noiseFreeRunMatchesTheEvaluator() {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(13, 80);
+        ArrayList<Route> routes = plan(inst);
+        SolutionEvaluator.Evaluation e = SolutionEvaluator.evaluate(routes, inst);
+        assertTrue(e.lateCustomers > 0);
+
+        RouteSimulator.Result res = new RouteSimulator(inst, routes).run();
+        assertEquals(e.stops, res.arrivals);
+        assertEquals(e.lateCustomers, res.lateCustomers);
+        assertEquals(e.lateness, res.totalLateness, 1e-6);
+        assertEquals(e.maxLateness, res.maxLateness, 1e-6);
+        assertEquals(e.wait, res.totalWait, 1e-6);
+        assertEquals(e.distance, res.totalTravel, 1e-6);                   // no duration matrix: travel = distance
+        assertEquals(0, res.delayed);
+        assertEquals(0, res.finish[routes.size() - 1], 0.0);
+        /* per stop an arrival, a departure and, after waiting, a start; per non-empty route the return */
+        assertTrue(res.events >= 2 * e.stops + routes.size() - 1 && res.events <= 3 * e.stops + routes.size() - 1);
+    }
+
+    @Test
+    void eventsComeInTimeOrderAndRouteOrder() {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(4, 40);
+        ArrayList<Route> routes = plan(inst);
+        int[] next = new int[routes.size()];
+        double[] last = { Double.NEGATIVE_INFINITY };
+        int[] violations = { 0 };
+
+        RouteSimulator sim = new RouteSimulator(inst, routes).listener((type, r, stop, c, time, value) -> {
+            assertTrue(time >= last[0], type + " at " + time + " after " + last[0]);
+            last[0] = time;
+            switch (type) {
+                case ARRIVAL:
+                    assertEquals(next[r], stop);
+                    assertSame(routes.get(r).customers.get(stop), c);
+                    break;
+                case DEPARTURE:
+                    assertEquals(next[r]++, stop);
+                    break;
+                case WINDOW_VIOLATION:
+                    violations[0]++;
+                    assertTrue(SolutionEvaluator.late(time, c.due));
+                    break;
+                case RETURN:
+                    assertEquals(routes.get(r).customers.size(), next[r]);
+                    assertSame(inst.depot, c);
+                    break;
+                default:
+                    break;
+            }
+        });
+        RouteSimulator.Result res = sim.run();
+        assertEquals(res.lateCustomers, violations[0]);
+        for (int r = 0; r < routes.size(); r++) assertEquals(routes.get(r).customers.size(), next[r]);
+    }
+
+    @Test
+    void noisyRunsAreReproducibleAndSteppingMatchesRun() {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(21, 60);
+        ArrayList<Route> routes = plan(inst);
+        RouteSimulator sim = new RouteSimulator(inst, routes).noise(0.3, 5);
+
+        RouteSimulator.Result a = sim.run(), b = sim.run();
+        assertEquals(a.totalTravel, b.totalTravel, 0.0);
+        assertEquals(a.totalDelay, b.totalDelay, 0.0);
+        assertEquals(a.lateCustomers, b.lateCustomers);
+        assertTrue(a.delayed > 0);
+
+        RouteSimulator.Result other = sim.noise(0.3, 6).run();
+        assertNotEquals(a.totalTravel, other.totalTravel, 0.0);
+
+        sim.noise(0.3, 5).reset();
+        for (double t = 0; sim.advanceTo(t); t += 7.5) { }
+        assertEquals(a.totalTravel, sim.result().totalTravel, 0.0);
+        assertEquals(a.makespan, sim.result().makespan, 0.0);
+        assertEquals(a.events, sim.result().events);
+    }
+}
@@ -0,0 +1,94 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotIOTest {
+
+    @TempDir Path dir;
+
+    private static VRPInstance instance() {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(7, 25);
+        inst.vehicleCount = 4;
+        inst.vehicleCapacity = 60;
+        return inst;
+    }
+
+    private static void assertSameNodes(VRPInstance a, VRPInstance b) {
+        assertEquals(a.name, b.name);
+        assertEquals(a.size(), b.size());
+        assertEquals(a.vehicleCount, b.vehicleCount);
+        assertEquals(a.vehicleCapacity, b.vehicleCapacity);
+        assertArrayEquals(a.x, b.x);
+        assertArrayEquals(a.y, b.y);
+        assertArrayEquals(a.demand, b.demand);
+        assertArrayEquals(a.ready, b.ready);
+        assertArrayEquals(a.due, b.due);
+        assertArrayEquals(a.service, b.service);
+        for (int i = 0; i < a.customers.size(); i++)
+            assertEquals(a.customers.get(i).ID, b.customers.get(i).ID);
+    }
+
+    @Test
+    void instanceWithExactMatrix() throws IOException {
+        VRPInstance inst = instance();
+        Path f = dir.resolve("a.vrpi");
+        SnapshotIO.writeInstance(f, inst, true);
+        VRPInstance back = SnapshotIO.readInstance(f);
+
+        assertSameNodes(inst, back);
+        for (int i = 0; i < inst.size(); i++)
+            for (int j = 0; j < inst.size(); j++)
+                assertEquals(inst.distances.get(i, j), back.distances.get(i, j), 0.0);
+    }
+
+    @Test
+    void instanceWithPackedMatrix() throws IOException {
+        VRPInstance inst = instance();
+        Path f = dir.resolve("b.vrpi");
+        SnapshotIO.writeInstance(f, inst, PackedDistanceStore.Layout.UPPER_TRIANGLE, PackedDistanceStore.Encoding.FLOAT32);
+        VRPInstance back = SnapshotIO.readInstance(f);
+
+        assertSameNodes(inst, back);
+        for (int i = 0; i < inst.size(); i++)
+            for (int j = 0; j < inst.size(); j++)
+                assertEquals(inst.distances.get(i, j), back.distances.get(i, j), 1e-4);
+    }
+
+    @Test
+    void instanceWithoutMatrixRecomputesIt() throws IOException {
+        VRPInstance inst = instance();
+        Path f = dir.resolve("c.vrpi");
+        SnapshotIO.writeInstance(f, inst, false);
+        VRPInstance back = SnapshotIO.readInstance(f);
+
+        assertSameNodes(inst, back);
+        assertEquals(inst.distances.get(3, 11), back.distances.get(3, 11), 1e-9);
+    }
+
+    @Test
+    void solution() throws IOException {
+        VRPInstance inst = instance();
+        ArrayList<Route> routes = new NearestNeighborSolver().generateRoutes(inst, 60);
+        double cost = SolutionEvaluator.cost(routes, inst, inst.depot);
+        Path f = dir.resolve("s.vrps");
+        SnapshotIO.writeSolution(f, routes, cost, "nn seed 7");
+        SolutionSnapshot back = SnapshotIO.readSolution(f);
+
+        assertEquals(cost, back.cost, 0.0);
+        assertEquals("nn seed 7", back.meta);
+        assertEquals(0, back.diff(SolutionSnapshot.of(routes, cost, null)));
+
+        ArrayList<Route> rebuilt = back.toRoutes(inst, 60);
+        assertEquals(routes.size(), rebuilt.size());
+        for (int r = 0; r < routes.size(); r++)
+            assertEquals(routes.get(r).customers, rebuilt.get(r).customers);
+    }
+}
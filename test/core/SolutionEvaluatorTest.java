@@ -0,0 +1,125 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionEvaluatorTest {
+
+    /* depot at the origin; customers 1..3 on the x axis at 10, 20, 30, demand 5, no service time */
+    private static VRPInstance line() {
+        VRPInstance inst = new VRPInstance();
+        int n = 4;
+        inst.x = new int[n]; inst.y = new int[n]; inst.demand = new int[n];
+        inst.ready = new int[n]; inst.due = new int[n]; inst.service = new int[n];
+        inst.due[0] = 1000;
+        for (int i = 1; i < n; i++) { inst.x[i] = 10 * i; inst.demand[i] = 5; inst.due[i] = 1000; }
+        inst.buildNodes(n);
+        inst.computeDistanceMatrix();
+        return inst;
+    }
+
+    private static Route route(VRPInstance inst, int capacity, int... ids) {
+        Route r = new Route();
+        r.capacity = capacity;
+        for (int id : ids) r.addCustomer(inst.customers.get(id - 1));
+        return r;
+    }
+
+    @Test
+    void lateVerdictHasOneMinuteSlack() {
+        assertFalse(SolutionEvaluator.late(100, 100));
+        assertFalse(SolutionEvaluator.late(101, 100));
+        assertTrue(SolutionEvaluator.late(101.01, 100));
+        assertFalse(SolutionEvaluator.waitExceeds(11, 0, 10));
+        assertTrue(SolutionEvaluator.waitExceeds(11.5, 0, 10));
+    }
+
+    @Test
+    void onTimePlanCostsItsDistance() {
+        VRPInstance inst = line();
+        List<Route> routes = Arrays.asList(route(inst, 50, 1, 2, 3));
+        SolutionEvaluator.Evaluation e = SolutionEvaluator.evaluate(routes, inst);
+
+        assertEquals(60, e.distance, 1e-9);
+        assertEquals(60, e.cost(), 1e-9);
+        assertEquals(1, e.routes);
+        assertEquals(3, e.stops);
+        assertEquals(0, e.lateCustomers);
+        assertTrue(e.feasible());
+        assertEquals(60, SolutionEvaluator.cost(routes, inst, inst.depot), 1e-9);
+        assertEquals(e.cost(), Incumbent.score(routes, inst), 1e-9);
+    }
+
+    @Test
+    void lateStopsArePenalisedBeyondTheSlackOnly() {
+        VRPInstance inst = line();
+        inst.customers.get(2).due = 25;                     // customer 3 starts at 30: 5 min late
+        inst.customers.get(1).due = 19;                     // customer 2 starts at 20: within the slack
+        List<Route> routes = Arrays.asList(route(inst, 50, 1, 2, 3));
+        SolutionEvaluator.Evaluation e = SolutionEvaluator.evaluate(routes, inst);
+
+        assertEquals(1, e.lateCustomers);
+        assertEquals(5, e.lateness, 1e-9);
+        assertEquals(5, e.maxLateness, 1e-9);
+        assertEquals(60 + SolutionEvaluator.LATE_PENALTY + 5 * SolutionEvaluator.LATE_MINUTE_PENALTY, e.cost(), 1e-9);
+        assertFalse(e.feasible());
+    }
+
+    @Test
+    void waitsCountButLongWaitsStayFeasible() {
+        VRPInstance inst = line();
+        inst.customers.get(0).ready = 40;                   // arrives at 10, window [40, 45]
+        inst.customers.get(0).due = 45;
+        SolutionEvaluator.Evaluation e = SolutionEvaluator.evaluate(Arrays.asList(route(inst, 50, 1, 2, 3)), inst);
+
+        assertEquals(30, e.wait, 1e-9);
+        assertEquals(1, e.longWaits);
+        assertEquals(0, e.lateCustomers);
+        assertTrue(e.feasible());
+    }
+
+    @Test
+    void coverageAndCapacity() {
+        VRPInstance inst = line();
+        SolutionEvaluator.Evaluation missing = SolutionEvaluator.evaluate(Arrays.asList(route(inst, 50, 1, 3)), inst);
+        assertEquals(1, missing.missing);
+        assertFalse(missing.feasible());
+
+        SolutionEvaluator.Evaluation dup = SolutionEvaluator.evaluate(
+                Arrays.asList(route(inst, 50, 1, 2), route(inst, 50, 2, 3)), inst);
+        assertEquals(1, dup.duplicates);
+        assertEquals(0, dup.missing);
+        assertFalse(dup.feasible());
+
+        SolutionEvaluator.Evaluation heavy = SolutionEvaluator.evaluate(Arrays.asList(route(inst, 12, 1, 2, 3)), inst);
+        assertEquals(1, heavy.overloadedRoutes);
+        assertEquals(3, heavy.capacityExcess);
+        assertFalse(heavy.feasible());
+
+        SolutionEvaluator.Evaluation empty = SolutionEvaluator.evaluate(new ArrayList<>(), inst);
+        assertEquals(3, empty.missing);
+        assertEquals(0, empty.cost(), 0.0);
+    }
+
+    @Test
+    void idRouteCostMatchesTheListPass() {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(17, 50);
+        ArrayList<Route> routes = new NearestNeighborSolver().generateRoutes(inst, 40);
+        SolutionEvaluator ids = new SolutionEvaluator(inst);
+
+        double total = 0;
+        for (Route r : routes) {
+            int[] seq = new int[r.customers.size() + 3];
+            for (int i = 0; i < r.customers.size(); i++) seq[i] = r.customers.get(i).ID;
+            total += ids.routeCost(seq, r.customers.size());
+        }
+        assertEquals(SolutionEvaluator.cost(routes, inst, inst.depot), total, 1e-6);
+        assertEquals(0, ids.routeCost(new int[4], 0), 0.0);
+    }
+}
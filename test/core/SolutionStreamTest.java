@@ -0,0 +1,32 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionStreamTest {
+
+    @Test
+    void onlyTheClosingFrameMayBeWorse() {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(6, 30);
+        ArrayList<Route> good = new NearestNeighborSolver().generateRoutes(inst, 50);
+        ArrayList<Route> worse = Incumbent.copy(good);
+        Collections.reverse(worse.get(0).customers);
+        assertTrue(Incumbent.score(worse, inst) > Incumbent.score(good, inst));
+
+        SolutionStream stream = new SolutionStream(inst, 10);
+        assertTrue(stream.publishNow(good, "nn"));
+        assertFalse(stream.publishNow(worse, "nn"));                // monotone while solving
+        assertEquals(Incumbent.score(good, inst), stream.poll().cost, 1e-9);
+        assertNull(stream.poll());
+
+        stream.publishFinal(worse, "dispatched");
+        SolutionStream.Frame last = stream.poll();
+        assertEquals("dispatched", last.source);
+        assertEquals(Incumbent.score(worse, inst), last.cost, 1e-9);
+    }
+}
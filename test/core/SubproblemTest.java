@@ -0,0 +1,73 @@
+package core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubproblemTest {
+
+    private static VRPInstance instance() {
+        VRPInstance inst = new VRPInstance();
+        inst.generateInstance(11, 30);
+        return inst;
+    }
+
+    @Test
+    void formatParseRoundTrip() {
+        VRPInstance inst = instance();
+        int[] ids = { 4, 17, 9, 23, 2 };
+        Subproblem p = Subproblem.parse(Subproblem.format("job-3", Algorithms.TABU_SEARCH, inst, ids, 40));
+
+        assertEquals("job-3", p.job);
+        assertEquals(Algorithms.TABU_SEARCH, p.algorithm);       // blanks survive the wire
+        assertEquals(40, p.capacity);
+        assertArrayEquals(ids, p.ids);
+        assertEquals(ids.length + 1, p.instance.size());
+        assertEquals(inst.depot.x, p.instance.depot.x);
+        for (int i = 0; i < ids.length; i++) {
+            Node a = inst.customers.get(ids[i] - 1), b = p.instance.customers.get(i);
+            assertEquals(i + 1, b.ID);                           // renumbered 1..k
+            assertEquals(a.x, b.x);
+            assertEquals(a.y, b.y);
+            assertEquals(a.demand, b.demand);
+            assertEquals(a.ready, b.ready);
+            assertEquals(a.due, b.due);
+            assertEquals(a.service, b.service);
+        }
+        assertEquals(inst.dist(inst.customers.get(3), inst.customers.get(16)),
+                     p.instance.dist(p.instance.customers.get(0), p.instance.customers.get(1)), 1e-9);
+    }
+
+    @Test
+    void routesRoundTripInSenderIds() {
+        VRPInstance inst = instance();
+        int[] ids = { 4, 17, 9, 23, 2, 30, 12 };
+        Subproblem p = Subproblem.parse(Subproblem.format("job-1", Algorithms.NEAREST_NEIGHBOR, inst, ids, 50));
+        ArrayList<Route> local = new NearestNeighborSolver().generateRoutes(p.instance, p.capacity);
+
+        ArrayList<Route> back = Subproblem.parseRoutes(p.formatRoutes(local), inst, ids, 50);
+        assertNotNull(back);
+        assertEquals(local.size(), back.size());
+        for (int r = 0; r < local.size(); r++) {
+            assertEquals(local.get(r).customers.size(), back.get(r).customers.size());
+            for (int i = 0; i < local.get(r).customers.size(); i++)
+                assertEquals(ids[local.get(r).customers.get(i).ID - 1], back.get(r).customers.get(i).ID);
+        }
+    }
+
+    @Test
+    void rejectsBadRoutesAndMalformedInput() {
+        VRPInstance inst = instance();
+        int[] ids = { 4, 17, 9 };
+        assertNull(Subproblem.parseRoutes("4 17\n", inst, ids, 50));           // 9 missing
+        assertNull(Subproblem.parseRoutes("4 17 9 4\n", inst, ids, 50));       // repeated
+        assertNull(Subproblem.parseRoutes("4 17 9 5\n", inst, ids, 50));       // not in the job
+        assertNull(Subproblem.parseRoutes("4 x 9\n", inst, ids, 50));
+        assertNull(Subproblem.parseRoutes("4 17 9\n", inst, ids, 1));          // over capacity
+
+        assertThrows(IllegalArgumentException.class, () -> Subproblem.parse("job-1 nn 50\n"));
+        assertThrows(IllegalArgumentException.class, () -> Subproblem.parse("job-1 nn 50 2\n0 0 0 0 0 100 0\n"));
+    }
+}